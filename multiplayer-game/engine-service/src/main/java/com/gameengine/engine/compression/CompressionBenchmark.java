@@ -0,0 +1,108 @@
+package com.gameengine.engine.compression;
+
+import com.gameengine.protocol.DictionaryCompressor;
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Measures the bytes saved and CPU spent by each compression option, per room size.
+ *
+ * For every room size, synthetic rooms (seeded differently from the ones the bundled
+ * dictionaries were trained on) are sampled. Each option then compresses and decompresses
+ * every payload for a number of timed passes; the fastest pass is reported. The
+ * options are no compression, plain zstd, and zstd with the bundled dictionary at
+ * levels 1, 3 and 9.
+ *
+ * Usage:
+ * <pre>
+ * CompressionBenchmark [--events &lt;event-log&gt;] [--passes N] [--seed N]
+ * </pre>
+ * With --events the payloads come from the event log instead, as a single group.
+ */
+public class CompressionBenchmark {
+
+    private static final int[] LEVELS = {1, 3, 9};
+
+    // Keeps the JIT from discarding the timed work
+    private static volatile long blackhole;
+
+    public static void main(String[] args) throws IOException {
+        Path eventLog = null;
+        int passes = 5;
+        long seed = 1_000_003;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--events" -> eventLog = Path.of(args[++i]);
+                case "--passes" -> passes = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        System.out.printf("%-8s %-9s %-14s %9s %7s %11s %11s%n",
+                "players", "payload", "codec", "avg bytes", "ratio", "comp ns", "decomp ns");
+        if (eventLog != null) {
+            run("log", StateSampler.fromEventLog(eventLog, 1), passes);
+            return;
+        }
+        for (int players : DictionaryTrainer.ROOM_SIZES) {
+            run(Integer.toString(players), StateSampler.synthetic(4, players, 20 * players, seed + players), passes);
+        }
+    }
+
+    private static void run(String group, StateSampler sampler, int passes) {
+        runPayload(group, "snapshot", sampler.getSnapshots(), DictionaryCompressor.STATE_SNAPSHOT_DICTIONARY, passes);
+        runPayload(group, "json", sampler.getJsonFields(), DictionaryCompressor.ROOM_JSON_DICTIONARY, passes);
+    }
+
+    private static void runPayload(String group, String payload, List<byte[]> samples, int dictionaryId, int passes) {
+        report(group, payload, "none", samples, UnaryOperator.identity(), UnaryOperator.identity(), passes);
+        report(group, payload, "zstd-3", samples,
+                data -> Zstd.compress(data, 3),
+                data -> Zstd.decompress(data, (int) Zstd.decompressedSize(data)), passes);
+        for (int level : LEVELS) {
+            DictionaryCompressor compressor = new DictionaryCompressor(dictionaryId, level);
+            report(group, payload, "zstd-dict-" + level, samples,
+                    compressor::compress, DictionaryCompressor::decompressIfNeeded, passes);
+        }
+    }
+
+    private static void report(String group, String payload, String codec, List<byte[]> samples,
+                               UnaryOperator<byte[]> compress, UnaryOperator<byte[]> decompress, int passes) {
+        byte[][] compressed = new byte[samples.size()][];
+        long raw = 0;
+        long packed = 0;
+        for (int i = 0; i < compressed.length; i++) {
+            compressed[i] = compress.apply(samples.get(i));
+            raw += samples.get(i).length;
+            packed += compressed[i].length;
+        }
+
+        long bestCompress = Long.MAX_VALUE;
+        long bestDecompress = Long.MAX_VALUE;
+        long sink = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            long start = System.nanoTime();
+            for (byte[] sample : samples) {
+                sink += compress.apply(sample).length;
+            }
+            bestCompress = Math.min(bestCompress, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (byte[] data : compressed) {
+                sink += decompress.apply(data).length;
+            }
+            bestDecompress = Math.min(bestDecompress, System.nanoTime() - start);
+        }
+        blackhole += sink;
+
+        int count = samples.size();
+        System.out.printf("%-8s %-9s %-14s %9d %6.2fx %11d %11d%n",
+                group, payload, codec, packed / count, (double) raw / packed,
+                bestCompress / count, bestDecompress / count);
+    }
+}
@@ -0,0 +1,118 @@
+package com.gameengine.engine.compression;
+
+import com.gameengine.protocol.DictionaryCompressor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trains the shared compression dictionaries for state snapshots and room JSON fields.
+ *
+ * Usage:
+ * <pre>
+ * DictionaryTrainer &lt;out-dir&gt; --snapshot-id N --json-id N [--events &lt;event-log&gt;]
+ *                   [--sample-every N] [--size BYTES] [--seed N]
+ * </pre>
+ * Without --events the samples come from synthetic rooms of 2 to 64 players. The
+ * dictionaries are written as zstd-&lt;id&gt;.dict; to ship them, copy them into
+ * game-protocol's {@code com/gameengine/protocol/dictionaries}. Both IDs must be given
+ * and must not be bundled already, since payloads compressed with the published
+ * dictionaries may still be in Redis or Kafka.
+ */
+public class DictionaryTrainer {
+
+    static final int[] ROOM_SIZES = {2, 4, 8, 16, 32, 64};
+    private static final int MAX_SAMPLES = 20_000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: DictionaryTrainer <out-dir> --snapshot-id N --json-id N "
+                    + "[--events <event-log>] [--sample-every N] [--size BYTES] [--seed N]");
+            System.exit(1);
+        }
+        Path outDir = Path.of(args[0]);
+        Path eventLog = null;
+        int sampleEvery = 10;
+        int snapshotId = 0;
+        int jsonId = 0;
+        int size = 16 * 1024;
+        long seed = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--events" -> eventLog = Path.of(args[++i]);
+                case "--sample-every" -> sampleEvery = Integer.parseInt(args[++i]);
+                case "--snapshot-id" -> snapshotId = Integer.parseInt(args[++i]);
+                case "--json-id" -> jsonId = Integer.parseInt(args[++i]);
+                case "--size" -> size = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        checkNewId("--snapshot-id", snapshotId);
+        checkNewId("--json-id", jsonId);
+        if (snapshotId == jsonId) {
+            throw new IllegalArgumentException("--snapshot-id and --json-id must differ");
+        }
+
+        StateSampler sampler = eventLog != null
+                ? StateSampler.fromEventLog(eventLog, sampleEvery)
+                : synthetic(seed);
+
+        Random random = new Random(seed);
+        Files.createDirectories(outDir);
+        train(outDir, snapshotId, "snapshot", limit(sampler.getSnapshots(), random), size);
+        train(outDir, jsonId, "room JSON", limit(sampler.getJsonFields(), random), size);
+    }
+
+    /**
+     * Published dictionaries never change, so a retrained one needs an ID of its own.
+     */
+    private static void checkNewId(String option, int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException(option + " is required: a new dictionary ID");
+        }
+        if (DictionaryCompressor.isBundled(id)) {
+            throw new IllegalArgumentException(option + " " + id
+                    + " is a published dictionary; retrained dictionaries need a new ID");
+        }
+    }
+
+    static StateSampler synthetic(long seed) {
+        StateSampler sampler = new StateSampler();
+        for (int players : ROOM_SIZES) {
+            sampler.addSynthetic(8, players, 40 * players, seed + players);
+        }
+        return sampler;
+    }
+
+    private static void train(Path outDir, int id, String kind, List<byte[]> samples, int size) throws IOException {
+        byte[] dictionary = DictionaryCompressor.train(samples, size);
+        Path file = outDir.resolve("zstd-" + id + ".dict");
+        Files.write(file, dictionary);
+
+        DictionaryCompressor compressor = new DictionaryCompressor(id, dictionary, DictionaryCompressor.DEFAULT_LEVEL);
+        long raw = 0;
+        long compressed = 0;
+        for (byte[] sample : samples) {
+            raw += sample.length;
+            compressed += compressor.compress(sample).length;
+        }
+        System.out.printf("%s: %d samples, %,d -> %,d bytes (%.2fx), %d byte dictionary written to %s%n",
+                kind, samples.size(), raw, compressed, (double) raw / compressed, dictionary.length, file);
+    }
+
+    private static List<byte[]> limit(List<byte[]> samples, Random random) {
+        if (samples.size() <= MAX_SAMPLES) {
+            return samples;
+        }
+        List<byte[]> shuffled = new ArrayList<>(samples);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, MAX_SAMPLES);
+    }
+}
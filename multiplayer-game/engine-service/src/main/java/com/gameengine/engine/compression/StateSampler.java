@@ -0,0 +1,124 @@
+package com.gameengine.engine.compression;
+
+import com.gameengine.engine.config.RedisConfig;
+import com.gameengine.engine.config.StateUpdateSerializer;
+import com.gameengine.engine.logic.GameLogic;
+import com.gameengine.engine.logic.IdGenerator;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.StateUpdate;
+import com.gameengine.engine.replay.EventLogReader;
+import com.gameengine.engine.replay.ReplayClock;
+import com.gameengine.engine.repository.RoomHashCodec;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.RoomSummary;
+import com.gameengine.protocol.Velocity;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Collects the payloads the engine compresses, for dictionary training and benchmarks:
+ * binary 'game-state-updates' snapshots and the JSON fields of room hashes in Redis.
+ *
+ * Samples come either from a recorded event log (closest to production) or from
+ * synthetic rooms shaped like the simulator's: bot IDs derived from the room ID, bots
+ * that mostly move and sometimes shoot or jump.
+ */
+public class StateSampler {
+
+    private static final String TOPIC = "game-state-updates";
+
+    private final RoomHashCodec roomHashCodec = new RoomHashCodec(RedisConfig.gameStateObjectMapper());
+    private final StateUpdateSerializer snapshotSerializer = new StateUpdateSerializer();
+    private final List<byte[]> snapshots = new ArrayList<>();
+    private final List<byte[]> jsonFields = new ArrayList<>();
+
+    /**
+     * Replays an event log and samples the room after every {@code sampleEvery}-th event.
+     */
+    public static StateSampler fromEventLog(Path eventLog, int sampleEvery) throws IOException {
+        ReplayClock clock = new ReplayClock();
+        GameLogic gameLogic = new GameLogic(clock, IdGenerator.randomUuid());
+        Map<String, GameState> states = new HashMap<>();
+        StateSampler sampler = new StateSampler();
+        long applied = 0;
+        for (PlayerEvent event : EventLogReader.readAll(eventLog)) {
+            clock.set(event.getTimestamp());
+            GameState state = gameLogic.apply(states.get(event.getRoomId()), event);
+            states.put(event.getRoomId(), state);
+            if (++applied % sampleEvery == 0) {
+                sampler.sample(state);
+            }
+        }
+        return sampler;
+    }
+
+    /**
+     * Plays synthetic rooms and samples each room after every event.
+     *
+     * @param rooms Number of rooms
+     * @param playersPerRoom Bots per room
+     * @param eventsPerRoom Events applied to each room
+     * @param seed Seed for bot behavior; room IDs are derived from it too
+     */
+    public static StateSampler synthetic(int rooms, int playersPerRoom, int eventsPerRoom, long seed) {
+        StateSampler sampler = new StateSampler();
+        sampler.addSynthetic(rooms, playersPerRoom, eventsPerRoom, seed);
+        return sampler;
+    }
+
+    void addSynthetic(int rooms, int playersPerRoom, int eventsPerRoom, long seed) {
+        Random random = new Random(seed);
+        ReplayClock clock = new ReplayClock();
+        GameLogic gameLogic = new GameLogic(clock, IdGenerator.randomUuid());
+        String runId = Long.toHexString(random.nextLong() | Long.MIN_VALUE).substring(0, 8);
+        long time = 1_700_000_000_000L;
+
+        for (int r = 0; r < rooms; r++) {
+            String roomId = "sim-" + runId + "-room-" + r;
+            GameState state = null;
+            for (int e = 0; e < eventsPerRoom; e++) {
+                String playerId = roomId + "-bot-" + random.nextInt(playersPerRoom);
+                double roll = random.nextDouble();
+                PlayerEvent.ActionType action = roll < 0.7 ? PlayerEvent.ActionType.MOVE
+                        : roll < 0.95 ? PlayerEvent.ActionType.SHOOT : PlayerEvent.ActionType.JUMP;
+                double angle = random.nextDouble() * 2 * Math.PI;
+                Velocity velocity = action == PlayerEvent.ActionType.JUMP ? null
+                        : new Velocity(Math.cos(angle) * 5, Math.sin(angle) * 5);
+                PlayerEvent event = new PlayerEvent(playerId, roomId, action, null, velocity);
+                time += 1 + random.nextInt(40);
+                event.setTimestamp(time);
+                clock.set(time);
+                state = gameLogic.apply(state, event);
+                sample(state);
+            }
+        }
+    }
+
+    /**
+     * Records the payloads the engine would write for the state as it is now.
+     */
+    public void sample(GameState state) {
+        StateUpdate update = new StateUpdate(state.getRoomId(), state);
+        update.setTimestamp(state.getTimestamp());
+        snapshots.add(snapshotSerializer.serialize(TOPIC, update));
+        roomHashCodec.encode(state).forEach((field, value) -> {
+            if (!RoomSummary.FIELDS.contains(field)) {
+                jsonFields.add(value);
+            }
+        });
+    }
+
+    public List<byte[]> getSnapshots() {
+        return snapshots;
+    }
+
+    public List<byte[]> getJsonFields() {
+        return jsonFields;
+    }
+}
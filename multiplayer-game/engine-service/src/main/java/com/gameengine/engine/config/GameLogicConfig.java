@@ -0,0 +1,44 @@
+package com.gameengine.engine.config;
+
+import com.gameengine.engine.logic.GameClock;
+import com.gameengine.engine.logic.IdGenerator;
+import com.gameengine.engine.logic.LagCompensation;
+import com.gameengine.engine.logic.PhysicsMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Wires the time and ID sources, lag compensation settings and physics mode used by GameLogic.
+ * Replay tooling constructs GameLogic directly with deterministic sources instead.
+ */
+@Configuration
+public class GameLogicConfig {
+
+    @Bean
+    public GameClock gameClock() {
+        return GameClock.system();
+    }
+
+    @Bean
+    public IdGenerator idGenerator() {
+        return IdGenerator.randomUuid();
+    }
+
+    @Bean
+    public LagCompensation lagCompensation(
+            @Value("${game.engine.lag-compensation.max-rewind-ms:200}") long maxRewindMs,
+            @Value("${game.engine.lag-compensation.history-frames:16}") int historyFrames,
+            @Value("${game.engine.lag-compensation.max-tracked-players:128}") int maxTrackedPlayers) {
+        return new LagCompensation(maxRewindMs, historyFrames, maxTrackedPlayers);
+    }
+
+    @Bean
+    public PhysicsMode physicsMode(
+            @Value("${game.engine.physics.fixed-point:false}") boolean fixedPoint,
+            @Value("${game.engine.physics.fixed-point-room-prefixes:}") List<String> fixedPointRoomPrefixes) {
+        return new PhysicsMode(fixedPoint, fixedPointRoomPrefixes);
+    }
+}
@@ -0,0 +1,54 @@
+package com.gameengine.engine.config;
+
+import com.gameengine.protocol.InputBatch;
+import com.gameengine.protocol.InputBatchCodec;
+import com.gameengine.protocol.WireFormat;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Value deserializer of the engine's player-events consumer.
+ *
+ * Reads {@link InputBatch} frames in one pass without reflection. Any other record - a
+ * single binary PlayerEvent frame or a legacy JSON event - goes through
+ * {@link PlayerEventWireDeserializer} and becomes a batch of one, so producers can move
+ * to batches independently of the engine.
+ */
+public class InputBatchWireDeserializer implements Deserializer<InputBatch> {
+
+    private final PlayerEventWireDeserializer single = new PlayerEventWireDeserializer();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        single.configure(configs, isKey);
+    }
+
+    @Override
+    public InputBatch deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (WireFormat.isBinaryFrame(data) && WireFormat.frameType(data) == WireFormat.TYPE_INPUT_BATCH) {
+            try {
+                return InputBatchCodec.decode(ByteBuffer.wrap(data));
+            } catch (RuntimeException e) {
+                throw new SerializationException("Failed to decode input batch from topic " + topic, e);
+            }
+        }
+        return InputBatch.of(single.deserialize(topic, data));
+    }
+
+    @Override
+    public InputBatch deserialize(String topic, Headers headers, byte[] data) {
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        single.close();
+    }
+}
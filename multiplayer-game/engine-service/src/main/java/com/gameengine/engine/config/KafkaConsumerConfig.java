@@ -1,23 +1,31 @@
 package com.gameengine.engine.config;
 
-import com.gameengine.engine.model.PlayerEvent;
+import com.gameengine.engine.repository.RoomDirectory;
+import com.gameengine.engine.service.RoomStateCache;
+import com.gameengine.protocol.InputBatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Kafka consumer configuration for consuming player events.
+ * Each record is read as an {@link InputBatch}; a single-event record is a batch of one.
  */
 @Configuration
 public class KafkaConsumerConfig {
@@ -29,14 +37,14 @@ public class KafkaConsumerConfig {
     private String groupId;
 
     @Bean
-    public ConsumerFactory<String, PlayerEvent> playerEventConsumerFactory() {
+    public ConsumerFactory<String, InputBatch> playerEventConsumerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> props = new HashMap<>();
         
         // Basic Kafka properties
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, InputBatchWireDeserializer.class);
         
         // Offset and commit configuration
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
@@ -47,29 +55,42 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
         props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000); // 5 minutes
         
-        // JSON deserializer configuration
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, PlayerEvent.class);
+        // Input batches and single binary events, with JSON fallback for legacy records
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-        
-        // Error handling
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        props.put(JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, true);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, InputBatchWireDeserializer.class);
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        DefaultKafkaConsumerFactory<String, InputBatch> factory = new DefaultKafkaConsumerFactory<>(props);
+        // Client metrics, including records-lag-max per partition, as kafka.consumer.* meters
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, PlayerEvent> 
-            playerEventKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, PlayerEvent> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, InputBatch> 
+            playerEventKafkaListenerContainerFactory(ConsumerFactory<String, InputBatch> playerEventConsumerFactory,
+                                                     RoomDirectory roomDirectory,
+                                                     RoomStateCache roomStateCache) {
+        ConcurrentKafkaListenerContainerFactory<String, InputBatch> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(playerEventConsumerFactory());
+        factory.setConsumerFactory(playerEventConsumerFactory);
         
         // Manual acknowledgment mode
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         
+        // Rooms on revoked partitions now belong to another consumer; drop their in-memory state.
+        // Newly assigned partitions may own rooms handed off while another instance had them.
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                roomStateCache.evictPartitions(partitions.stream().map(TopicPartition::partition).toList());
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                roomDirectory.refresh();
+            }
+        });
+
         // Batch listener configuration
         factory.setBatchListener(true);
         
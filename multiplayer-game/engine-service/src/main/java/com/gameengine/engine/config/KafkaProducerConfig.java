@@ -1,6 +1,8 @@
 package com.gameengine.engine.config;
 
 import com.gameengine.engine.model.StateUpdate;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.kafka.PlayerEventSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,13 +11,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Kafka producer configuration for publishing state updates.
+ * Kafka producer configuration for publishing state updates, and for forwarding
+ * player events of rooms that have been handed off to another partition.
  */
 @Configuration
 public class KafkaProducerConfig {
@@ -23,6 +25,12 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${game.engine.compression.kafka-dictionary-id:0}")
+    private int stateUpdateDictionaryId;
+
+    @Value("${game.engine.compression.level:3}")
+    private int compressionLevel;
+
     @Bean
     public ProducerFactory<String, StateUpdate> stateUpdateProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -30,7 +38,9 @@ public class KafkaProducerConfig {
         // Basic Kafka properties
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StateUpdateSerializer.class);
+        configProps.put(StateUpdateSerializer.DICTIONARY_ID_CONFIG, stateUpdateDictionaryId);
+        configProps.put(StateUpdateSerializer.LEVEL_CONFIG, compressionLevel);
         
         // Reliability and idempotence
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
@@ -39,16 +49,12 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         
         // Performance
-        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        // Dictionary-compressed snapshots leave nothing for snappy to find
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, stateUpdateDictionaryId > 0 ? "none" : "snappy");
         configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
-        
-        // Type mapping for JSON serializer
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        Map<String, Class<?>> typeMappings = new HashMap<>();
-        typeMappings.put("gameStateUpdate", StateUpdate.class);
-        configProps.put(JsonSerializer.TYPE_MAPPINGS, typeMappings);
+
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
@@ -57,5 +63,25 @@ public class KafkaProducerConfig {
     public KafkaTemplate<String, StateUpdate> stateUpdateKafkaTemplate() {
         return new KafkaTemplate<>(stateUpdateProducerFactory());
     }
-}
 
+    @Bean
+    public ProducerFactory<String, PlayerEvent> playerEventForwardProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PlayerEventSerializer.class);
+
+        // Forwards are rare and sent synchronously; favour ordering over batching
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean(name = "playerEventForwardKafkaTemplate")
+    public KafkaTemplate<String, PlayerEvent> playerEventForwardKafkaTemplate() {
+        return new KafkaTemplate<>(playerEventForwardProducerFactory());
+    }
+}
@@ -0,0 +1,48 @@
+package com.gameengine.engine.config;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.WireFormat;
+import com.gameengine.protocol.kafka.PlayerEventDeserializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Player event deserializer for the engine consumer.
+ * 
+ * Decodes binary protocol frames without reflection and falls back to JSON for records
+ * produced before the protocol module was rolled out (or by external tools).
+ */
+public class PlayerEventWireDeserializer implements Deserializer<PlayerEvent> {
+
+    private final PlayerEventDeserializer binary = new PlayerEventDeserializer();
+    private final JsonDeserializer<PlayerEvent> json = new JsonDeserializer<>(PlayerEvent.class, false);
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        binary.configure(configs, isKey);
+    }
+
+    @Override
+    public PlayerEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return WireFormat.isBinaryFrame(data)
+                ? binary.deserialize(topic, data)
+                : json.deserialize(topic, data);
+    }
+
+    @Override
+    public PlayerEvent deserialize(String topic, Headers headers, byte[] data) {
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        binary.close();
+        json.close();
+    }
+}
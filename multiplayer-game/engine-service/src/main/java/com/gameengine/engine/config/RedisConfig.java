@@ -2,14 +2,17 @@ package com.gameengine.engine.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
-import com.fasterxml.jackson.databind.type.MapType;
-import com.fasterxml.jackson.databind.type.SimpleType;
-import com.gameengine.engine.model.Bullet;
 import com.gameengine.engine.model.GameState;
-import com.gameengine.engine.model.Player;
+import com.gameengine.engine.repository.RoomHashCodec;
+import com.gameengine.protocol.DictionaryCompressor;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TimeoutOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -19,6 +22,8 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 /**
  * Redis configuration for game state storage.
  */
@@ -45,6 +50,27 @@ public class RedisConfig {
         return new JedisConnectionFactory(config);
     }
 
+    /**
+     * Lettuce client for {@link com.gameengine.engine.repository.AsyncGameStateRepository}.
+     * Its one connection multiplexes every in-flight command, so unlike the Jedis pool
+     * there is nothing to exhaust under load.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "game.engine.redis.async.enabled", havingValue = "true")
+    public RedisClient lettuceRedisClient(@Value("${spring.data.redis.timeout:2000ms}") Duration timeout) {
+        RedisURI.Builder uri = RedisURI.builder()
+                .withHost(redisHost)
+                .withPort(redisPort)
+                .withTimeout(timeout);
+        if (redisPassword != null && !redisPassword.isEmpty()) {
+            uri.withPassword(redisPassword.toCharArray());
+        }
+        RedisClient client = RedisClient.create(uri.build());
+        // Fail commands after the timeout rather than leaving their futures pending
+        client.setOptions(ClientOptions.builder().timeoutOptions(TimeoutOptions.enabled()).build());
+        return client;
+    }
+
     @Bean
     public RedisTemplate<String, GameState> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, GameState> template = new RedisTemplate<>();
@@ -56,35 +82,43 @@ public class RedisConfig {
 
         // Value serializer - JSON for GameState
         Jackson2JsonRedisSerializer<GameState> serializer = new Jackson2JsonRedisSerializer<>(GameState.class);
+        serializer.setObjectMapper(gameStateObjectMapper());
+        
+        template.setValueSerializer(serializer);
+        template.setHashValueSerializer(serializer);
         
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * Encodes rooms into the per-field hash layout, with the same JSON mapping as the
+     * template's value serializer. With a Redis dictionary configured, new writes of the
+     * JSON fields are compressed; compressed fields are readable either way.
+     */
+    @Bean
+    public RoomHashCodec roomHashCodec(@Value("${game.engine.compression.redis-dictionary-id:0}") int dictionaryId,
+                                       @Value("${game.engine.compression.level:3}") int compressionLevel) {
+        DictionaryCompressor compressor = dictionaryId > 0
+                ? new DictionaryCompressor(dictionaryId, compressionLevel)
+                : null;
+        return new RoomHashCodec(gameStateObjectMapper(), compressor);
+    }
+
+    /**
+     * JSON mapping of the engine model in Redis. Public for offline tools that read or
+     * write room payloads without a Spring context.
+     */
+    public static ObjectMapper gameStateObjectMapper() {
         // Configure ObjectMapper for proper serialization
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // Derived getters (playerCount, magnitude, alive, ...) are written but have no field to read back into
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         objectMapper.activateDefaultTyping(
                 objectMapper.getPolymorphicTypeValidator(),
                 ObjectMapper.DefaultTyping.NON_FINAL
         );
-        
-        // Register custom type information for nested types
-        MapType playerMapType = objectMapper.getTypeFactory().constructMapType(
-                java.util.Map.class,
-                SimpleType.constructUnsafe(String.class),
-                SimpleType.constructUnsafe(Player.class)
-        );
-        
-        CollectionType bulletListType = objectMapper.getTypeFactory().constructCollectionType(
-                java.util.List.class,
-                Bullet.class
-        );
-        
-        serializer.setObjectMapper(objectMapper);
-        
-        template.setValueSerializer(serializer);
-        template.setHashValueSerializer(serializer);
-        
-        template.afterPropertiesSet();
-        return template;
+        return objectMapper;
     }
 }
-
-
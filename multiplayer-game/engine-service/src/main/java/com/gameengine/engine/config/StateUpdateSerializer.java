@@ -0,0 +1,81 @@
+package com.gameengine.engine.config;
+
+import com.gameengine.engine.model.Bullet;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.Player;
+import com.gameengine.engine.model.StateUpdate;
+import com.gameengine.protocol.DictionaryCompressor;
+import com.gameengine.protocol.EncodingBuffer;
+import com.gameengine.protocol.StateSnapshotCodec;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link StateUpdate}s straight from the engine model into the binary
+ * state snapshot format, with no intermediate DTOs and no reflection.
+ *
+ * If {@link #DICTIONARY_ID_CONFIG} names a bundled dictionary, each snapshot is also
+ * compressed with it; consumers decompress through the protocol's deserializer.
+ */
+public class StateUpdateSerializer implements Serializer<StateUpdate> {
+
+    /** Producer config: dictionary ID to compress with, 0 or absent for none */
+    public static final String DICTIONARY_ID_CONFIG = "game.compression.dictionary-id";
+    /** Producer config: zstd level, defaults to {@link DictionaryCompressor#DEFAULT_LEVEL} */
+    public static final String LEVEL_CONFIG = "game.compression.level";
+
+    private DictionaryCompressor compressor;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        int dictionaryId = intConfig(configs.get(DICTIONARY_ID_CONFIG), 0);
+        if (dictionaryId > 0) {
+            compressor = new DictionaryCompressor(dictionaryId,
+                    intConfig(configs.get(LEVEL_CONFIG), DictionaryCompressor.DEFAULT_LEVEL));
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, StateUpdate update) {
+        if (update == null) {
+            return null;
+        }
+        byte[] bytes = EncodingBuffer.encode(buffer -> encode(update, buffer));
+        return compressor != null ? compressor.compress(bytes) : bytes;
+    }
+
+    private static int intConfig(Object value, int defaultValue) {
+        return value == null ? defaultValue : Integer.parseInt(value.toString());
+    }
+
+    static void encode(StateUpdate update, ByteBuffer buffer) {
+        GameState state = update.getGameState();
+        StateUpdate.StateDiff diff = update.getDiff();
+        long version = state != null ? state.getVersion() : diff != null ? diff.getVersion() : 0;
+        StateSnapshotCodec.writeHeader(buffer, update.getRoomId(), version, update.getTimestamp(), update.isFullUpdate());
+
+        Collection<Player> updatedPlayers = diff != null ? diff.getUpdatedPlayers().values() : Collections.emptyList();
+        Iterable<Player> players = state != null ? state.playerIndex() : updatedPlayers;
+        StateSnapshotCodec.writeCount(buffer, state != null ? state.getPlayerCount() : updatedPlayers.size());
+        for (Player player : players) {
+            StateSnapshotCodec.writePlayer(buffer, player.getPlayerId(), player.getPosition(),
+                    player.getVelocity(), player.getHealth());
+        }
+
+        List<Bullet> bullets = state != null ? state.getBullets()
+                : diff != null ? diff.getNewBullets() : Collections.emptyList();
+        StateSnapshotCodec.writeCount(buffer, bullets.size());
+        for (Bullet bullet : bullets) {
+            StateSnapshotCodec.writeBullet(buffer, bullet.getBulletId(), bullet.getShooterId(),
+                    bullet.getPosition(), bullet.getVelocity());
+        }
+
+        StateSnapshotCodec.writeIds(buffer, diff != null ? diff.getRemovedPlayers() : Collections.emptyList());
+        StateSnapshotCodec.writeIds(buffer, diff != null ? diff.getRemovedBullets() : Collections.emptyList());
+    }
+}
@@ -0,0 +1,126 @@
+package com.gameengine.engine.diagnostics;
+
+import com.gameengine.engine.model.GameState;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the engine's per-room stages.
+ *
+ * They are disabled unless a recording asks for them, which {@link JfrRecordingEndpoint}
+ * does, so a JVM-wide recording started with jcmd does not pick them up by accident.
+ * A disabled event costs a flag check; usage follows the JFR idiom:
+ * <pre>
+ * EngineEvents.EventApply event = new EngineEvents.EventApply();
+ * event.begin();
+ * ... work ...
+ * event.end();
+ * if (event.shouldCommit()) {
+ *     event.roomId = ...;
+ *     event.commit();
+ * }
+ * </pre>
+ * Recorded without stack traces; the room ID and counts say more than the call path.
+ */
+public final class EngineEvents {
+
+    static final String CATEGORY = "Game Engine";
+
+    private EngineEvents() {
+    }
+
+    /**
+     * Ends an event and, if it is enabled and over its threshold, commits it with the
+     * room's current counts. Event-specific fields must be set before.
+     *
+     * @param state Room state, or null if the room has none
+     */
+    public static void commit(RoomEvent event, String roomId, GameState state) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.roomId = roomId;
+            if (state != null) {
+                event.playerCount = state.getPlayerCount();
+                event.bulletCount = state.getBulletCount();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Base for events about one room's state.
+     */
+    @Enabled(false)
+    @StackTrace(false)
+    public abstract static class RoomEvent extends Event {
+        @Label("Room ID")
+        public String roomId;
+
+        @Label("Players")
+        public int playerCount;
+
+        @Label("Bullets")
+        public int bulletCount;
+    }
+
+    @Name("com.gameengine.RoomTick")
+    @Label("Room Tick")
+    @Category({CATEGORY, "Physics"})
+    @Description("One room advanced by the tick scheduler, including its save and publish")
+    public static final class RoomTick extends RoomEvent {
+    }
+
+    @Name("com.gameengine.EventApply")
+    @Label("Event Apply")
+    @Category({CATEGORY, "Physics"})
+    @Description("One player event applied to its room")
+    public static final class EventApply extends RoomEvent {
+        @Label("Action")
+        public String actionType;
+    }
+
+    @Name("com.gameengine.RedisLoad")
+    @Label("Redis Load")
+    @Category({CATEGORY, "Persistence"})
+    @Description("A room claimed and read from Redis")
+    public static final class RedisLoad extends RoomEvent {
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("com.gameengine.RedisSave")
+    @Label("Redis Save")
+    @Category({CATEGORY, "Persistence"})
+    @Description("A room's changed fields written to Redis by the save script")
+    public static final class RedisSave extends RoomEvent {
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Full Write")
+        public boolean full;
+
+        @Label("Result")
+        public String result;
+    }
+
+    @Name("com.gameengine.KafkaPublish")
+    @Label("Kafka Publish")
+    @Category({CATEGORY, "Messaging"})
+    @Description("A state update sent to Kafka, until the broker acknowledged it")
+    public static final class KafkaPublish extends RoomEvent {
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Partition")
+        public int partition;
+    }
+}
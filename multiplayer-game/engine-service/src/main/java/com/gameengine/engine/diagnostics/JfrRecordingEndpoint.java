@@ -0,0 +1,141 @@
+package com.gameengine.engine.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/jfr) that records the {@link EngineEvents} on a running pod.
+ *
+ * POST starts a recording of the engine events slower than thresholdMs, optionally on
+ * top of the JVM's default profile (CPU samples, GC, locks). The recording keeps the
+ * last maxAgeSeconds on disk. DELETE stops it and writes it to
+ * game.engine.jfr.dump-dir; GET shows its state. One recording at a time.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            EngineEvents.RoomTick.class,
+            EngineEvents.EventApply.class,
+            EngineEvents.RedisLoad.class,
+            EngineEvents.RedisSave.class,
+            EngineEvents.KafkaPublish.class);
+
+    private final Path dumpDir;
+    private Recording recording;
+    private long thresholdMs;
+
+    public JfrRecordingEndpoint(@Value("${game.engine.jfr.dump-dir:${java.io.tmpdir}}") String dumpDir) {
+        this.dumpDir = Path.of(dumpDir);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("name", recording.getName());
+        status.put("startedAt", recording.getStartTime());
+        status.put("thresholdMs", thresholdMs);
+        status.put("maxAge", recording.getMaxAge());
+        if (recording.getDestination() != null) {
+            status.put("file", recording.getDestination().toString());
+        }
+        return status;
+    }
+
+    /**
+     * Starts recording.
+     *
+     * @param thresholdMs Only record stages at least this slow; 0 records every one (default 1)
+     * @param maxAgeSeconds Keep this much history (default 600)
+     * @param includeJvm Also record the JVM's default profile (default true)
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long thresholdMs,
+                                                  @Nullable Long maxAgeSeconds,
+                                                  @Nullable Boolean includeJvm) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running: " + recording.getName());
+        }
+        closeRecording();
+
+        this.thresholdMs = thresholdMs != null ? thresholdMs : 1;
+        Recording started = includeJvm == null || includeJvm ? new Recording(defaultConfiguration()) : new Recording();
+        started.setName("engine-" + Instant.now().toEpochMilli());
+        started.setToDisk(true);
+        started.setMaxAge(Duration.ofSeconds(maxAgeSeconds != null ? maxAgeSeconds : 600));
+        for (Class<? extends Event> event : EVENTS) {
+            started.enable(event).withThreshold(Duration.ofMillis(this.thresholdMs)).withoutStackTrace();
+        }
+        started.start();
+        recording = started;
+        logger.info("Started JFR recording {} (threshold {} ms)", started.getName(), this.thresholdMs);
+        return status();
+    }
+
+    /**
+     * Stops the recording and writes it to the dump directory.
+     */
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        Path file = dumpDir.resolve(recording.getName() + ".jfr");
+        try {
+            Files.createDirectories(dumpDir);
+            recording.stop();
+            recording.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JFR recording to " + file, e);
+        }
+        logger.info("Wrote JFR recording {} to {}", recording.getName(), file);
+        Map<String, Object> status = status();
+        status.put("file", file.toString());
+        closeRecording();
+        return status;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static Configuration defaultConfiguration() {
+        try {
+            return Configuration.getConfiguration("default");
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JVM default JFR configuration is not available", e);
+        }
+    }
+}
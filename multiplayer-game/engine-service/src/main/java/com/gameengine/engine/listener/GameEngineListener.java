@@ -1,10 +1,19 @@
 package com.gameengine.engine.listener;
 
+import com.gameengine.engine.diagnostics.EngineEvents;
 import com.gameengine.engine.logic.GameLogic;
 import com.gameengine.engine.model.GameState;
-import com.gameengine.engine.model.PlayerEvent;
-import com.gameengine.engine.repository.GameStateRepository;
+import com.gameengine.protocol.InputBatch;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Trace;
+import com.gameengine.engine.service.RoomHandoffService;
+import com.gameengine.engine.service.RoomDispatcher;
+import com.gameengine.engine.service.RoomHousekeeper;
+import com.gameengine.engine.service.RoomLoadTracker;
+import com.gameengine.engine.service.RoomStateCache;
+import com.gameengine.engine.service.RoomTickScheduler;
 import com.gameengine.engine.service.StateUpdatePublisher;
+import com.gameengine.engine.service.TickBudget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -14,10 +23,23 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Kafka listener that consumes player events and processes them through the game engine.
+ *
+ * Each record is an {@link InputBatch} of one or more events for a room. The rooms of a
+ * poll are applied in parallel by the {@link RoomDispatcher}, and each room's events in
+ * record order; the batch is acknowledged once every room is done and saved. Records sampled for latency tracing carry a
+ * {@link Trace}; it is stamped as the record's first event is received, applied and
+ * saved, and travels on with the resulting state update.
  */
 @Component
 public class GameEngineListener {
@@ -25,20 +47,39 @@ public class GameEngineListener {
     private static final Logger logger = LoggerFactory.getLogger(GameEngineListener.class);
 
     private final GameLogic gameLogic;
-    private final GameStateRepository gameStateRepository;
     private final StateUpdatePublisher stateUpdatePublisher;
+    private final RoomHandoffService roomHandoffService;
+    private final RoomLoadTracker roomLoadTracker;
+    private final RoomStateCache roomStateCache;
+    private final RoomTickScheduler roomTickScheduler;
+    private final RoomHousekeeper roomHousekeeper;
+    private final TickBudget tickBudget;
+    private final RoomDispatcher roomDispatcher;
 
     public GameEngineListener(GameLogic gameLogic,
-                              GameStateRepository gameStateRepository,
-                              StateUpdatePublisher stateUpdatePublisher) {
+                              StateUpdatePublisher stateUpdatePublisher,
+                              RoomHandoffService roomHandoffService,
+                              RoomLoadTracker roomLoadTracker,
+                              RoomStateCache roomStateCache,
+                              RoomTickScheduler roomTickScheduler,
+                              RoomHousekeeper roomHousekeeper,
+                              TickBudget tickBudget,
+                              RoomDispatcher roomDispatcher) {
         this.gameLogic = gameLogic;
-        this.gameStateRepository = gameStateRepository;
         this.stateUpdatePublisher = stateUpdatePublisher;
+        this.roomHandoffService = roomHandoffService;
+        this.roomLoadTracker = roomLoadTracker;
+        this.roomStateCache = roomStateCache;
+        this.roomTickScheduler = roomTickScheduler;
+        this.roomHousekeeper = roomHousekeeper;
+        this.tickBudget = tickBudget;
+        this.roomDispatcher = roomDispatcher;
     }
 
     /**
      * Listens to player-events topic and processes events in batches.
-     * Processes events for each room sequentially to maintain state consistency.
+     * Processes events for each room sequentially to maintain state consistency, and
+     * different rooms concurrently.
      */
     @KafkaListener(
             topics = "${spring.kafka.topics.player-events}",
@@ -46,46 +87,61 @@ public class GameEngineListener {
             containerFactory = "playerEventKafkaListenerContainerFactory"
     )
     public void processPlayerEvents(
-            @Payload List<PlayerEvent> events,
+            @Payload List<InputBatch> records,
             @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
+            @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false) List<Map<String, Object>> headers,
             Acknowledgment acknowledgment) {
         
-        logger.debug("Received batch of {} player events", events.size());
+        long receivedMicros = Trace.nowMicros();
+        // Flatten the records' events, remembering the record each came from
+        int total = 0;
+        for (InputBatch batch : records) {
+            total += batch != null ? batch.size() : 0;
+        }
+        List<PlayerEvent> events = new ArrayList<>(total);
+        int[] recordOf = new int[total];
+        for (int r = 0; r < records.size(); r++) {
+            InputBatch batch = records.get(r);
+            if (batch == null) {
+                continue;
+            }
+            for (PlayerEvent event : batch.getEvents()) {
+                recordOf[events.size()] = r;
+                events.add(event);
+            }
+        }
+        logger.debug("Received batch of {} player events in {} records", events.size(), records.size());
 
         try {
-            // Process events grouped by roomId to maintain consistency
+            Queue<CompletableFuture<Void>> saves = new ConcurrentLinkedQueue<>();
+            // Low-priority inputs dropped while the tick is over budget
+            Set<Integer> shed = tickBudget.shedInputs(events);
+            // Rooms run in parallel; each room's events in batch order to keep its state consistent
+            Map<String, List<Integer>> byRoom = new LinkedHashMap<>();
             for (int i = 0; i < events.size(); i++) {
-                PlayerEvent event = events.get(i);
-                String roomId = event.getRoomId();
-
-                try {
-                    // Load current state from Redis
-                    GameState currentState = gameStateRepository.getGameState(roomId);
-                    
-                    // Apply game logic
-                    GameState updatedState = gameLogic.apply(currentState, event);
-                    
-                    // Save updated state to Redis
-                    gameStateRepository.saveGameState(roomId, updatedState);
-                    
-                    // Publish state update to Kafka
-                    stateUpdatePublisher.publishStateUpdate(roomId, updatedState);
-                    
-                    logger.debug("Processed event: {} for room: {}", 
-                            event.getActionType(), roomId);
-                    
-                } catch (Exception e) {
-                    logger.error("Error processing event for room: {} - Event: {}", 
-                            roomId, event, e);
-                    // Continue processing other events even if one fails
-                    // Failed event will be retried or sent to DLQ by error handler
+                byRoom.computeIfAbsent(events.get(i).getRoomId(), roomId -> new ArrayList<>()).add(i);
+            }
+            roomDispatcher.dispatch(byRoom, (roomId, indices) -> {
+                for (int i : indices) {
+                    int record = recordOf[i];
+                    boolean firstOfRecord = i == 0 || recordOf[i - 1] != record;
+                    Map<String, Object> recordHeaders = firstOfRecord && headers != null ? headers.get(record) : null;
+                    processEvent(events.get(i), partitions.get(record), recordHeaders, shed.contains(i),
+                            receivedMicros, saves);
                 }
+            });
+
+            // Acknowledge only once the batch's saves are in Redis
+            int failedSaves = roomStateCache.awaitSaves(saves);
+            if (failedSaves > 0) {
+                logger.warn("{} saves of the batch failed; their rooms reload from Redis", failedSaves);
             }
 
             // Acknowledge all messages in the batch
             if (acknowledgment != null) {
                 acknowledgment.acknowledge();
-                logger.debug("Acknowledged batch of {} events", events.size());
+                logger.debug("Acknowledged batch of {} records", records.size());
             }
 
         } catch (Exception e) {
@@ -94,6 +150,80 @@ public class GameEngineListener {
             throw e;
         }
     }
-}
 
+    /**
+     * Applies one event to its room. Called on the room's dispatch thread, in the room's
+     * batch order; failures are logged and the batch goes on.
+     *
+     * @param recordHeaders Headers of the event's record if it is the record's first event, else null
+     * @param shed true if the event is dropped while inputs are shed
+     */
+    private void processEvent(PlayerEvent event, int partition, Map<String, Object> recordHeaders, boolean shed,
+                              long receivedMicros, Queue<CompletableFuture<Void>> saves) {
+        String roomId = event.getRoomId();
+        try {
+            // Rooms moved by the rebalancer are applied only on their new partition
+            if (roomHandoffService.routeAway(event, partition)) {
+                return;
+            }
+            if (shed) {
+                // Not applied and not counted as load, but answered by the room's next update
+                RoomStateCache.Room room = roomStateCache.lock(roomId, partition);
+                try {
+                    room.recordInput();
+                } finally {
+                    room.unlock();
+                }
+                return;
+            }
+            roomLoadTracker.record(roomId, partition);
+            Trace trace = Trace.fromMappedHeaders(recordHeaders);
+
+            // Held rooms are applied in memory; the room lock orders this against ticks
+            RoomStateCache.Room room = roomStateCache.lock(roomId, partition);
+            try {
+                EngineEvents.EventApply applyEvent = new EngineEvents.EventApply();
+                applyEvent.begin();
+                // Bullets advance on the tick scheduler when it is enabled
+                GameState updatedState = roomTickScheduler.isEnabled()
+                        ? gameLogic.applyAction(room.getState(), event)
+                        : gameLogic.apply(room.getState(), event);
+                room.setState(updatedState);
+                room.recordInput();
+                applyEvent.actionType = String.valueOf(event.getActionType());
+                EngineEvents.commit(applyEvent, roomId, updatedState);
+                if (trace != null) {
+                    trace.stamp(Trace.ENGINE_RECEIVED, receivedMicros);
+                    trace.stamp(Trace.ENGINE_APPLIED);
+                }
+
+                // Save updated state to Redis; may still be in flight
+                saves.add(roomStateCache.save(room));
+                roomHousekeeper.track(room);
+                if (trace != null) {
+                    trace.stamp(Trace.ENGINE_SAVED);
+                }
+
+                // Publish state update to Kafka, unless the room's broadcasts are throttled
+                if (tickBudget.shouldBroadcast(room, updatedState)) {
+                    stateUpdatePublisher.publishStateUpdate(room, updatedState, trace);
+                }
+            } catch (RuntimeException e) {
+                // Memory may be ahead of Redis; reload on the next event
+                roomStateCache.evictLocked(room);
+                throw e;
+            } finally {
+                room.unlock();
+            }
 
+            logger.debug("Processed event: {} for room: {}",
+                    event.getActionType(), roomId);
+
+        } catch (Exception e) {
+            logger.error("Error processing event for room: {} - Event: {}",
+                    roomId, event, e);
+            // Continue processing other events even if one fails
+            // Failed event will be retried or sent to DLQ by error handler
+        }
+    }
+}
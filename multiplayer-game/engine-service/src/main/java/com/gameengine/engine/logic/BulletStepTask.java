@@ -0,0 +1,35 @@
+package com.gameengine.engine.logic;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps a range of a large room's bullets, splitting in half until ranges are below
+ * the threshold. Each bullet is written by exactly one task; players are only read.
+ */
+class BulletStepTask extends RecursiveAction {
+
+    private final GameLogic gameLogic;
+    private final GameLogic.PhysicsStep step;
+    private final int from;
+    private final int to;
+    private final int threshold;
+
+    BulletStepTask(GameLogic gameLogic, GameLogic.PhysicsStep step, int from, int to, int threshold) {
+        this.gameLogic = gameLogic;
+        this.step = step;
+        this.from = from;
+        this.to = to;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            gameLogic.stepBullets(step, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new BulletStepTask(gameLogic, step, from, mid, threshold),
+                new BulletStepTask(gameLogic, step, mid, to, threshold));
+    }
+}
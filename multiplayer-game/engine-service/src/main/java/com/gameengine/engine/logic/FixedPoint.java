@@ -0,0 +1,159 @@
+package com.gameengine.engine.logic;
+
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+
+/**
+ * Integer arithmetic for rooms in fixed-point physics (see {@link PhysicsMode}).
+ *
+ * In such rooms every coordinate and velocity is a whole number of 1/{@value #SCALE}
+ * world units. The model keeps them as doubles, which hold these values exactly, so they
+ * convert to and from long units without loss. The physics then runs on the longs:
+ * movement, clamping and hit tests use only integer adds, multiplies and squared-distance
+ * compares, and the one square root is an integer one. A fixed-point room therefore
+ * reaches bit-for-bit the same state on every instance and in every replay, and its values
+ * survive any quantized encoding at this resolution unchanged.
+ *
+ * Products stay within a long as long as a bullet's path over one hit test is at most
+ * {@link #MAX_STEP_UNITS} units on each axis, which the bullet speed and the collision
+ * stride keep it well under.
+ */
+final class FixedPoint {
+
+    static final int SHIFT = 6;
+    static final long SCALE = 1L << SHIFT;
+    /** Longest path on one axis that a hit test supports, 1024 world units */
+    static final long MAX_STEP_UNITS = 1L << 16;
+    // Inputs are clamped to this before squaring, far beyond any world
+    private static final long MAX_INPUT_UNITS = 1L << 24;
+    // Extra bits of precision for the magnitude when scaling a direction
+    private static final int DIRECTION_SHIFT = 6;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @return the value in units, rounded to the nearest unit and clamped to the input range
+     */
+    static long units(double value) {
+        return Math.max(-MAX_INPUT_UNITS, Math.min(MAX_INPUT_UNITS, Math.round(value * SCALE)));
+    }
+
+    static double value(long units) {
+        return (double) units / SCALE;
+    }
+
+    static Position position(long x, long y) {
+        return new Position(value(x), value(y));
+    }
+
+    /**
+     * Scales a velocity down to at most maxUnits long, keeping its direction.
+     */
+    static Velocity clampSpeed(Velocity velocity, long maxUnits) {
+        long vx = units(velocity.getVx());
+        long vy = units(velocity.getVy());
+        long squared = vx * vx + vy * vy;
+        if (squared > maxUnits * maxUnits) {
+            long magnitude = ceilSqrt(squared);
+            // Rounds toward zero, so the result never exceeds maxUnits
+            vx = vx * maxUnits / magnitude;
+            vy = vy * maxUnits / magnitude;
+        }
+        return new Velocity(value(vx), value(vy));
+    }
+
+    /**
+     * Scales a direction to lengthUnits long. Components round toward zero, so the result
+     * is never longer; a direction that rounds to zero units points along +x.
+     */
+    static Velocity scaleTo(Velocity direction, long lengthUnits) {
+        long dx = units(direction.getVx());
+        long dy = units(direction.getVy());
+        if (dx == 0 && dy == 0) {
+            return new Velocity(value(lengthUnits), 0);
+        }
+        // |d| with DIRECTION_SHIFT extra bits, rounded up; inputs are clamped, so this fits
+        long magnitude = ceilSqrt((dx * dx + dy * dy) << (2 * DIRECTION_SHIFT));
+        return new Velocity(value((dx * lengthUnits << DIRECTION_SHIFT) / magnitude),
+                value((dy * lengthUnits << DIRECTION_SHIFT) / magnitude));
+    }
+
+    static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Segment-vs-circle test, the integer counterpart of {@link GameLogic#sweepCircle}.
+     * Instead of the fraction of the segment at first contact it returns that fraction
+     * times the segment's squared length, rounded up, which orders the contacts of one
+     * segment the same way.
+     *
+     * @return contact key from 0 (starts inside) up to the squared length, or -1 if it misses
+     */
+    static long sweepCircle(long x0, long y0, long x1, long y1, long cx, long cy, long radius) {
+        long dx = x1 - x0;
+        long dy = y1 - y0;
+        long fx = x0 - cx;
+        long fy = y0 - cy;
+        // Out of reach on one axis; also bounds every product below
+        long reach = Math.abs(dx) + Math.abs(dy) + radius;
+        if (Math.abs(fx) > reach || Math.abs(fy) > reach) {
+            return -1;
+        }
+        long c = fx * fx + fy * fy - radius * radius;
+        if (c < 0) {
+            return 0; // Starts inside
+        }
+        long a = dx * dx + dy * dy;
+        if (a == 0) {
+            return -1;
+        }
+        long b = fx * dx + fy * dy;
+        if (b >= 0) {
+            return -1; // Moving away
+        }
+        // The line passes within radius of the centre iff |cross| <= radius * |d|;
+        // |dx| + |dy| >= |d|, so failing the cheap bound is a sure miss
+        long cross = fx * dy - fy * dx;
+        if (Math.abs(cross) > (Math.abs(dx) + Math.abs(dy)) * radius) {
+            return -1;
+        }
+        // Equals b * b - a * c without squaring b
+        long discriminant = a * radius * radius - cross * cross;
+        if (discriminant < 0) {
+            return -1;
+        }
+        long key = -b - floorSqrt(discriminant);
+        return key <= a ? key : -1;
+    }
+
+    /**
+     * @return the largest r with r * r &lt;= n, for n &gt;= 0
+     */
+    static long floorSqrt(long n) {
+        long root = 0;
+        long bit = 1L << 62;
+        while (bit > n) {
+            bit >>= 2;
+        }
+        while (bit != 0) {
+            if (n >= root + bit) {
+                n -= root + bit;
+                root = (root >> 1) + bit;
+            } else {
+                root >>= 1;
+            }
+            bit >>= 2;
+        }
+        return root;
+    }
+
+    /**
+     * @return the smallest r with r * r &gt;= n, for n &gt;= 0
+     */
+    static long ceilSqrt(long n) {
+        long root = floorSqrt(n);
+        return root * root == n ? root : root + 1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.gameengine.engine.logic;
+
+/**
+ * Time source for game logic.
+ * 
+ * GameLogic never reads the system clock directly, so replays can drive it with
+ * recorded time and produce exactly the same state.
+ */
+@FunctionalInterface
+public interface GameClock {
+
+    /**
+     * @return current game time in epoch milliseconds
+     */
+    long currentTimeMillis();
+
+    /**
+     * Wall-clock time source used in production.
+     */
+    static GameClock system() {
+        return System::currentTimeMillis;
+    }
+}
@@ -3,16 +3,30 @@ package com.gameengine.engine.logic;
 import com.gameengine.engine.model.Bullet;
 import com.gameengine.engine.model.GameState;
 import com.gameengine.engine.model.Player;
-import com.gameengine.engine.model.PlayerEvent;
+import com.gameengine.engine.model.PositionHistory;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Deterministic game logic engine.
  * 
  * This class applies game rules and validates player actions.
  * All logic must be deterministic to ensure consistent state across instances.
+ * Time and bullet IDs come from the injected {@link GameClock} and {@link IdGenerator},
+ * so the same events with the same sources always produce the same state.
+ *
+ * Rooms created in fixed-point physics (see {@link PhysicsMode}) run the same rules on
+ * integer units through {@link FixedPoint}: positions and velocities are quantized as they
+ * enter the room, and speed clamps and hit tests use squared distances and integer square
+ * roots only.
  */
 @Component
 public class GameLogic {
@@ -23,6 +37,35 @@ public class GameLogic {
     private static final double WORLD_BOUNDARY_PADDING = 20.0;
     private static final double BULLET_SPEED = 10.0;
     private static final double BULLET_RADIUS = 2.0;
+    // Broad-phase cell edge; a few collision diameters so most queries touch 1-4 cells
+    private static final double GRID_CELL_SIZE = 64.0;
+    // The same constants in fixed-point units
+    private static final long MAX_PLAYER_SPEED_UNITS = (long) (MAX_PLAYER_SPEED * FixedPoint.SCALE);
+    private static final long BULLET_SPEED_UNITS = (long) (BULLET_SPEED * FixedPoint.SCALE);
+    private static final long WORLD_BOUNDARY_PADDING_UNITS = (long) (WORLD_BOUNDARY_PADDING * FixedPoint.SCALE);
+    private static final long COLLISION_DISTANCE_UNITS = (long) ((PLAYER_RADIUS + BULLET_RADIUS) * FixedPoint.SCALE);
+
+    private final GameClock clock;
+    private final IdGenerator idGenerator;
+    private final LagCompensation lagCompensation;
+    private final PhysicsMode physicsMode;
+
+    public GameLogic(GameClock clock, IdGenerator idGenerator) {
+        this(clock, idGenerator, LagCompensation.defaults(), PhysicsMode.doubles());
+    }
+
+    public GameLogic(GameClock clock, IdGenerator idGenerator, LagCompensation lagCompensation) {
+        this(clock, idGenerator, lagCompensation, PhysicsMode.doubles());
+    }
+
+    @Autowired
+    public GameLogic(GameClock clock, IdGenerator idGenerator, LagCompensation lagCompensation,
+                     PhysicsMode physicsMode) {
+        this.clock = clock;
+        this.idGenerator = idGenerator;
+        this.lagCompensation = lagCompensation;
+        this.physicsMode = physicsMode;
+    }
 
     /**
      * Applies a player event to the game state and returns the updated state.
@@ -34,15 +77,96 @@ public class GameLogic {
      */
     public GameState apply(GameState state, PlayerEvent event) {
         if (state == null) {
-            state = new GameState(event.getRoomId());
-            state.setWorldWidth(GameState.getDefaultWorldWidth());
-            state.setWorldHeight(GameState.getDefaultWorldHeight());
+            state = newRoom(event.getRoomId());
         }
 
         // Update timestamp
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
 
         // Process based on action type
+        applyAction(state, event, currentTime);
+
+        // Update physics (move bullets, check collisions)
+        boolean bulletsMove = !state.getBullets().isEmpty();
+        updatePhysics(state, currentTime);
+        if (bulletsMove) {
+            state.markChanged();
+        }
+
+        // Clean up expired bullets; only the oldest are checked
+        if (state.clearExpiredBullets(currentTime)) {
+            state.markChanged();
+        }
+
+        // Stamp with game time (version changes above stamp wall-clock time)
+        state.setTimestamp(currentTime);
+
+        return state;
+    }
+
+    /**
+     * Applies a player action without advancing physics. Used when bullets are advanced
+     * by the tick scheduler instead of once per event.
+     *
+     * @param state Current game state
+     * @param event Player event to apply
+     * @return Updated game state
+     */
+    public GameState applyAction(GameState state, PlayerEvent event) {
+        if (state == null) {
+            state = newRoom(event.getRoomId());
+        }
+
+        long currentTime = clock.currentTimeMillis();
+        applyAction(state, event, currentTime);
+        state.setTimestamp(currentTime);
+        return state;
+    }
+
+    /**
+     * Advances a room by one physics step: moves bullets and resolves hits. Expired
+     * bullets are removed by the engine's timing wheel rather than scanned for here.
+     *
+     * @param state Game state to advance in place
+     * @param splitThreshold Bullet count above which bullet stepping forks into the
+     *                       current ForkJoinPool
+     * @return true if the state changed
+     */
+    public boolean tick(GameState state, int splitThreshold) {
+        return tick(state, splitThreshold, 1);
+    }
+
+    /**
+     * Advances a room by one physics step with coarsened collision checks: a bullet with
+     * no player near its path is only hit-tested every collisionStride steps, each test
+     * sweeping the whole path since the last one. Players that cross the path between
+     * tests are missed, so the result depends on the stride; used only when the tick is
+     * over budget (see {@code TickBudget}).
+     *
+     * @param collisionStride Steps between hit tests of distant bullets; 1 tests every step
+     */
+    public boolean tick(GameState state, int splitThreshold, int collisionStride) {
+        long currentTime = clock.currentTimeMillis();
+        if (state.getBullets().isEmpty()) {
+            // Keep the position history current so the next shot can rewind
+            recordPositions(state, currentTime);
+            return false;
+        }
+        updatePhysics(state, currentTime, splitThreshold, collisionStride);
+        state.setVersion(state.getVersion() + 1);
+        state.setTimestamp(currentTime);
+        return true;
+    }
+
+    private GameState newRoom(String roomId) {
+        GameState state = new GameState(roomId);
+        state.setWorldWidth(GameState.getDefaultWorldWidth());
+        state.setWorldHeight(GameState.getDefaultWorldHeight());
+        state.setFixedPoint(physicsMode.isFixedPoint(roomId));
+        return state;
+    }
+
+    private void applyAction(GameState state, PlayerEvent event, long currentTime) {
         switch (event.getActionType()) {
             case MOVE:
                 applyMove(state, event, currentTime);
@@ -57,14 +181,6 @@ public class GameLogic {
                 // Unknown action type, log but don't crash
                 System.err.println("Unknown action type: " + event.getActionType());
         }
-
-        // Update physics (move bullets, check collisions)
-        updatePhysics(state, currentTime);
-
-        // Clean up expired bullets
-        state.clearExpiredBullets(currentTime);
-
-        return state;
     }
 
     /**
@@ -72,26 +188,36 @@ public class GameLogic {
      */
     private void applyMove(GameState state, PlayerEvent event, long currentTime) {
         Player player = getOrCreatePlayer(state, event.getPlayerId());
+        boolean fixedPoint = state.isFixedPoint();
 
         if (event.getPosition() != null) {
-            PlayerEvent.Position newPosition = event.getPosition();
+            Position newPosition = event.getPosition();
             // Validate position is within world boundaries
-            newPosition = validatePosition(newPosition, state.getWorldWidth(), state.getWorldHeight());
+            newPosition = fixedPoint
+                    ? validatePositionFixed(newPosition, state.getWorldWidth(), state.getWorldHeight())
+                    : validatePosition(newPosition, state.getWorldWidth(), state.getWorldHeight());
             player.setPosition(newPosition);
         }
 
         if (event.getVelocity() != null) {
-            PlayerEvent.Velocity newVelocity = event.getVelocity();
+            Velocity newVelocity = event.getVelocity();
             // Validate and clamp velocity to max speed
-            newVelocity = validateAndClampVelocity(newVelocity);
+            newVelocity = fixedPoint
+                    ? FixedPoint.clampSpeed(newVelocity, MAX_PLAYER_SPEED_UNITS)
+                    : validateAndClampVelocity(newVelocity);
             player.setVelocity(newVelocity);
         }
 
         // Update position based on velocity (simple integration)
-        updatePlayerPosition(player, state.getWorldWidth(), state.getWorldHeight());
+        if (fixedPoint) {
+            updatePlayerPositionFixed(player, state.getWorldWidth(), state.getWorldHeight());
+        } else {
+            updatePlayerPosition(player, state.getWorldWidth(), state.getWorldHeight());
+        }
 
         player.setLastActionTimestamp(currentTime);
         player.setLastAction("MOVE");
+        state.markChanged();
     }
 
     /**
@@ -106,13 +232,20 @@ public class GameLogic {
         }
 
         // Calculate bullet direction (normalized velocity or forward direction)
-        PlayerEvent.Velocity direction = calculateShootDirection(player, event);
+        Velocity direction = calculateShootDirection(player, event);
 
         // Create bullet starting at player position
-        String bulletId = UUID.randomUUID().toString();
+        String bulletId = idGenerator.nextId();
         Bullet bullet = new Bullet(bulletId, event.getPlayerId(), 
-                                   new PlayerEvent.Position(player.getPosition().getX(), player.getPosition().getY()),
+                                   new Position(player.getPosition().getX(), player.getPosition().getY()),
                                    direction);
+        if (state.isFixedPoint()) {
+            // Bullet normalizes in doubles; replace with a velocity in whole units
+            bullet.setVelocity(FixedPoint.scaleTo(direction, BULLET_SPEED_UNITS));
+        }
+        bullet.setCreatedAt(currentTime);
+        bullet.assignShooterHandle(player.handle());
+        bullet.setRewindFrames(rewindFramesFor(state, event, currentTime));
         
         state.addBullet(bullet);
 
@@ -131,33 +264,65 @@ public class GameLogic {
         }
 
         // Simple jump: add upward velocity component
-        PlayerEvent.Velocity currentVelocity = player.getVelocity();
-        PlayerEvent.Velocity jumpVelocity = new PlayerEvent.Velocity(
+        Velocity currentVelocity = player.getVelocity();
+        Velocity jumpVelocity = new Velocity(
                 currentVelocity.getVx(),
                 currentVelocity.getVy() - 3.0  // Upward impulse
         );
         
-        jumpVelocity = validateAndClampVelocity(jumpVelocity);
+        jumpVelocity = state.isFixedPoint()
+                ? FixedPoint.clampSpeed(jumpVelocity, MAX_PLAYER_SPEED_UNITS)
+                : validateAndClampVelocity(jumpVelocity);
         player.setVelocity(jumpVelocity);
 
         player.setLastActionTimestamp(currentTime);
         player.setLastAction("JUMP");
+        state.markChanged();
     }
 
     /**
      * Updates physics: moves bullets, checks collisions.
      */
     private void updatePhysics(GameState state, long currentTime) {
-        // Move bullets
-        for (Bullet bullet : state.getBullets()) {
-            PlayerEvent.Position pos = bullet.getPosition();
-            PlayerEvent.Velocity vel = bullet.getVelocity();
-            
-            // Update bullet position
-            double newX = pos.getX() + vel.getVx();
-            double newY = pos.getY() + vel.getVy();
-            
-            bullet.setPosition(new PlayerEvent.Position(newX, newY));
+        updatePhysics(state, currentTime, Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * Moves bullets and resolves hits in two phases.
+     * 
+     * The step phase only writes each bullet's own position and reads players, so
+     * ranges of bullets can be stepped in parallel ({@link BulletStepTask}). Hits are
+     * then applied sequentially in bullet order, which keeps the result identical to
+     * stepping one bullet at a time.
+     * 
+     * Hits are swept: a bullet hits a player if the segment it travelled this step
+     * passes within PLAYER_RADIUS + BULLET_RADIUS of the player's centre, so fast
+     * bullets cannot tunnel through players between steps.
+     *
+     * Bullets fired by lagging clients are tested against players where they were
+     * {@link Bullet#getRewindFrames()} steps ago (see {@link PositionHistory}).
+     *
+     * @param splitThreshold Bullet count above which the step phase forks
+     * @param collisionStride Steps between hit tests of distant bullets
+     */
+    private void updatePhysics(GameState state, long currentTime, int splitThreshold, int collisionStride) {
+        PositionHistory history = recordPositions(state, currentTime);
+
+        // Snapshot: hits and out-of-bounds bullets are removed from the state
+        List<Bullet> bullets = new ArrayList<>(state.getBullets());
+        if (bullets.isEmpty()) {
+            return;
+        }
+        PhysicsStep step = new PhysicsStep(state, bullets, history, collisionStride);
+
+        if (bullets.size() > splitThreshold) {
+            new BulletStepTask(this, step, 0, bullets.size(), splitThreshold).invoke();
+        } else {
+            stepBullets(step, 0, bullets.size());
+        }
+
+        for (int i = 0; i < bullets.size(); i++) {
+            Bullet bullet = bullets.get(i);
 
             // Check if bullet hit world boundaries
             if (isOutOfBounds(bullet.getPosition(), state.getWorldWidth(), state.getWorldHeight())) {
@@ -165,36 +330,255 @@ public class GameLogic {
                 continue;
             }
 
-            // Check bullet-player collisions (excluding shooter)
-            checkBulletCollisions(state, bullet);
+            Player hit = step.hits[i];
+            if (hit != null && !hit.isAlive()) {
+                // Killed by an earlier bullet this step; look for the next player in the way
+                hit = findHitPlayer(step, i);
+            }
+            if (hit != null) {
+                // Hit! Apply damage and remove bullet
+                hit.takeDamage((int) Bullet.getBulletDamage());
+                state.removeBullet(bullet.getBulletId());
+            }
         }
     }
 
     /**
-     * Checks if a bullet collides with any players (excluding the shooter).
+     * Step phase for bullets [from, to): moves them and records the first player each would hit.
      */
-    private void checkBulletCollisions(GameState state, Bullet bullet) {
-        for (Player player : state.getPlayers().values()) {
-            // Don't hit the shooter
-            if (player.getPlayerId().equals(bullet.getShooterId())) {
-                continue;
+    void stepBullets(PhysicsStep step, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Bullet bullet = step.bullets.get(i);
+            Position pos = bullet.getPosition();
+            Velocity vel = bullet.getVelocity();
+            // A bullet that skipped hit tests sweeps everything it travelled since the last one
+            Position sweepFrom = bullet.coastFrom() != null ? bullet.coastFrom() : pos;
+            step.startX[i] = sweepFrom.getX();
+            step.startY[i] = sweepFrom.getY();
+            
+            // Update bullet position
+            if (step.state.isFixedPoint()) {
+                bullet.setPosition(FixedPoint.position(FixedPoint.units(pos.getX()) + FixedPoint.units(vel.getVx()),
+                        FixedPoint.units(pos.getY()) + FixedPoint.units(vel.getVy())));
+            } else {
+                double newX = pos.getX() + vel.getVx();
+                double newY = pos.getY() + vel.getVy();
+                bullet.setPosition(new Position(newX, newY));
             }
 
-            // Don't hit dead players
-            if (!player.isAlive()) {
+            if (isOutOfBounds(bullet.getPosition(), step.state.getWorldWidth(), step.state.getWorldHeight())) {
                 continue;
             }
+            if (step.collisionStride > 1 && bullet.coastSteps() > 0) {
+                bullet.coast(sweepFrom, bullet.coastSteps() - 1);
+                continue;
+            }
+            step.hits[i] = findHitPlayer(step, i);
+            if (step.collisionStride > 1 && step.hits[i] == null && !isPlayerNear(step, i)) {
+                bullet.coast(bullet.getPosition(), step.collisionStride - 1);
+            } else if (bullet.coastFrom() != null) {
+                bullet.coast(null, 0);
+            }
+        }
+    }
 
-            // Check collision (simple circle-circle collision)
-            double distance = bullet.getPosition().distance(player.getPosition());
-            double collisionDistance = PLAYER_RADIUS + BULLET_RADIUS;
+    /**
+     * Whether a live player other than the shooter is close enough to a bullet's path to
+     * reach it within the collision stride; such bullets are tested every step.
+     */
+    private boolean isPlayerNear(PhysicsStep step, int bulletIndex) {
+        Bullet bullet = step.bullets.get(bulletIndex);
+        double x0 = step.startX[bulletIndex];
+        double y0 = step.startY[bulletIndex];
+        double x1 = bullet.getPosition().getX();
+        double y1 = bullet.getPosition().getY();
+        double nearDistance = PLAYER_RADIUS + BULLET_RADIUS
+                + step.collisionStride * (BULLET_SPEED + MAX_PLAYER_SPEED);
+        PlayerGrid grid = step.gridFor(bullet.getRewindFrames());
+        Player[] players = grid.players();
+        boolean[] near = {false};
+        boolean fixedPoint = step.state.isFixedPoint();
+        long nearUnits = FixedPoint.units(nearDistance);
+        grid.query(x0, y0, x1, y1, nearDistance, index -> {
+            Player player = players[index];
+            if (near[0] || !player.isAlive() || player.handle() == bullet.shooterHandle()) {
+                return;
+            }
+            if (fixedPoint) {
+                long dx = FixedPoint.units(grid.x(index)) - FixedPoint.units(x1);
+                long dy = FixedPoint.units(grid.y(index)) - FixedPoint.units(y1);
+                near[0] = dx * dx + dy * dy <= nearUnits * nearUnits;
+                return;
+            }
+            double dx = grid.x(index) - x1;
+            double dy = grid.y(index) - y1;
+            near[0] = dx * dx + dy * dy <= nearDistance * nearDistance;
+        });
+        return near[0];
+    }
 
-            if (distance < collisionDistance) {
-                // Hit! Apply damage and remove bullet
-                player.takeDamage((int) Bullet.getBulletDamage());
-                state.removeBullet(bullet.getBulletId());
-                break; // Bullet can only hit one player
+    /**
+     * Finds the live player (excluding the shooter) a bullet's path this step reaches
+     * first. Ties go to the player that comes first in the room.
+     */
+    private Player findHitPlayer(PhysicsStep step, int bulletIndex) {
+        if (step.state.isFixedPoint()) {
+            return findHitPlayerFixed(step, bulletIndex);
+        }
+        Bullet bullet = step.bullets.get(bulletIndex);
+        double x0 = step.startX[bulletIndex];
+        double y0 = step.startY[bulletIndex];
+        double x1 = bullet.getPosition().getX();
+        double y1 = bullet.getPosition().getY();
+        double collisionDistance = PLAYER_RADIUS + BULLET_RADIUS;
+        PlayerGrid grid = step.gridFor(bullet.getRewindFrames());
+        Player[] players = grid.players();
+
+        double[] best = {Double.MAX_VALUE, Integer.MAX_VALUE};
+        grid.query(x0, y0, x1, y1, collisionDistance, index -> {
+            Player player = players[index];
+            // Don't hit the shooter or dead players
+            if (!player.isAlive() || player.handle() == bullet.shooterHandle()) {
+                return;
+            }
+            double t = sweepCircle(x0, y0, x1, y1, grid.x(index), grid.y(index), collisionDistance);
+            if (t >= 0 && (t < best[0] || (t == best[0] && index < best[1]))) {
+                best[0] = t;
+                best[1] = index;
             }
+        });
+        return best[0] == Double.MAX_VALUE ? null : players[(int) best[1]];
+    }
+
+    /**
+     * {@link #findHitPlayer} in fixed-point units: same candidates, same tie-break.
+     */
+    private Player findHitPlayerFixed(PhysicsStep step, int bulletIndex) {
+        Bullet bullet = step.bullets.get(bulletIndex);
+        long x0 = FixedPoint.units(step.startX[bulletIndex]);
+        long y0 = FixedPoint.units(step.startY[bulletIndex]);
+        long x1 = FixedPoint.units(bullet.getPosition().getX());
+        long y1 = FixedPoint.units(bullet.getPosition().getY());
+        PlayerGrid grid = step.gridFor(bullet.getRewindFrames());
+        Player[] players = grid.players();
+
+        long[] best = {Long.MAX_VALUE, Integer.MAX_VALUE};
+        grid.query(step.startX[bulletIndex], step.startY[bulletIndex], bullet.getPosition().getX(),
+                bullet.getPosition().getY(), PLAYER_RADIUS + BULLET_RADIUS, index -> {
+                    Player player = players[index];
+                    if (!player.isAlive() || player.handle() == bullet.shooterHandle()) {
+                        return;
+                    }
+                    long key = FixedPoint.sweepCircle(x0, y0, x1, y1,
+                            FixedPoint.units(grid.x(index)), FixedPoint.units(grid.y(index)), COLLISION_DISTANCE_UNITS);
+                    if (key >= 0 && (key < best[0] || (key == best[0] && index < best[1]))) {
+                        best[0] = key;
+                        best[1] = index;
+                    }
+                });
+        return best[0] == Long.MAX_VALUE ? null : players[(int) best[1]];
+    }
+
+    /**
+     * Segment-vs-circle test.
+     *
+     * @return fraction of the segment [0, 1] at first contact, or -1 if it misses
+     */
+    static double sweepCircle(double x0, double y0, double x1, double y1,
+                              double cx, double cy, double radius) {
+        double fx = x0 - cx;
+        double fy = y0 - cy;
+        double c = fx * fx + fy * fy - radius * radius;
+        if (c < 0) {
+            return 0; // Starts inside
+        }
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double a = dx * dx + dy * dy;
+        if (a == 0) {
+            return -1;
+        }
+        double b = fx * dx + fy * dy;
+        double discriminant = b * b - a * c;
+        if (b >= 0 || discriminant < 0) {
+            return -1; // Moving away, or the line misses the circle
+        }
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        return t <= 1 ? t : -1;
+    }
+
+    /**
+     * Records this step's player positions, creating the room's history on first use.
+     *
+     * @return the history, or null if lag compensation is disabled
+     */
+    private PositionHistory recordPositions(GameState state, long currentTime) {
+        if (!lagCompensation.isEnabled()) {
+            return null;
+        }
+        PositionHistory history = state.positionHistory();
+        if (history == null) {
+            history = new PositionHistory(lagCompensation.getHistoryFrames(), lagCompensation.getMaxTrackedPlayers());
+            state.attachPositionHistory(history);
+        }
+        history.record(currentTime, state.playerIndex());
+        return history;
+    }
+
+    /**
+     * Converts the shooter's latency into a fixed number of physics steps to rewind.
+     * Searching by time happens once per bullet; every later step is an O(1) frame lookup.
+     */
+    private int rewindFramesFor(GameState state, PlayerEvent event, long currentTime) {
+        PositionHistory history = state.positionHistory();
+        if (history == null || event.getTimestamp() <= 0) {
+            return 0;
+        }
+        long latency = Math.max(0, Math.min(lagCompensation.getMaxRewindMs(), currentTime - event.getTimestamp()));
+        if (latency == 0) {
+            return 0;
+        }
+        // +1: a frame is recorded at the start of the next step, before this bullet is tested
+        int framesBack = history.framesBack(currentTime - latency, history.getFrameCapacity() - 2);
+        return Math.min(framesBack + 1, history.getFrameCapacity() - 1);
+    }
+
+    /**
+     * Working data for one physics step, shared by the parallel step tasks. Each
+     * bullet's slots are written by exactly one task.
+     */
+    static final class PhysicsStep {
+        final GameState state;
+        final List<Bullet> bullets;
+        final PositionHistory history;
+        final PlayerGrid currentGrid;
+        final Map<Integer, PlayerGrid> rewoundGrids = new ConcurrentHashMap<>();
+        final Player[] hits;
+        final double[] startX;
+        final double[] startY;
+        final int collisionStride;
+
+        PhysicsStep(GameState state, List<Bullet> bullets, PositionHistory history, int collisionStride) {
+            this.state = state;
+            this.bullets = bullets;
+            this.history = history;
+            this.collisionStride = Math.max(1, collisionStride);
+            this.currentGrid = PlayerGrid.current(state.playerIndex(), GRID_CELL_SIZE);
+            this.hits = new Player[bullets.size()];
+            this.startX = new double[bullets.size()];
+            this.startY = new double[bullets.size()];
+        }
+
+        /**
+         * @return broad-phase grid of player positions the given number of steps ago,
+         *         built once per step per distinct rewind
+         */
+        PlayerGrid gridFor(int framesBack) {
+            if (framesBack <= 0 || history == null || !history.hasFrame(framesBack)) {
+                return currentGrid;
+            }
+            return rewoundGrids.computeIfAbsent(framesBack,
+                    back -> PlayerGrid.rewound(state.playerIndex(), history, back, GRID_CELL_SIZE));
         }
     }
 
@@ -202,8 +586,8 @@ public class GameLogic {
      * Updates player position based on velocity with boundary checks.
      */
     private void updatePlayerPosition(Player player, double worldWidth, double worldHeight) {
-        PlayerEvent.Position pos = player.getPosition();
-        PlayerEvent.Velocity vel = player.getVelocity();
+        Position pos = player.getPosition();
+        Velocity vel = player.getVelocity();
 
         double newX = pos.getX() + vel.getVx();
         double newY = pos.getY() + vel.getVy();
@@ -225,18 +609,41 @@ public class GameLogic {
             vel.setVy(0);
         }
 
-        player.setPosition(new PlayerEvent.Position(newX, newY));
+        player.setPosition(new Position(newX, newY));
+    }
+
+    /**
+     * {@link #updatePlayerPosition} in fixed-point units.
+     */
+    private void updatePlayerPositionFixed(Player player, double worldWidth, double worldHeight) {
+        long minX = WORLD_BOUNDARY_PADDING_UNITS;
+        long maxX = FixedPoint.units(worldWidth) - WORLD_BOUNDARY_PADDING_UNITS;
+        long minY = WORLD_BOUNDARY_PADDING_UNITS;
+        long maxY = FixedPoint.units(worldHeight) - WORLD_BOUNDARY_PADDING_UNITS;
+        Velocity vel = player.getVelocity();
+
+        long newX = FixedPoint.clamp(FixedPoint.units(player.getPosition().getX()) + FixedPoint.units(vel.getVx()),
+                minX, maxX);
+        long newY = FixedPoint.clamp(FixedPoint.units(player.getPosition().getY()) + FixedPoint.units(vel.getVy()),
+                minY, maxY);
+        if (newX == minX || newX == maxX) {
+            vel.setVx(0);
+        }
+        if (newY == minY || newY == maxY) {
+            vel.setVy(0);
+        }
+        player.setPosition(FixedPoint.position(newX, newY));
     }
 
     /**
      * Validates and clamps velocity to maximum speed.
      */
-    private PlayerEvent.Velocity validateAndClampVelocity(PlayerEvent.Velocity velocity) {
+    private Velocity validateAndClampVelocity(Velocity velocity) {
         double magnitude = Math.sqrt(velocity.getVx() * velocity.getVx() + velocity.getVy() * velocity.getVy());
         
         if (magnitude > MAX_PLAYER_SPEED) {
             double scale = MAX_PLAYER_SPEED / magnitude;
-            return new PlayerEvent.Velocity(
+            return new Velocity(
                     velocity.getVx() * scale,
                     velocity.getVy() * scale
             );
@@ -248,17 +655,28 @@ public class GameLogic {
     /**
      * Validates position is within world boundaries.
      */
-    private PlayerEvent.Position validatePosition(PlayerEvent.Position position, double worldWidth, double worldHeight) {
+    private Position validatePosition(Position position, double worldWidth, double worldHeight) {
         double padding = WORLD_BOUNDARY_PADDING;
         double x = Math.max(padding, Math.min(worldWidth - padding, position.getX()));
         double y = Math.max(padding, Math.min(worldHeight - padding, position.getY()));
-        return new PlayerEvent.Position(x, y);
+        return new Position(x, y);
+    }
+
+    /**
+     * {@link #validatePosition} in fixed-point units; also quantizes the position.
+     */
+    private Position validatePositionFixed(Position position, double worldWidth, double worldHeight) {
+        long x = FixedPoint.clamp(FixedPoint.units(position.getX()),
+                WORLD_BOUNDARY_PADDING_UNITS, FixedPoint.units(worldWidth) - WORLD_BOUNDARY_PADDING_UNITS);
+        long y = FixedPoint.clamp(FixedPoint.units(position.getY()),
+                WORLD_BOUNDARY_PADDING_UNITS, FixedPoint.units(worldHeight) - WORLD_BOUNDARY_PADDING_UNITS);
+        return FixedPoint.position(x, y);
     }
 
     /**
      * Checks if a position is out of world bounds.
      */
-    private boolean isOutOfBounds(PlayerEvent.Position position, double worldWidth, double worldHeight) {
+    private boolean isOutOfBounds(Position position, double worldWidth, double worldHeight) {
         return position.getX() < 0 || position.getX() > worldWidth ||
                position.getY() < 0 || position.getY() > worldHeight;
     }
@@ -266,7 +684,7 @@ public class GameLogic {
     /**
      * Calculates shoot direction based on player velocity or default forward direction.
      */
-    private PlayerEvent.Velocity calculateShootDirection(Player player, PlayerEvent event) {
+    private Velocity calculateShootDirection(Player player, PlayerEvent event) {
         if (event.getVelocity() != null && 
             (event.getVelocity().getVx() != 0 || event.getVelocity().getVy() != 0)) {
             // Use event velocity direction
@@ -277,7 +695,7 @@ public class GameLogic {
             return player.getVelocity();
         } else {
             // Default: shoot right
-            return new PlayerEvent.Velocity(BULLET_SPEED, 0);
+            return new Velocity(BULLET_SPEED, 0);
         }
     }
 
@@ -289,10 +707,10 @@ public class GameLogic {
         if (player == null) {
             player = new Player(playerId);
             // Spawn at center of world
-            player.setPosition(new PlayerEvent.Position(
-                    state.getWorldWidth() / 2,
-                    state.getWorldHeight() / 2
-            ));
+            player.setPosition(state.isFixedPoint()
+                    ? FixedPoint.position(FixedPoint.units(state.getWorldWidth() / 2),
+                            FixedPoint.units(state.getWorldHeight() / 2))
+                    : new Position(state.getWorldWidth() / 2, state.getWorldHeight() / 2));
             state.addPlayer(player);
         }
         return player;
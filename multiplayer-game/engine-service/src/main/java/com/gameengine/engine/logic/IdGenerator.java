@@ -0,0 +1,22 @@
+package com.gameengine.engine.logic;
+
+import java.util.UUID;
+
+/**
+ * Source of entity identifiers (e.g. bullet IDs) for game logic.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * @return a new unique identifier
+     */
+    String nextId();
+
+    /**
+     * Random UUIDs, used in production.
+     */
+    static IdGenerator randomUuid() {
+        return () -> UUID.randomUUID().toString();
+    }
+}
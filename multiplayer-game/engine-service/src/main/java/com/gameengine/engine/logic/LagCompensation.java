@@ -0,0 +1,44 @@
+package com.gameengine.engine.logic;
+
+/**
+ * Settings for lag-compensated hit tests.
+ *
+ * A bullet is tested against player positions from when its shooter fired, as given by
+ * {@code PlayerEvent.timestamp}, but never more than maxRewindMs in the past.
+ * historyFrames must cover maxRewindMs at the physics step rate; older requests are
+ * clamped to the oldest frame kept.
+ */
+public final class LagCompensation {
+
+    private static final LagCompensation DEFAULTS = new LagCompensation(200, 16, 128);
+
+    private final long maxRewindMs;
+    private final int historyFrames;
+    private final int maxTrackedPlayers;
+
+    public LagCompensation(long maxRewindMs, int historyFrames, int maxTrackedPlayers) {
+        this.maxRewindMs = Math.max(0, maxRewindMs);
+        this.historyFrames = Math.max(1, historyFrames);
+        this.maxTrackedPlayers = Math.max(1, maxTrackedPlayers);
+    }
+
+    public static LagCompensation defaults() {
+        return DEFAULTS;
+    }
+
+    public boolean isEnabled() {
+        return maxRewindMs > 0;
+    }
+
+    public long getMaxRewindMs() {
+        return maxRewindMs;
+    }
+
+    public int getHistoryFrames() {
+        return historyFrames;
+    }
+
+    public int getMaxTrackedPlayers() {
+        return maxTrackedPlayers;
+    }
+}
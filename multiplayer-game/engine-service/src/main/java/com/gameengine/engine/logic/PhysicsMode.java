@@ -0,0 +1,54 @@
+package com.gameengine.engine.logic;
+
+import java.util.List;
+
+/**
+ * Chooses the physics of new rooms: double precision, or fixed point (see {@link FixedPoint})
+ * for rooms whose replicas and replays must agree bit for bit.
+ *
+ * The choice is made when a room is created and stored with its state, so a room keeps
+ * its physics for as long as it lives, whatever instance holds it.
+ */
+public final class PhysicsMode {
+
+    private final boolean fixedPointByDefault;
+    private final List<String> fixedPointRoomPrefixes;
+
+    /**
+     * @param fixedPointByDefault true to create every new room in fixed point
+     * @param fixedPointRoomPrefixes Room ID prefixes of rooms created in fixed point otherwise
+     */
+    public PhysicsMode(boolean fixedPointByDefault, List<String> fixedPointRoomPrefixes) {
+        this.fixedPointByDefault = fixedPointByDefault;
+        this.fixedPointRoomPrefixes = List.copyOf(fixedPointRoomPrefixes);
+    }
+
+    /**
+     * Double-precision physics for every room.
+     */
+    public static PhysicsMode doubles() {
+        return new PhysicsMode(false, List.of());
+    }
+
+    /**
+     * Fixed-point physics for every room.
+     */
+    public static PhysicsMode fixedPoint() {
+        return new PhysicsMode(true, List.of());
+    }
+
+    /**
+     * @return true if a room created with this ID uses fixed-point physics
+     */
+    public boolean isFixedPoint(String roomId) {
+        if (fixedPointByDefault) {
+            return true;
+        }
+        for (String prefix : fixedPointRoomPrefixes) {
+            if (roomId != null && roomId.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
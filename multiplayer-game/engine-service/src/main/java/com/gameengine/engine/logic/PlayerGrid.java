@@ -0,0 +1,155 @@
+package com.gameengine.engine.logic;
+
+import com.gameengine.engine.model.Player;
+import com.gameengine.engine.model.PlayerIndex;
+import com.gameengine.engine.model.PositionHistory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Uniform-grid broad-phase over a room's players for one physics step, at either their
+ * current positions or positions rewound from the room's {@link PositionHistory}.
+ *
+ * Each player is bucketed by the cell containing its centre. A swept query visits the
+ * cells overlapping the segment's bounding box grown by the hit radius, which covers
+ * every player whose circle the segment can touch. Small rooms skip the grid and scan
+ * all players. Built once per step and only read afterwards, so bullet ranges can
+ * query it from several threads.
+ */
+final class PlayerGrid {
+
+    private static final int LINEAR_SCAN_LIMIT = 16;
+    private static final int[] EMPTY = new int[0];
+
+    private final Player[] players;
+    private final double[] xs;
+    private final double[] ys;
+    private final double cellSize;
+    private final Map<Long, int[]> cells;
+
+    private PlayerGrid(Player[] players, double[] xs, double[] ys, double cellSize) {
+        this.players = players;
+        this.xs = xs;
+        this.ys = ys;
+        this.cellSize = cellSize;
+        this.cells = players.length > LINEAR_SCAN_LIMIT ? buildCells() : null;
+    }
+
+    /**
+     * Grid over current player positions.
+     */
+    static PlayerGrid current(PlayerIndex roomPlayers, double cellSize) {
+        Player[] players = roomPlayers.toArray();
+        double[] xs = new double[players.length];
+        double[] ys = new double[players.length];
+        for (int i = 0; i < players.length; i++) {
+            xs[i] = players[i].getPosition().getX();
+            ys[i] = players[i].getPosition().getY();
+        }
+        return new PlayerGrid(players, xs, ys, cellSize);
+    }
+
+    /**
+     * Grid over positions framesBack steps ago. Players untracked by the history use
+     * their current position; players that were not in the room then are left out.
+     */
+    static PlayerGrid rewound(PlayerIndex roomPlayers, PositionHistory history, int framesBack,
+                              double cellSize) {
+        Player[] players = new Player[roomPlayers.size()];
+        double[] xs = new double[players.length];
+        double[] ys = new double[players.length];
+        int count = 0;
+        for (Player player : roomPlayers) {
+            int slot = history.slotOf(player);
+            double x = player.getPosition().getX();
+            double y = player.getPosition().getY();
+            if (slot >= 0) {
+                float pastX = history.x(framesBack, slot);
+                if (Float.isNaN(pastX)) {
+                    continue;
+                }
+                x = pastX;
+                y = history.y(framesBack, slot);
+            }
+            players[count] = player;
+            xs[count] = x;
+            ys[count] = y;
+            count++;
+        }
+        if (count < players.length) {
+            players = Arrays.copyOf(players, count);
+        }
+        return new PlayerGrid(players, xs, ys, cellSize);
+    }
+
+    double x(int index) {
+        return xs[index];
+    }
+
+    double y(int index) {
+        return ys[index];
+    }
+
+    /**
+     * @return players in room iteration order; candidate indices refer to this array
+     */
+    Player[] players() {
+        return players;
+    }
+
+    /**
+     * Calls the visitor with the index of every player that may be within radius of the
+     * segment. Indices come in ascending order within a cell, but not across cells.
+     */
+    void query(double x0, double y0, double x1, double y1, double radius, IndexVisitor visitor) {
+        if (cells == null) {
+            for (int i = 0; i < players.length; i++) {
+                visitor.visit(i);
+            }
+            return;
+        }
+        int minCx = cell(Math.min(x0, x1) - radius);
+        int maxCx = cell(Math.max(x0, x1) + radius);
+        int minCy = cell(Math.min(y0, y1) - radius);
+        int maxCy = cell(Math.max(y0, y1) + radius);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                for (int index : cells.getOrDefault(key(cx, cy), EMPTY)) {
+                    visitor.visit(index);
+                }
+            }
+        }
+    }
+
+    private Map<Long, int[]> buildCells() {
+        Map<Long, Integer> counts = new HashMap<>();
+        long[] keys = new long[players.length];
+        for (int i = 0; i < players.length; i++) {
+            keys[i] = key(cell(xs[i]), cell(ys[i]));
+            counts.merge(keys[i], 1, Integer::sum);
+        }
+        Map<Long, int[]> built = new HashMap<>(counts.size() * 2);
+        Map<Long, Integer> fill = new HashMap<>(counts.size() * 2);
+        for (int i = 0; i < players.length; i++) {
+            int[] bucket = built.computeIfAbsent(keys[i], k -> new int[counts.get(k)]);
+            int slot = fill.merge(keys[i], 1, Integer::sum) - 1;
+            bucket[slot] = i;
+        }
+        return built;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    @FunctionalInterface
+    interface IndexVisitor {
+        void visit(int playerIndex);
+    }
+}
@@ -1,5 +1,8 @@
 package com.gameengine.engine.model;
 
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+
 import java.io.Serializable;
 
 /**
@@ -10,10 +13,18 @@ public class Bullet implements Serializable {
 
     private String bulletId;
     private String shooterId;
-    private PlayerEvent.Position position;
-    private PlayerEvent.Velocity velocity;
+    private Position position;
+    private Velocity velocity;
     private long createdAt;
     private double damage;
+    // Physics steps to rewind players by when testing this bullet's hits (shooter latency)
+    private int rewindFrames;
+    // In-memory only: the shooter's handle in the room's PlayerIndex, 0 if it is not in the room
+    private transient int shooterHandle;
+    // In-memory only: hit tests skipped while collision checks are coarsened under load,
+    // and the position the next test sweeps from
+    private transient int coastSteps;
+    private transient Position coastFrom;
 
     // Game constants
     private static final double BULLET_SPEED = 10.0;
@@ -26,7 +37,7 @@ public class Bullet implements Serializable {
         this.createdAt = System.currentTimeMillis();
     }
 
-    public Bullet(String bulletId, String shooterId, PlayerEvent.Position position, PlayerEvent.Velocity direction) {
+    public Bullet(String bulletId, String shooterId, Position position, Velocity direction) {
         this();
         this.bulletId = bulletId;
         this.shooterId = shooterId;
@@ -35,12 +46,12 @@ public class Bullet implements Serializable {
         double magnitude = direction.getMagnitude();
         if (magnitude > 0) {
             double scale = BULLET_SPEED / magnitude;
-            this.velocity = new PlayerEvent.Velocity(
+            this.velocity = new Velocity(
                     direction.getVx() * scale,
                     direction.getVy() * scale
             );
         } else {
-            this.velocity = new PlayerEvent.Velocity(BULLET_SPEED, 0);
+            this.velocity = new Velocity(BULLET_SPEED, 0);
         }
     }
 
@@ -65,19 +76,19 @@ public class Bullet implements Serializable {
         this.shooterId = shooterId;
     }
 
-    public PlayerEvent.Position getPosition() {
+    public Position getPosition() {
         return position;
     }
 
-    public void setPosition(PlayerEvent.Position position) {
+    public void setPosition(Position position) {
         this.position = position;
     }
 
-    public PlayerEvent.Velocity getVelocity() {
+    public Velocity getVelocity() {
         return velocity;
     }
 
-    public void setVelocity(PlayerEvent.Velocity velocity) {
+    public void setVelocity(Velocity velocity) {
         this.velocity = velocity;
     }
 
@@ -97,6 +108,41 @@ public class Bullet implements Serializable {
         this.damage = damage;
     }
 
+    public int getRewindFrames() {
+        return rewindFrames;
+    }
+
+    public void setRewindFrames(int rewindFrames) {
+        this.rewindFrames = rewindFrames;
+    }
+
+    public int shooterHandle() {
+        return shooterHandle;
+    }
+
+    public void assignShooterHandle(int shooterHandle) {
+        this.shooterHandle = shooterHandle;
+    }
+
+    /**
+     * @return hit tests still to skip, 0 when the bullet is tested every step
+     */
+    public int coastSteps() {
+        return coastSteps;
+    }
+
+    /**
+     * @return where the next hit test's sweep starts, or null for the bullet's last position
+     */
+    public Position coastFrom() {
+        return coastFrom;
+    }
+
+    public void coast(Position from, int steps) {
+        this.coastFrom = from;
+        this.coastSteps = steps;
+    }
+
     public static double getBulletSpeed() {
         return BULLET_SPEED;
     }
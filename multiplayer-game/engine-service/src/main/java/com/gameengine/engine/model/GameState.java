@@ -2,32 +2,40 @@ package com.gameengine.engine.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Represents the complete game state for a room.
  * This is the authoritative state stored in Redis under key "room:<roomId>"
+ *
+ * Players are held in a {@link PlayerIndex} and referred to by handle inside the
+ * engine; {@link #getPlayers()} and {@link #setPlayers} convert to and from the
+ * ID-keyed map at the edges.
  */
 public class GameState implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String roomId;
-    private Map<String, Player> players;
+    private PlayerIndex players;
     private List<Bullet> bullets;
     private long timestamp;
     private long version;
     private double worldWidth;
     private double worldHeight;
+    // Set when the room is created; see PhysicsMode
+    private boolean fixedPoint;
+
+    // In-memory only: recent player positions for lag-compensated hit tests
+    private transient PositionHistory positionHistory;
 
     // Game world constants
     private static final double DEFAULT_WORLD_WIDTH = 1000.0;
     private static final double DEFAULT_WORLD_HEIGHT = 1000.0;
 
     public GameState() {
-        this.players = new HashMap<>();
+        this.players = new PlayerIndex();
         this.bullets = new ArrayList<>();
         this.timestamp = System.currentTimeMillis();
         this.version = 0;
@@ -44,8 +52,18 @@ public class GameState implements Serializable {
         return players.get(playerId);
     }
 
+    public Player getPlayer(int handle) {
+        return players.get(handle);
+    }
+
     public void addPlayer(Player player) {
-        players.put(player.getPlayerId(), player);
+        int handle = players.put(player);
+        // Bullets fired before the player left are its own again
+        for (Bullet bullet : bullets) {
+            if (player.getPlayerId().equals(bullet.getShooterId())) {
+                bullet.assignShooterHandle(handle);
+            }
+        }
         incrementVersion();
     }
 
@@ -55,6 +73,9 @@ public class GameState implements Serializable {
     }
 
     public void addBullet(Bullet bullet) {
+        if (bullet.shooterHandle() == 0) {
+            bullet.assignShooterHandle(players.handleOf(bullet.getShooterId()));
+        }
         bullets.add(bullet);
         incrementVersion();
     }
@@ -64,8 +85,41 @@ public class GameState implements Serializable {
         incrementVersion();
     }
 
-    public void clearExpiredBullets(long currentTime) {
-        bullets.removeIf(bullet -> bullet.isExpired(currentTime));
+    /**
+     * Removes expired bullets. Bullets are kept in the order they were fired and all live
+     * equally long, so the expired ones are a prefix of the list and only that is checked.
+     *
+     * @return true if any bullet was removed
+     */
+    public boolean clearExpiredBullets(long currentTime) {
+        int expired = 0;
+        while (expired < bullets.size() && bullets.get(expired).isExpired(currentTime)) {
+            expired++;
+        }
+        if (expired == 0) {
+            return false;
+        }
+        bullets.subList(0, expired).clear();
+        return true;
+    }
+
+    /**
+     * @return time at which the oldest bullet expires, or Long.MAX_VALUE if there are none
+     */
+    public long nextBulletExpiry() {
+        return bullets.isEmpty()
+                ? Long.MAX_VALUE
+                : bullets.get(0).getCreatedAt() + Bullet.getBulletLifetimeMs() + 1;
+    }
+
+    /**
+     * Bumps the version for a change made in place, such as a player's position or
+     * velocity, which the add and remove methods above do not see. Every change must bump
+     * the version: saves skip rooms whose version has not moved, and Redis and delta
+     * consumers treat an update that does not raise it as stale.
+     */
+    public void markChanged() {
+        incrementVersion();
     }
 
     private void incrementVersion() {
@@ -94,12 +148,37 @@ public class GameState implements Serializable {
         this.roomId = roomId;
     }
 
-    public Map<String, Player> getPlayers() {
+    /**
+     * @return the room's players for the physics step, by handle
+     */
+    public PlayerIndex playerIndex() {
         return players;
     }
 
+    /**
+     * @return a copy of the players keyed by ID, for serialization; changes to the map
+     *         itself do not reach the room
+     */
+    public Map<String, Player> getPlayers() {
+        Map<String, Player> byId = new LinkedHashMap<>();
+        for (Player player : players) {
+            byId.put(player.getPlayerId(), player);
+        }
+        return byId;
+    }
+
+    /**
+     * Replaces the players, giving each a new handle, and points bullets at their shooters.
+     */
     public void setPlayers(Map<String, Player> players) {
-        this.players = players;
+        PlayerIndex index = new PlayerIndex();
+        if (players != null) {
+            for (Player player : players.values()) {
+                index.put(player);
+            }
+        }
+        this.players = index;
+        resolveShooters();
     }
 
     public List<Bullet> getBullets() {
@@ -108,6 +187,16 @@ public class GameState implements Serializable {
 
     public void setBullets(List<Bullet> bullets) {
         this.bullets = bullets;
+        resolveShooters();
+    }
+
+    private void resolveShooters() {
+        if (bullets == null || players == null) {
+            return;
+        }
+        for (Bullet bullet : bullets) {
+            bullet.assignShooterHandle(bullet.getShooterId() != null ? players.handleOf(bullet.getShooterId()) : 0);
+        }
     }
 
     public long getTimestamp() {
@@ -142,6 +231,29 @@ public class GameState implements Serializable {
         this.worldHeight = worldHeight;
     }
 
+    /**
+     * @return true if the room runs fixed-point physics, with every coordinate and
+     *         velocity a whole number of fixed-point units
+     */
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    }
+
+    /**
+     * @return recent player positions, or null if none have been recorded since load
+     */
+    public PositionHistory positionHistory() {
+        return positionHistory;
+    }
+
+    public void attachPositionHistory(PositionHistory positionHistory) {
+        this.positionHistory = positionHistory;
+    }
+
     public static double getDefaultWorldWidth() {
         return DEFAULT_WORLD_WIDTH;
     }
@@ -1,5 +1,8 @@
 package com.gameengine.engine.model;
 
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+
 import java.io.Serializable;
 import java.time.Instant;
 
@@ -10,11 +13,14 @@ public class Player implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String playerId;
-    private PlayerEvent.Position position;
-    private PlayerEvent.Velocity velocity;
+    private Position position;
+    private Velocity velocity;
     private int health;
     private long lastActionTimestamp;
     private String lastAction;
+    // In-memory only: handle in the room's PlayerIndex, and slot in its PositionHistory
+    private transient int handle;
+    private transient int historySlot = -1;
 
     // Game constants
     private static final int MAX_HEALTH = 100;
@@ -24,8 +30,8 @@ public class Player implements Serializable {
     public Player() {
         this.health = MAX_HEALTH;
         this.lastActionTimestamp = Instant.now().toEpochMilli();
-        this.position = new PlayerEvent.Position(0, 0);
-        this.velocity = new PlayerEvent.Velocity(0, 0);
+        this.position = new Position(0, 0);
+        this.velocity = new Velocity(0, 0);
     }
 
     public Player(String playerId) {
@@ -33,7 +39,7 @@ public class Player implements Serializable {
         this.playerId = playerId;
     }
 
-    public Player(String playerId, PlayerEvent.Position position) {
+    public Player(String playerId, Position position) {
         this(playerId);
         this.position = position;
     }
@@ -47,19 +53,19 @@ public class Player implements Serializable {
         this.playerId = playerId;
     }
 
-    public PlayerEvent.Position getPosition() {
+    public Position getPosition() {
         return position;
     }
 
-    public void setPosition(PlayerEvent.Position position) {
+    public void setPosition(Position position) {
         this.position = position;
     }
 
-    public PlayerEvent.Velocity getVelocity() {
+    public Velocity getVelocity() {
         return velocity;
     }
 
-    public void setVelocity(PlayerEvent.Velocity velocity) {
+    public void setVelocity(Velocity velocity) {
         this.velocity = velocity;
     }
 
@@ -99,6 +105,25 @@ public class Player implements Serializable {
         this.health = Math.min(MAX_HEALTH, this.health + amount);
     }
 
+    /**
+     * @return the player's handle in its room, 0 before it joins one
+     */
+    public int handle() {
+        return handle;
+    }
+
+    void assignHandle(int handle) {
+        this.handle = handle;
+    }
+
+    int historySlot() {
+        return historySlot;
+    }
+
+    void assignHistorySlot(int historySlot) {
+        this.historySlot = historySlot;
+    }
+
     public static int getMaxHealth() {
         return MAX_HEALTH;
     }
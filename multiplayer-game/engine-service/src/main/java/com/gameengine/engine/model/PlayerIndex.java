@@ -0,0 +1,251 @@
+package com.gameengine.engine.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A room's players, keyed by an integer handle assigned when the player joins.
+ *
+ * The physics step refers to players by handle (a bullet's shooter, the rewind history's
+ * slots), so comparing two players is an int comparison rather than a string one. Player
+ * IDs are looked up only at the edges: an incoming event's player, and encoding.
+ *
+ * Two open-addressing tables with linear probing, both holding the players themselves:
+ * one keyed by handle, one by player ID (probed by the ID's cached hash). Removal shifts
+ * later entries back instead of leaving tombstones. Handles start at 1 and are not
+ * reused while the room is in memory; they are not persisted, so a reloaded room numbers
+ * its players again. Not thread-safe; guarded by the room lock like the rest of the state.
+ */
+public final class PlayerIndex implements Iterable<Player>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] handles;
+    private Player[] byHandle;
+    private int[] idHashes;
+    private Player[] byId;
+    private int size;
+    private int nextHandle = 1;
+
+    public PlayerIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return the player with this handle, or null
+     */
+    public Player get(int handle) {
+        int mask = handles.length - 1;
+        for (int slot = mix(handle) & mask; handles[slot] != 0; slot = (slot + 1) & mask) {
+            if (handles[slot] == handle) {
+                return byHandle[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the player with this ID, or null
+     */
+    public Player get(String playerId) {
+        int slot = idSlot(playerId);
+        return slot >= 0 ? byId[slot] : null;
+    }
+
+    /**
+     * @return the handle of the player with this ID, or 0 if it is not in the room
+     */
+    public int handleOf(String playerId) {
+        Player player = get(playerId);
+        return player != null ? player.handle() : 0;
+    }
+
+    /**
+     * Adds a player, or replaces the one with the same ID; a replacement keeps the handle.
+     *
+     * @return the player's handle
+     */
+    public int put(Player player) {
+        Player existing = get(player.getPlayerId());
+        if (existing != null) {
+            player.assignHandle(existing.handle());
+            byId[idSlot(player.getPlayerId())] = player;
+            byHandle[handleSlot(existing.handle())] = player;
+            return player.handle();
+        }
+        if ((size + 1) * 2 > handles.length) {
+            rehash(handles.length * 2);
+        }
+        player.assignHandle(nextHandle++);
+        insert(player);
+        size++;
+        return player.handle();
+    }
+
+    /**
+     * @return the removed player, or null if there was none with this ID
+     */
+    public Player remove(String playerId) {
+        int idSlot = idSlot(playerId);
+        if (idSlot < 0) {
+            return null;
+        }
+        Player player = byId[idSlot];
+        deleteById(idSlot);
+        deleteByHandle(handleSlot(player.handle()));
+        size--;
+        return player;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the players in table order, the order iteration uses
+     */
+    public Player[] toArray() {
+        Player[] players = new Player[size];
+        int count = 0;
+        for (Player player : byHandle) {
+            if (player != null) {
+                players[count++] = player;
+            }
+        }
+        return players;
+    }
+
+    @Override
+    public Iterator<Player> iterator() {
+        return new Iterator<>() {
+            private int slot = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < byHandle.length;
+            }
+
+            @Override
+            public Player next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Player player = byHandle[slot];
+                slot = advance(slot + 1);
+                return player;
+            }
+
+            private int advance(int from) {
+                while (from < byHandle.length && byHandle[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+        };
+    }
+
+    private int handleSlot(int handle) {
+        int mask = handles.length - 1;
+        int slot = mix(handle) & mask;
+        while (handles[slot] != handle) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int idSlot(String playerId) {
+        int hash = playerId.hashCode();
+        int mask = byId.length - 1;
+        for (int slot = mix(hash) & mask; byId[slot] != null; slot = (slot + 1) & mask) {
+            if (idHashes[slot] == hash && byId[slot].getPlayerId().equals(playerId)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(Player player) {
+        int mask = handles.length - 1;
+        int slot = mix(player.handle()) & mask;
+        while (handles[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        handles[slot] = player.handle();
+        byHandle[slot] = player;
+
+        int hash = player.getPlayerId().hashCode();
+        slot = mix(hash) & mask;
+        while (byId[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        idHashes[slot] = hash;
+        byId[slot] = player;
+    }
+
+    private void deleteByHandle(int slot) {
+        int mask = handles.length - 1;
+        handles[slot] = 0;
+        byHandle[slot] = null;
+        // Shift back later entries of the run whose home slot is at or before the hole
+        for (int next = (slot + 1) & mask; handles[next] != 0; next = (next + 1) & mask) {
+            int home = mix(handles[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                handles[slot] = handles[next];
+                byHandle[slot] = byHandle[next];
+                handles[next] = 0;
+                byHandle[next] = null;
+                slot = next;
+            }
+        }
+    }
+
+    private void deleteById(int slot) {
+        int mask = byId.length - 1;
+        byId[slot] = null;
+        for (int next = (slot + 1) & mask; byId[next] != null; next = (next + 1) & mask) {
+            int home = mix(idHashes[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                idHashes[slot] = idHashes[next];
+                byId[slot] = byId[next];
+                byId[next] = null;
+                slot = next;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        Player[] players = toArray();
+        allocate(capacity);
+        for (Player player : players) {
+            insert(player);
+        }
+    }
+
+    private void allocate(int capacity) {
+        handles = new int[capacity];
+        byHandle = new Player[capacity];
+        idHashes = new int[capacity];
+        byId = new Player[capacity];
+    }
+
+    /**
+     * Spreads sequential handles and weak string hashes over the table.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerIndex{size=" + size + ", capacity=" + handles.length + ", players="
+                + Arrays.toString(toArray()) + '}';
+    }
+}
@@ -0,0 +1,170 @@
+package com.gameengine.engine.model;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of recent player positions for one room, used to rewind hit tests.
+ *
+ * One frame is recorded per physics step. Positions are stored in flat float arrays
+ * indexed by (frame * slotCapacity + slot), where each player keeps a slot while it is
+ * in the room (kept on the {@link Player}, owned by its handle); a NaN entry means the
+ * player was not in the room at that frame. Memory is bounded by frameCapacity x
+ * maxSlots, and reading a frame a given number of steps back is a single array index.
+ *
+ * Not persisted: a room reloaded from Redis starts with an empty history and hit tests
+ * use current positions until frames accumulate.
+ */
+public class PositionHistory {
+
+    private static final int INITIAL_SLOTS = 8;
+
+    private final int frameCapacity;
+    private final int maxSlots;
+    private final long[] frameTimes;
+    // Handle of the player owning each slot, 0 if free
+    private int[] slotOwners;
+    private float[] xs;
+    private float[] ys;
+    private int slotCapacity;
+    private long frameCount;
+
+    public PositionHistory(int frameCapacity, int maxSlots) {
+        this.frameCapacity = frameCapacity;
+        this.maxSlots = maxSlots;
+        this.frameTimes = new long[frameCapacity];
+        this.slotCapacity = Math.min(INITIAL_SLOTS, maxSlots);
+        this.slotOwners = new int[slotCapacity];
+        this.xs = new float[frameCapacity * slotCapacity];
+        this.ys = new float[frameCapacity * slotCapacity];
+    }
+
+    /**
+     * Records the current positions of the room's players as the newest frame.
+     */
+    public void record(long time, PlayerIndex players) {
+        // Free slots of players that have left; their old frames are no longer read
+        for (int slot = 0; slot < slotCapacity; slot++) {
+            int owner = slotOwners[slot];
+            if (owner != 0 && players.get(owner) == null) {
+                slotOwners[slot] = 0;
+            }
+        }
+
+        int frame = (int) (frameCount % frameCapacity);
+        int base = frame * slotCapacity;
+        Arrays.fill(xs, base, base + slotCapacity, Float.NaN);
+        Arrays.fill(ys, base, base + slotCapacity, Float.NaN);
+
+        for (Player player : players) {
+            int slot = slotFor(player);
+            if (slot < 0) {
+                continue;
+            }
+            base = frame * slotCapacity;
+            xs[base + slot] = (float) player.getPosition().getX();
+            ys[base + slot] = (float) player.getPosition().getY();
+        }
+        frameTimes[frame] = time;
+        frameCount++;
+    }
+
+    /**
+     * Finds how many frames back the newest frame recorded at or before a time is.
+     * Called once when a bullet is fired; the result is then a fixed offset.
+     *
+     * @param time Time to rewind to
+     * @param maxFramesBack Upper bound on the result
+     * @return frames back from the newest frame, 0 if nothing older is recorded
+     */
+    public int framesBack(long time, int maxFramesBack) {
+        int available = (int) Math.min(frameCount, frameCapacity) - 1;
+        int limit = Math.min(available, maxFramesBack);
+        for (int back = 0; back < limit; back++) {
+            if (frameTimes[frameIndex(back)] <= time) {
+                return back;
+            }
+        }
+        return Math.max(0, limit);
+    }
+
+    /**
+     * @return true if a frame this many steps back is still in the buffer
+     */
+    public boolean hasFrame(int framesBack) {
+        return framesBack >= 0 && framesBack < Math.min(frameCount, frameCapacity);
+    }
+
+    /**
+     * @return the player's slot, or -1 if it is not tracked
+     */
+    public int slotOf(Player player) {
+        int slot = player.historySlot();
+        return slot >= 0 && slot < slotCapacity && slotOwners[slot] == player.handle() ? slot : -1;
+    }
+
+    /**
+     * @return X position of a slot, framesBack frames before the newest; NaN if absent
+     */
+    public float x(int framesBack, int slot) {
+        return xs[frameIndex(framesBack) * slotCapacity + slot];
+    }
+
+    /**
+     * @return Y position of a slot, framesBack frames before the newest; NaN if absent
+     */
+    public float y(int framesBack, int slot) {
+        return ys[frameIndex(framesBack) * slotCapacity + slot];
+    }
+
+    public int getFrameCapacity() {
+        return frameCapacity;
+    }
+
+    private int frameIndex(int framesBack) {
+        return (int) ((frameCount - 1 - framesBack) % frameCapacity);
+    }
+
+    private int slotFor(Player player) {
+        int existing = slotOf(player);
+        if (existing >= 0) {
+            return existing;
+        }
+        for (int slot = 0; slot < slotCapacity; slot++) {
+            if (slotOwners[slot] == 0) {
+                return claim(player, slot);
+            }
+        }
+        if (slotCapacity >= maxSlots) {
+            return -1; // Untracked: hit tests fall back to the current position
+        }
+        int firstNewSlot = slotCapacity;
+        grow(Math.min(maxSlots, slotCapacity * 2));
+        return claim(player, firstNewSlot);
+    }
+
+    private int claim(Player player, int slot) {
+        player.assignHistorySlot(slot);
+        slotOwners[slot] = player.handle();
+        // Older frames in this slot belonged to a previous owner
+        for (int frame = 0; frame < frameCapacity; frame++) {
+            xs[frame * slotCapacity + slot] = Float.NaN;
+            ys[frame * slotCapacity + slot] = Float.NaN;
+        }
+        return slot;
+    }
+
+    private void grow(int newCapacity) {
+        float[] newXs = new float[frameCapacity * newCapacity];
+        float[] newYs = new float[frameCapacity * newCapacity];
+        Arrays.fill(newXs, Float.NaN);
+        Arrays.fill(newYs, Float.NaN);
+        for (int frame = 0; frame < frameCapacity; frame++) {
+            System.arraycopy(xs, frame * slotCapacity, newXs, frame * newCapacity, slotCapacity);
+            System.arraycopy(ys, frame * slotCapacity, newYs, frame * newCapacity, slotCapacity);
+        }
+        xs = newXs;
+        ys = newYs;
+        slotOwners = Arrays.copyOf(slotOwners, newCapacity);
+        slotCapacity = newCapacity;
+    }
+}
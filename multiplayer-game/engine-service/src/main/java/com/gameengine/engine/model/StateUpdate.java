@@ -1,6 +1,8 @@
 package com.gameengine.engine.model;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a state update message that is published to Kafka topic 'game-state-updates'.
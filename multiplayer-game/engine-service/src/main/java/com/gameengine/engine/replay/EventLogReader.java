@@ -0,0 +1,124 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads event logs written by {@link EventLogWriter}.
+ */
+public class EventLogReader implements Closeable {
+
+    private static final PlayerEvent.ActionType[] ACTION_TYPES = PlayerEvent.ActionType.values();
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private long lastTimestamp;
+
+    public EventLogReader(Path file) throws IOException {
+        InputStream stream = new FileInputStream(file.toFile());
+        if (file.toString().endsWith(".gz")) {
+            stream = new GZIPInputStream(stream, 1 << 16);
+        }
+        this.in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+
+        if (in.readInt() != EventLogWriter.MAGIC) {
+            throw new IOException("Not an event log: " + file);
+        }
+        byte version = in.readByte();
+        if (version != EventLogWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported event log version " + version + ": " + file);
+        }
+    }
+
+    /**
+     * Reads all events of a log file into memory.
+     */
+    public static List<PlayerEvent> readAll(Path file) throws IOException {
+        List<PlayerEvent> events = new ArrayList<>();
+        try (EventLogReader reader = new EventLogReader(file)) {
+            PlayerEvent event;
+            while ((event = reader.next()) != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return the next event, or null at end of log
+     */
+    public PlayerEvent next() throws IOException {
+        String roomId;
+        try {
+            roomId = readString();
+        } catch (EOFException e) {
+            return null;
+        }
+        String playerId = readString();
+        PlayerEvent.ActionType actionType = ACTION_TYPES[in.readUnsignedByte()];
+        lastTimestamp += unZigZag(readVarLong());
+
+        PlayerEvent event = new PlayerEvent(playerId, roomId, actionType);
+        event.setTimestamp(lastTimestamp);
+
+        int flags = in.readUnsignedByte();
+        if ((flags & EventLogWriter.FLAG_POSITION) != 0) {
+            event.setPosition(new Position(in.readDouble(), in.readDouble()));
+        }
+        if ((flags & EventLogWriter.FLAG_VELOCITY) != 0) {
+            event.setVelocity(new Velocity(in.readDouble(), in.readDouble()));
+        }
+        return event;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        int ref = (int) readVarLong();
+        if (ref < strings.size()) {
+            return strings.get(ref);
+        }
+        if (ref != strings.size()) {
+            throw new IOException("Corrupt event log: string ref " + ref + " out of sequence");
+        }
+        String value = in.readUTF();
+        strings.add(value);
+        return value;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Corrupt event log: varint too long");
+            }
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.protocol.PlayerEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes player events to a compact binary event log.
+ * 
+ * Format (big-endian):
+ * <pre>
+ * header: int MAGIC, byte FORMAT_VERSION
+ * event:  varint roomRef, varint playerRef, byte actionType,
+ *         zigzag-varint timestamp delta, byte flags,
+ *         [double x, double y] if position, [double vx, double vy] if velocity
+ * </pre>
+ * Room and player IDs are interned: a ref equal to the number of strings seen so far
+ * introduces a new string (followed by its UTF form), anything lower refers back to it.
+ * Files ending in ".gz" are gzip-compressed.
+ */
+public class EventLogWriter implements Closeable {
+
+    static final int MAGIC = 0x47455631; // "GEV1"
+    static final byte FORMAT_VERSION = 1;
+    static final int FLAG_POSITION = 1;
+    static final int FLAG_VELOCITY = 2;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private long lastTimestamp;
+    private long count;
+
+    public EventLogWriter(Path file) throws IOException {
+        OutputStream stream = new FileOutputStream(file.toFile());
+        if (file.toString().endsWith(".gz")) {
+            stream = new GZIPOutputStream(stream, 1 << 16);
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+    }
+
+    /**
+     * Appends one event to the log.
+     */
+    public void write(PlayerEvent event) throws IOException {
+        writeString(event.getRoomId());
+        writeString(event.getPlayerId());
+        out.writeByte(event.getActionType().ordinal());
+        writeVarLong(zigZag(event.getTimestamp() - lastTimestamp));
+        lastTimestamp = event.getTimestamp();
+
+        int flags = 0;
+        if (event.getPosition() != null) {
+            flags |= FLAG_POSITION;
+        }
+        if (event.getVelocity() != null) {
+            flags |= FLAG_VELOCITY;
+        }
+        out.writeByte(flags);
+        if (event.getPosition() != null) {
+            out.writeDouble(event.getPosition().getX());
+            out.writeDouble(event.getPosition().getY());
+        }
+        if (event.getVelocity() != null) {
+            out.writeDouble(event.getVelocity().getVx());
+            out.writeDouble(event.getVelocity().getVy());
+        }
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer ref = strings.get(value);
+        if (ref != null) {
+            writeVarLong(ref);
+            return;
+        }
+        int newRef = strings.size();
+        strings.put(value, newRef);
+        writeVarLong(newRef);
+        out.writeUTF(value);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
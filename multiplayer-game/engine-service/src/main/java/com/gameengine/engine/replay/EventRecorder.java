@@ -0,0 +1,101 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.protocol.PlayerEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Captures a player-events stream into an event log for {@link ReplayDriver}.
+ * 
+ * Runs in its own consumer group, so recording never takes partitions away from the
+ * engine. Stops after --max-events events, or on Ctrl-C.
+ * 
+ * Usage:
+ * <pre>
+ * EventRecorder &lt;bootstrap-servers&gt; &lt;output-file[.gz]&gt; [--topic player-events] [--max-events N] [--from-beginning]
+ * </pre>
+ */
+public class EventRecorder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: EventRecorder <bootstrap-servers> <output-file[.gz]> "
+                    + "[--topic player-events] [--max-events N] [--from-beginning]");
+            System.exit(1);
+        }
+        String bootstrapServers = args[0];
+        Path output = Path.of(args[1]);
+        String topic = "player-events";
+        long maxEvents = Long.MAX_VALUE;
+        boolean fromBeginning = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--topic" -> topic = args[++i];
+                case "--max-events" -> maxEvents = Long.parseLong(args[++i]);
+                case "--from-beginning" -> fromBeginning = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "engine-recorder-" + UUID.randomUUID());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, fromBeginning ? "earliest" : "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, PlayerEvent.class);
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        try (KafkaConsumer<String, PlayerEvent> consumer = new KafkaConsumer<>(props);
+             EventLogWriter writer = new EventLogWriter(output)) {
+
+            Thread mainThread = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                consumer.wakeup();
+                try {
+                    mainThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            consumer.subscribe(List.of(topic));
+            System.out.printf("Recording %s to %s%n", topic, output);
+            try {
+                while (writer.getCount() < maxEvents) {
+                    ConsumerRecords<String, PlayerEvent> records = consumer.poll(Duration.ofMillis(500));
+                    for (ConsumerRecord<String, PlayerEvent> record : records) {
+                        PlayerEvent event = record.value();
+                        if (event == null || event.getRoomId() == null || event.getActionType() == null) {
+                            continue;
+                        }
+                        writer.write(event);
+                        if (writer.getCount() >= maxEvents) {
+                            break;
+                        }
+                    }
+                    writer.flush();
+                }
+            } catch (WakeupException e) {
+                // Shutdown requested
+            }
+            System.out.printf("Recorded %d events to %s%n", writer.getCount(), output);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.engine.logic.GameLogic;
+import com.gameengine.engine.logic.LagCompensation;
+import com.gameengine.engine.logic.PhysicsMode;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.Player;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares double-precision and fixed-point physics (see {@link PhysicsMode}) on
+ * synthetic rooms.
+ *
+ * For every room size, one seeded stream of bot events (moves, shots and jumps) is
+ * applied through {@link GameLogic#apply} to a fresh room in each mode, for a number of
+ * timed passes; the fastest pass is reported. The modes take turns within each pass, so
+ * neither gets the JIT to itself. Each mode also reports the health its players lost, as
+ * a check that both play the same game, and the hash of its final state. Fixed-point
+ * hashes depend only on the events, so they can be compared across machines.
+ *
+ * Usage:
+ * <pre>
+ * PhysicsBenchmark [--events N] [--passes N] [--seed N] [--physics double|fixed-point]
+ * </pre>
+ * With --physics only that mode runs, e.g. to time each in a JVM of its own.
+ */
+public class PhysicsBenchmark {
+
+    private static final int[] ROOM_SIZES = {8, 32, 128};
+    // Game time between events, as at a 60 Hz input rate
+    private static final long EVENT_INTERVAL_MS = 16;
+
+    public static void main(String[] args) {
+        int events = 20_000;
+        int passes = 5;
+        long seed = 42;
+        String only = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--events" -> events = Integer.parseInt(args[++i]);
+                case "--passes" -> passes = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--physics" -> only = args[++i];
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        System.out.printf("%-8s %-12s %10s %12s %13s  %s%n",
+                "players", "physics", "ns/event", "events/s", "health lost", "state hash");
+        List<Run> runs = new ArrayList<>();
+        if (only == null || only.equals("double")) {
+            runs.add(new Run("double", PhysicsMode.doubles()));
+        }
+        if (only == null || only.equals("fixed-point")) {
+            runs.add(new Run("fixed-point", PhysicsMode.fixedPoint()));
+        }
+        if (runs.isEmpty()) {
+            throw new IllegalArgumentException("Unknown physics: " + only);
+        }
+        for (int players : ROOM_SIZES) {
+            List<PlayerEvent> stream = events(players, events, seed + players);
+            runs.forEach(Run::reset);
+            for (int pass = 0; pass < passes; pass++) {
+                for (Run run : runs) {
+                    run.pass(stream);
+                }
+            }
+            for (Run run : runs) {
+                run.report(players, stream.size());
+            }
+        }
+    }
+
+    /**
+     * Timed passes of one physics mode.
+     */
+    private static final class Run {
+        private final String name;
+        private final ReplayClock clock = new ReplayClock();
+        private final SequentialIdGenerator idGenerator = new SequentialIdGenerator();
+        private final GameLogic gameLogic;
+        private long best;
+        private GameState state;
+
+        private Run(String name, PhysicsMode mode) {
+            this.name = name;
+            this.gameLogic = new GameLogic(clock, idGenerator, LagCompensation.defaults(), mode);
+        }
+
+        void reset() {
+            best = Long.MAX_VALUE;
+            state = null;
+        }
+
+        void pass(List<PlayerEvent> events) {
+            // Fresh event objects each pass: GameLogic may keep references to event vectors
+            List<PlayerEvent> copies = copy(events);
+            idGenerator.reset();
+            GameState room = null;
+            long start = System.nanoTime();
+            for (PlayerEvent event : copies) {
+                clock.set(event.getTimestamp());
+                room = gameLogic.apply(room, event);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            state = room;
+        }
+
+        void report(int players, int events) {
+            long healthLost = 0;
+            for (Player player : state.playerIndex()) {
+                healthLost += 100 - player.getHealth();
+            }
+            double nsPerEvent = (double) best / events;
+            System.out.printf("%-8d %-12s %10.0f %,12.0f %13d  %016x%n",
+                    players, name, nsPerEvent, 1e9 / nsPerEvent, healthLost, StateHasher.hash(state));
+        }
+    }
+
+    /**
+     * Bots that wander, shoot at one another and now and then jump.
+     */
+    private static List<PlayerEvent> events(int players, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<PlayerEvent> events = new ArrayList<>(count);
+        long time = 1_000_000;
+        for (int i = 0; i < count; i++) {
+            String playerId = "bot-" + random.nextInt(players);
+            double roll = random.nextDouble();
+            PlayerEvent.ActionType action = roll < 0.25 ? PlayerEvent.ActionType.SHOOT
+                    : roll < 0.3 ? PlayerEvent.ActionType.JUMP
+                    : PlayerEvent.ActionType.MOVE;
+            Position position = action == PlayerEvent.ActionType.MOVE && random.nextInt(10) == 0
+                    ? new Position(random.nextDouble(0, 1000), random.nextDouble(0, 1000))
+                    : null;
+            PlayerEvent event = new PlayerEvent(playerId, "bench", action, position,
+                    new Velocity(random.nextDouble(-8, 8), random.nextDouble(-8, 8)));
+            time += EVENT_INTERVAL_MS;
+            event.setTimestamp(time);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static List<PlayerEvent> copy(List<PlayerEvent> events) {
+        List<PlayerEvent> copies = new ArrayList<>(events.size());
+        for (PlayerEvent event : events) {
+            Position position = event.getPosition();
+            Velocity velocity = event.getVelocity();
+            PlayerEvent copy = new PlayerEvent(event.getPlayerId(), event.getRoomId(), event.getActionType(),
+                    position != null ? new Position(position.getX(), position.getY()) : null,
+                    velocity != null ? new Velocity(velocity.getVx(), velocity.getVy()) : null);
+            copy.setTimestamp(event.getTimestamp());
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,20 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.engine.logic.GameClock;
+
+/**
+ * Game clock driven by recorded event time instead of the wall clock.
+ */
+public class ReplayClock implements GameClock {
+
+    private long currentTimeMillis;
+
+    public void set(long currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+}
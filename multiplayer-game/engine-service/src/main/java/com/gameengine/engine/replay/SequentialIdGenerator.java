@@ -0,0 +1,20 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.engine.logic.IdGenerator;
+
+/**
+ * Deterministic ID source: "b-1", "b-2", ... in call order.
+ */
+public class SequentialIdGenerator implements IdGenerator {
+
+    private long next;
+
+    @Override
+    public String nextId() {
+        return "b-" + (++next);
+    }
+
+    public void reset() {
+        next = 0;
+    }
+}
@@ -0,0 +1,115 @@
+package com.gameengine.engine.replay;
+
+import com.gameengine.engine.model.Bullet;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.Player;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Computes a 64-bit FNV-1a hash over every simulation-relevant field of a GameState.
+ * 
+ * Doubles are hashed by their exact bit pattern, so any change in floating-point results
+ * shows up. Players are hashed in player ID order so map iteration order does not matter;
+ * bullets are hashed in list order because order affects collision resolution.
+ */
+public final class StateHasher {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long hash;
+
+    private StateHasher() {
+        this.hash = FNV_OFFSET_BASIS;
+    }
+
+    public static long hash(GameState state) {
+        StateHasher hasher = new StateHasher();
+        hasher.add(state.getRoomId());
+        hasher.add(state.getVersion());
+        hasher.add(state.getTimestamp());
+        hasher.add(state.getWorldWidth());
+        hasher.add(state.getWorldHeight());
+
+        Player[] players = state.playerIndex().toArray();
+        Arrays.sort(players, Comparator.comparing(Player::getPlayerId));
+        hasher.add(players.length);
+        for (Player player : players) {
+            hasher.add(player.getPlayerId());
+            hasher.add(player.getPosition());
+            hasher.add(player.getVelocity());
+            hasher.add(player.getHealth());
+            hasher.add(player.getLastActionTimestamp());
+            hasher.add(player.getLastAction());
+        }
+
+        hasher.add(state.getBullets().size());
+        for (Bullet bullet : state.getBullets()) {
+            hasher.add(bullet.getBulletId());
+            hasher.add(bullet.getShooterId());
+            hasher.add(bullet.getPosition());
+            hasher.add(bullet.getVelocity());
+            hasher.add(bullet.getCreatedAt());
+            hasher.add(bullet.getDamage());
+        }
+        return hasher.hash;
+    }
+
+    /**
+     * Folds a state hash into a running digest, so one value summarises a whole replay.
+     */
+    public static long combine(long digest, long stateHash) {
+        StateHasher hasher = new StateHasher();
+        hasher.hash = digest;
+        hasher.add(stateHash);
+        return hasher.hash;
+    }
+
+    private void add(Position position) {
+        if (position == null) {
+            add(0L);
+            return;
+        }
+        add(position.getX());
+        add(position.getY());
+    }
+
+    private void add(Velocity velocity) {
+        if (velocity == null) {
+            add(0L);
+            return;
+        }
+        add(velocity.getVx());
+        add(velocity.getVy());
+    }
+
+    private void add(String value) {
+        if (value == null) {
+            add(-1L);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        add(bytes.length);
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+    }
+
+    private void add(double value) {
+        add(Double.doubleToLongBits(value));
+    }
+
+    private void add(long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+    }
+}
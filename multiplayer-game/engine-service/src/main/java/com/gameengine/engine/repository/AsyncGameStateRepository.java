@@ -0,0 +1,291 @@
+package com.gameengine.engine.repository;
+
+import com.gameengine.engine.diagnostics.EngineEvents;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.protocol.RoomSummary;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking counterpart of {@link GameStateRepository} for the hot path: claiming,
+ * loading and saving held rooms, and reading room summaries.
+ *
+ * Every call goes out on one multiplexed Lettuce connection and returns at once with a
+ * future, so saves and loads for many rooms can be in flight together without a thread
+ * or pooled connection each. The Redis layout, scripts, fencing and compare-and-set
+ * rules are exactly those of {@link GameStateRepository}, and the two can be used on
+ * the same rooms.
+ *
+ * Redis runs the commands of one connection in the order they were sent, which callers
+ * rely on: a read sent after a claim sees the claim, and saves of a room land in the
+ * order they were made.
+ *
+ * The same ordering keeps scripts safe to run by hash alone. They are loaded with SCRIPT
+ * LOAD when the connection opens, and a call is never resent as a plain EVAL: a resend
+ * could run behind saves sent after it. If Redis has lost the scripts (it restarted or
+ * its script cache was flushed), the call fails like any other failed call, and SCRIPT
+ * LOAD is sent again on the connection, where it runs before every later call.
+ *
+ * Enabled with game.engine.redis.async.enabled.
+ */
+@Repository
+@ConditionalOnProperty(name = "game.engine.redis.async.enabled", havingValue = "true")
+public class AsyncGameStateRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncGameStateRepository.class);
+    private static final List<RedisScript<Long>> SCRIPTS =
+            List.of(GameStateRepository.SAVE_SCRIPT, GameStateRepository.CLAIM_SCRIPT);
+    private static final byte[][] SUMMARY_FIELDS = RoomSummary.FIELDS.stream()
+            .map(field -> field.getBytes(StandardCharsets.UTF_8))
+            .toArray(byte[][]::new);
+
+    private final StatefulRedisConnection<byte[], byte[]> connection;
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+    private final RoomHashCodec roomHashCodec;
+    private final long roomTtlSeconds;
+
+    public AsyncGameStateRepository(RedisClient lettuceRedisClient,
+                                    RoomHashCodec roomHashCodec,
+                                    @Value("${game.engine.room-ttl-seconds:300}") long roomTtlSeconds) {
+        this.connection = lettuceRedisClient.connect(ByteArrayCodec.INSTANCE);
+        this.commands = connection.async();
+        this.roomHashCodec = roomHashCodec;
+        this.roomTtlSeconds = roomTtlSeconds;
+        for (RedisScript<Long> script : SCRIPTS) {
+            connection.sync().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Claims a room for this instance; see {@link GameStateRepository#claimRoom}.
+     * A {@link #getGameState} sent after this call reads the room as of the claim, so the
+     * two can be sent back to back and awaited together.
+     *
+     * @param roomId Room identifier
+     * @return future of the fencing token to pass to {@link #saveGameState}
+     */
+    public CompletableFuture<Long> claimRoom(String roomId) {
+        CompletableFuture<Long> fence = runScript(GameStateRepository.CLAIM_SCRIPT, roomKey(roomId),
+                ascii(roomTtlSeconds)).thenApply(token -> {
+                    if (token == null) {
+                        throw new IllegalStateException("Claim script returned no fencing token");
+                    }
+                    logger.debug("Claimed room: {} with fencing token {}", roomId, token);
+                    return token;
+                });
+        return failure(fence, "Failed to claim room", roomId);
+    }
+
+    /**
+     * Gets the game state for a room and records the fields read, like
+     * {@link GameStateRepository#getGameState(String, RoomFields)}.
+     *
+     * @param roomId Room identifier
+     * @param stored Filled with the room's fields when the future completes, cleared if the
+     *               room is not found; must not be used by the caller until then
+     * @return future of the GameState, or of null if not found
+     */
+    public CompletableFuture<GameState> getGameState(String roomId, RoomFields stored) {
+        EngineEvents.RedisLoad event = new EngineEvents.RedisLoad();
+        event.begin();
+        CompletableFuture<GameState> state = commands.hgetall(roomKey(roomId)).toCompletableFuture()
+                .thenApply(raw -> {
+                    GameState decoded = roomHashCodec.decode(RoomHashCodec.fromStored(raw));
+                    if (event.isEnabled()) {
+                        event.bytes = GameStateRepository.byteCount(raw);
+                    }
+                    EngineEvents.commit(event, roomId, decoded);
+                    if (decoded == null) {
+                        logger.debug("No game state found for room: {}", roomId);
+                        stored.clear();
+                        return null;
+                    }
+                    stored.replace(roomHashCodec.encode(decoded), decoded.getVersion());
+                    return decoded;
+                });
+        return failure(state, "Failed to retrieve game state", roomId);
+    }
+
+    /**
+     * Saves a held room's state under the same conditions as
+     * {@link GameStateRepository#saveGameState}.
+     *
+     * The state is encoded before this method returns, so the caller may go on changing
+     * it. {@code stored} is updated at the same time, before the outcome is known: the
+     * next save of the room can then be diffed and sent without waiting for this one.
+     * If this save is rejected, Redis rejects those diffs as well (they only apply on top
+     * of this version), and the caller must drop its copy of the room.
+     *
+     * @param roomId Room identifier
+     * @param gameState Game state to save
+     * @param fence Fencing token of the writer
+     * @param refreshTtl true to also reset the TTL
+     * @param stored Fields last read or written
+     * @return future of the outcome of the conditional write
+     */
+    public CompletableFuture<GameStateRepository.SaveResult> saveGameState(String roomId, GameState gameState,
+                                                                           long fence, boolean refreshTtl,
+                                                                           RoomFields stored) {
+        EngineEvents.RedisSave event = new EngineEvents.RedisSave();
+        event.begin();
+        CompletableFuture<Long> status;
+        Map<String, byte[]> fields;
+        boolean full;
+        try {
+            fields = roomHashCodec.encode(gameState);
+            full = stored.isEmpty();
+            byte[][] args = GameStateRepository.saveArgs(roomHashCodec, gameState, fence,
+                    refreshTtl || full ? roomTtlSeconds : 0, full, fields, stored).toArray(byte[][]::new);
+            if (event.isEnabled()) {
+                event.bytes = GameStateRepository.byteCount(List.of(args));
+                // Counts are taken now: the caller goes on changing the state
+                event.playerCount = gameState.getPlayerCount();
+                event.bulletCount = gameState.getBulletCount();
+            }
+            status = runScript(GameStateRepository.SAVE_SCRIPT, roomKey(roomId), args);
+            stored.replace(fields, gameState.getVersion());
+        } catch (RuntimeException e) {
+            logger.error("Error saving game state for room: {}", roomId, e);
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to save game state", e));
+        }
+
+        long version = gameState.getVersion();
+        boolean wroteFull = full;
+        if (!full) {
+            // Only reachable from a partial write, which does not depend on stored any more
+            status = status.thenCompose(result -> {
+                if (result == null || result != GameStateRepository.STATUS_RESEND_FULL) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                logger.info("Room: {} expired from Redis while held; writing it in full", roomId);
+                byte[][] args = GameStateRepository.saveArgs(roomHashCodec, gameState, fence, roomTtlSeconds,
+                        true, fields, new RoomFields()).toArray(byte[][]::new);
+                event.full = true;
+                if (event.isEnabled()) {
+                    event.bytes += GameStateRepository.byteCount(List.of(args));
+                }
+                return runScript(GameStateRepository.SAVE_SCRIPT, roomKey(roomId), args);
+            });
+        }
+        CompletableFuture<GameStateRepository.SaveResult> result = status.thenApply(code -> {
+            GameStateRepository.SaveResult outcome = GameStateRepository.SaveResult.fromStatus(code);
+            event.full |= wroteFull;
+            event.result = outcome.name();
+            // Counts were set when the save was sent; the state may have moved on since
+            EngineEvents.commit(event, roomId, null);
+            logger.debug("Saved game state for room: {} (version: {}, fence: {}, full: {}) -> {}",
+                    roomId, version, fence, full, outcome);
+            return outcome;
+        });
+        return failure(result, "Failed to save game state", roomId);
+    }
+
+    /**
+     * Reads the summaries of several rooms, like {@link GameStateRepository#getRoomSummaries}.
+     *
+     * @param roomIds Room identifiers
+     * @return future of the summaries by room, without rooms that do not exist
+     */
+    public CompletableFuture<Map<String, RoomSummary>> getRoomSummaries(Collection<String> roomIds) {
+        List<String> ids = new ArrayList<>(roomIds);
+        List<CompletableFuture<List<KeyValue<byte[], byte[]>>>> replies = new ArrayList<>(ids.size());
+        for (String roomId : ids) {
+            replies.add(commands.hmget(roomKey(roomId), SUMMARY_FIELDS).toCompletableFuture());
+        }
+        CompletableFuture<Map<String, RoomSummary>> summaries = CompletableFuture
+                .allOf(replies.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<String, RoomSummary> byRoom = new HashMap<>();
+                    for (int i = 0; i < ids.size(); i++) {
+                        List<String> values = new ArrayList<>(SUMMARY_FIELDS.length);
+                        for (KeyValue<byte[], byte[]> value : replies.get(i).join()) {
+                            values.add(value.hasValue() ? new String(value.getValue(), StandardCharsets.UTF_8) : null);
+                        }
+                        RoomSummary summary = RoomSummary.decode(ids.get(i), values);
+                        if (summary != null) {
+                            byRoom.put(ids.get(i), summary);
+                        }
+                    }
+                    return byRoom;
+                });
+        return failure(summaries, "Failed to read room summaries", ids.size() + " rooms");
+    }
+
+    @PreDestroy
+    public void close() {
+        connection.close();
+    }
+
+    private CompletableFuture<Long> runScript(RedisScript<Long> script, byte[] key, byte[]... args) {
+        byte[][] keys = {key};
+        return commands.<Long>evalsha(script.getSha1(), ScriptOutputType.INTEGER, keys, args)
+                .toCompletableFuture()
+                .whenComplete((ignored, e) -> {
+                    if (e != null && unwrap(e) instanceof RedisNoScriptException) {
+                        reloadScripts();
+                    }
+                });
+    }
+
+    /**
+     * Sends SCRIPT LOAD for every script without waiting. Calls sent from here on run
+     * after it; calls already sent fail and may each send another, which is harmless.
+     */
+    private void reloadScripts() {
+        logger.warn("Redis lost the room scripts; loading them again");
+        for (RedisScript<Long> script : SCRIPTS) {
+            commands.scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8))
+                    .exceptionally(e -> {
+                        logger.error("Failed to load script: {}", script.getSha1(), e);
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * Logs a failed call and fails the future with the same message the blocking
+     * repository throws.
+     */
+    private static <T> CompletableFuture<T> failure(CompletableFuture<T> future, String message, String subject) {
+        return future.handle((value, e) -> {
+            if (e == null) {
+                return value;
+            }
+            logger.error("{} for: {}", message, subject, unwrap(e));
+            throw new CompletionException(new RuntimeException(message, unwrap(e)));
+        });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static byte[] roomKey(String roomId) {
+        return (RoomSummary.KEY_PREFIX + roomId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
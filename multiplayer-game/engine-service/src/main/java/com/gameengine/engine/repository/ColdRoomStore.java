@@ -0,0 +1,219 @@
+package com.gameengine.engine.repository;
+
+import com.gameengine.engine.model.GameState;
+import com.gameengine.protocol.RoomSummary;
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cold storage for rooms that have gone idle.
+ *
+ * Hibernating a room packs every field of its hash into one zstd-compressed value under
+ * "room-cold:&lt;roomId&gt;" and strips the hash down to a stub: the fencing token, the
+ * version and the summary fields, plus a "hibernated" marker. Fencing keeps working across
+ * the gap and lobby listings still see the room, while the room itself takes a fraction of
+ * the memory. Both keys get game.engine.hibernation.cold-ttl-seconds, so an abandoned room
+ * still expires, only later than a hot one.
+ *
+ * The next owner to load the room finds only the stub and calls {@link #wake}, which
+ * writes the fields back into the hash and deletes the cold key in one script. Waking is
+ * always on; game.engine.hibernation.enabled only controls whether idle rooms hibernate.
+ */
+@Repository
+public class ColdRoomStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColdRoomStore.class);
+    private static final String ROOM_KEY_PREFIX = RoomSummary.KEY_PREFIX;
+    static final String COLD_KEY_PREFIX = "room-cold:";
+    static final RedisScript<Long> HIBERNATE_SCRIPT = GameStateRepository.loadScript("redis/hibernate-room.lua");
+    static final RedisScript<Long> WAKE_SCRIPT = GameStateRepository.loadScript("redis/wake-room.lua");
+    private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, GameState> redisTemplate;
+    private final RoomHashCodec roomHashCodec;
+    private final boolean enabled;
+    private final long coldTtlSeconds;
+    private final long roomTtlSeconds;
+    private final int compressionLevel;
+    private final Counter hibernated;
+    private final Counter woken;
+    private final DistributionSummary packedBytes;
+
+    public ColdRoomStore(RedisTemplate<String, GameState> redisTemplate,
+                         RoomHashCodec roomHashCodec,
+                         MeterRegistry meterRegistry,
+                         @Value("${game.engine.hibernation.enabled:false}") boolean enabled,
+                         @Value("${game.engine.hibernation.cold-ttl-seconds:86400}") long coldTtlSeconds,
+                         @Value("${game.engine.hibernation.compression-level:9}") int compressionLevel,
+                         @Value("${game.engine.room-ttl-seconds:300}") long roomTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.roomHashCodec = roomHashCodec;
+        this.enabled = enabled;
+        this.coldTtlSeconds = coldTtlSeconds;
+        this.roomTtlSeconds = roomTtlSeconds;
+        this.compressionLevel = compressionLevel;
+        this.hibernated = Counter.builder("engine.hibernation.rooms")
+                .description("Rooms moved to cold storage")
+                .tag("operation", "hibernate")
+                .register(meterRegistry);
+        this.woken = Counter.builder("engine.hibernation.rooms")
+                .description("Rooms restored from cold storage")
+                .tag("operation", "wake")
+                .register(meterRegistry);
+        this.packedBytes = DistributionSummary.builder("engine.hibernation.packed")
+                .description("Compressed size of a hibernated room")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if idle rooms are hibernated rather than left to expire
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Moves a room to cold storage, if Redis still holds exactly this state under this
+     * owner. The caller drops the room from memory afterwards either way.
+     *
+     * @param roomId Room identifier
+     * @param state State of the room, as last saved
+     * @param fence Fencing token of the owner
+     * @return true if the room was hibernated
+     */
+    public boolean hibernate(String roomId, GameState state, long fence) {
+        try {
+            Map<String, byte[]> fields = roomHashCodec.encode(state);
+            fields.put(RoomSummary.VERSION_FIELD, ascii(state.getVersion()));
+            byte[] packed = pack(fields, compressionLevel);
+            RedisSerializer<String> strings = RedisSerializer.string();
+            Long status = redisTemplate.execute(HIBERNATE_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT,
+                    List.of(ROOM_KEY_PREFIX + roomId, COLD_KEY_PREFIX + roomId),
+                    strings.serialize(Long.toString(fence)),
+                    strings.serialize(Long.toString(state.getVersion())),
+                    strings.serialize(Long.toString(coldTtlSeconds)),
+                    packed);
+            if (status == null || status != 1) {
+                logger.info("Room: {} not hibernated: Redis holds another version or owner ({})", roomId, status);
+                return false;
+            }
+            hibernated.increment();
+            packedBytes.record(packed.length);
+            logger.debug("Hibernated room: {} at version {} ({} players, {} bytes)",
+                    roomId, state.getVersion(), state.getPlayerCount(), packed.length);
+            return true;
+        } catch (Exception e) {
+            logger.error("Error hibernating room: {}", roomId, e);
+            throw new RuntimeException("Failed to hibernate room", e);
+        }
+    }
+
+    /**
+     * Restores a hibernated room after its new owner has claimed it and found no state.
+     *
+     * @param roomId Room identifier
+     * @param fence Fencing token from the claim
+     * @param stored Filled with the restored fields, as {@link GameStateRepository#getGameState} would
+     * @return the restored state, or null if the room is not in cold storage
+     */
+    public GameState wake(String roomId, long fence, RoomFields stored) {
+        RedisSerializer<String> strings = RedisSerializer.string();
+        byte[] coldKey = strings.serialize(COLD_KEY_PREFIX + roomId);
+        try {
+            byte[] packed = redisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().get(coldKey));
+            if (packed == null) {
+                return null;
+            }
+            Map<String, byte[]> fields = unpack(packed);
+            List<byte[]> args = new ArrayList<>(2 + 2 * fields.size());
+            args.add(strings.serialize(Long.toString(fence)));
+            args.add(strings.serialize(Long.toString(roomTtlSeconds)));
+            fields.forEach((field, value) -> {
+                args.add(strings.serialize(field));
+                args.add(roomHashCodec.toStored(field, value));
+            });
+            Long status = redisTemplate.execute(WAKE_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT,
+                    List.of(ROOM_KEY_PREFIX + roomId, COLD_KEY_PREFIX + roomId), args.toArray());
+            if (status == null || status == -1) {
+                throw new IllegalStateException("Room " + roomId + " was claimed by another owner while waking");
+            }
+            if (status == 0) {
+                // The stub expired before its cold copy; the room starts over
+                logger.info("Ignoring cold copy of room: {}, which is no longer hibernated", roomId);
+                return null;
+            }
+            GameState state = roomHashCodec.decode(fields);
+            stored.replace(roomHashCodec.encode(state), state.getVersion());
+            woken.increment();
+            logger.debug("Woke room: {} at version {}", roomId, state.getVersion());
+            return state;
+        } catch (Exception e) {
+            logger.error("Error waking room: {}", roomId, e);
+            throw new RuntimeException("Failed to wake room", e);
+        }
+    }
+
+    /**
+     * Packs hash fields into one compressed value: a field count, then each field's name
+     * and length-prefixed value.
+     */
+    static byte[] pack(Map<String, byte[]> fields, int level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(fields.size());
+            for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+                out.writeUTF(field.getKey());
+                out.writeInt(field.getValue().length);
+                out.write(field.getValue());
+            }
+        }
+        return Zstd.compress(bytes.toByteArray(), level);
+    }
+
+    static Map<String, byte[]> unpack(byte[] packed) throws IOException {
+        long size = Zstd.decompressedSize(packed);
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Cold room value has no usable content size: " + size);
+        }
+        byte[] raw = Zstd.decompress(packed, (int) size);
+        Map<String, byte[]> fields = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                fields.put(name, value);
+            }
+        }
+        return fields;
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,33 +1,58 @@
 package com.gameengine.engine.repository;
 
+import com.gameengine.engine.diagnostics.EngineEvents;
 import com.gameengine.engine.model.GameState;
+import com.gameengine.protocol.RoomRoute;
+import com.gameengine.protocol.RoomSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Repository;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for managing game state in Redis.
- * Stores authoritative game state under key: "room:<roomId>"
+ * Stores authoritative game state as a hash under key: "room:<roomId>", with one field per
+ * player (see {@link RoomHashCodec}), so a save only writes what changed and room metadata
+ * can be read without loading the room.
+ * Held rooms are written by compare-and-set: the hash also records the stored version and
+ * the fencing token of the room's current owner.
+ * Also commits room ownership handoffs into the directory read by {@link RoomDirectory}.
  */
 @Repository
 public class GameStateRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(GameStateRepository.class);
-    private static final String ROOM_KEY_PREFIX = "room:";
-    private static final String STATE_FIELD = "state";
-    private static final String LAST_UPDATED_FIELD = "lastUpdated";
-    private static final String PLAYERS_FIELD = "players";
+    private static final String ROOM_KEY_PREFIX = RoomSummary.KEY_PREFIX;
+    private static final byte[] FENCE_FIELD = RedisSerializer.string().serialize("fence");
+    static final RedisScript<Long> SAVE_SCRIPT = loadScript("redis/save-room-state.lua");
+    static final RedisScript<Long> CLAIM_SCRIPT = loadScript("redis/claim-room.lua");
+    static final long STATUS_RESEND_FULL = 2;
+    private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
 
     private final RedisTemplate<String, GameState> redisTemplate;
+    private final RoomHashCodec roomHashCodec;
     private final long roomTtlSeconds;
 
     public GameStateRepository(RedisTemplate<String, GameState> redisTemplate,
+                               RoomHashCodec roomHashCodec,
                                @Value("${game.engine.room-ttl-seconds:300}") long roomTtlSeconds) {
         this.redisTemplate = redisTemplate;
+        this.roomHashCodec = roomHashCodec;
         this.roomTtlSeconds = roomTtlSeconds;
     }
 
@@ -38,12 +63,35 @@ public class GameStateRepository {
      * @return GameState or null if not found
      */
     public GameState getGameState(String roomId) {
-        String key = ROOM_KEY_PREFIX + roomId;
+        return getGameState(roomId, new RoomFields());
+    }
+
+    /**
+     * Gets the game state for a room and records the fields read, so that the next
+     * {@link #saveGameState} of the room only writes what changed since.
+     *
+     * @param roomId Room identifier
+     * @param stored Filled with the room's fields; cleared if the room is not found
+     * @return GameState or null if not found
+     */
+    public GameState getGameState(String roomId, RoomFields stored) {
+        byte[] key = RedisSerializer.string().serialize(ROOM_KEY_PREFIX + roomId);
+        EngineEvents.RedisLoad event = new EngineEvents.RedisLoad();
+        event.begin();
         try {
-            GameState state = redisTemplate.opsForValue().get(key);
+            Map<byte[], byte[]> raw = redisTemplate.execute(
+                    (RedisCallback<Map<byte[], byte[]>>) connection -> connection.hashCommands().hGetAll(key));
+            GameState state = roomHashCodec.decode(RoomHashCodec.fromStored(raw));
+            if (event.isEnabled()) {
+                event.bytes = byteCount(raw);
+            }
+            EngineEvents.commit(event, roomId, state);
             if (state == null) {
                 logger.debug("No game state found for room: {}", roomId);
+                stored.clear();
+                return null;
             }
+            stored.replace(roomHashCodec.encode(state), state.getVersion());
             return state;
         } catch (Exception e) {
             logger.error("Error getting game state for room: {}", roomId, e);
@@ -52,38 +100,200 @@ public class GameStateRepository {
     }
 
     /**
-     * Saves the game state for a room.
-     * Sets TTL if room is empty, otherwise extends TTL.
+     * Reads a room's player count, version and last update without loading its state.
+     *
+     * @param roomId Room identifier
+     * @return the summary, or null if the room does not exist
+     */
+    public RoomSummary getRoomSummary(String roomId) {
+        return getRoomSummaries(List.of(roomId)).get(roomId);
+    }
+
+    /**
+     * Reads the summaries of several rooms in one pipelined round trip, for lobby and
+     * matchmaking listings.
+     *
+     * @param roomIds Room identifiers
+     * @return summaries by room, without rooms that do not exist
+     */
+    public Map<String, RoomSummary> getRoomSummaries(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Map.of();
+        }
+        RedisSerializer<String> strings = RedisSerializer.string();
+        byte[][] fields = RoomSummary.FIELDS.stream().map(strings::serialize).toArray(byte[][]::new);
+        List<String> ids = new ArrayList<>(roomIds);
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String roomId : ids) {
+                    connection.hashCommands().hMGet(strings.serialize(ROOM_KEY_PREFIX + roomId), fields);
+                }
+                return null;
+            }, strings);
+            Map<String, RoomSummary> summaries = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                @SuppressWarnings("unchecked")
+                RoomSummary summary = RoomSummary.decode(ids.get(i), (List<String>) results.get(i));
+                if (summary != null) {
+                    summaries.put(ids.get(i), summary);
+                }
+            }
+            return summaries;
+        } catch (Exception e) {
+            logger.error("Error reading summaries of {} rooms", ids.size(), e);
+            throw new RuntimeException("Failed to read room summaries", e);
+        }
+    }
+
+    /**
+     * Claims a room for this instance before its state is loaded. Returns a fencing token
+     * higher than any issued before, so saves from a previous owner that still holds the
+     * room (for example, during a partition rebalance) are rejected from now on.
+     *
+     * @param roomId Room identifier
+     * @return fencing token to pass to {@link #saveGameState}
+     */
+    public long claimRoom(String roomId) {
+        try {
+            Long fence = redisTemplate.execute(CLAIM_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT,
+                    List.of(ROOM_KEY_PREFIX + roomId),
+                    RedisSerializer.string().serialize(Long.toString(roomTtlSeconds)));
+            if (fence == null) {
+                throw new IllegalStateException("Claim script returned no fencing token");
+            }
+            logger.debug("Claimed room: {} with fencing token {}", roomId, fence);
+            return fence;
+        } catch (Exception e) {
+            logger.error("Error claiming room: {}", roomId, e);
+            throw new RuntimeException("Failed to claim room", e);
+        }
+    }
+
+    /**
+     * Saves the game state of a room held in memory, in one round trip and only if it is
+     * safe: the stored version must be older than the state's and the fencing token must
+     * be the one from this instance's {@link #claimRoom}. Otherwise nothing is written
+     * and the caller no longer holds an up-to-date copy of the room.
+     *
+     * Only fields whose encoding differs from {@code stored} are sent, so a move writes
+     * one player field rather than the whole room; such a save only applies if Redis still
+     * holds the version {@code stored} was taken from. With a Redis dictionary configured,
+     * the JSON fields are compressed as they are sent; {@code stored} keeps them
+     * uncompressed. With nothing stored, or if Redis has lost the room since, the room is
+     * written in full.
+     *
+     * TTLs of held rooms are refreshed in batches by {@link #refreshTtl}, so the TTL is
+     * only reset when asked (first save of a room) or on a full write; other saves keep it.
      *
      * @param roomId Room identifier
      * @param gameState Game state to save
+     * @param fence Fencing token of the writer
+     * @param refreshTtl true to also reset the TTL
+     * @param stored Fields last read or written; updated when the save succeeds
+     * @return outcome of the conditional write
      */
-    public void saveGameState(String roomId, GameState gameState) {
-        String key = ROOM_KEY_PREFIX + roomId;
+    public SaveResult saveGameState(String roomId, GameState gameState, long fence, boolean refreshTtl,
+                                    RoomFields stored) {
+        EngineEvents.RedisSave event = new EngineEvents.RedisSave();
+        event.begin();
         try {
-            // Save the state
-            redisTemplate.opsForValue().set(key, gameState);
-            
-            // Set or extend TTL
-            // If room is empty, set TTL for cleanup
-            // If room has players, extend TTL
-            if (gameState.isEmpty()) {
-                redisTemplate.expire(key, roomTtlSeconds, TimeUnit.SECONDS);
-                logger.debug("Set TTL {} seconds for empty room: {}", roomTtlSeconds, roomId);
-            } else {
-                // Extend TTL for active rooms
-                redisTemplate.expire(key, roomTtlSeconds, TimeUnit.SECONDS);
+            Map<String, byte[]> fields = roomHashCodec.encode(gameState);
+            boolean full = stored.isEmpty();
+            Long status = writeFields(roomId, gameState, fence, refreshTtl, full, fields, stored, event);
+            if (!full && status != null && status == STATUS_RESEND_FULL) {
+                logger.info("Room: {} expired from Redis while held; writing it in full", roomId);
+                full = true;
+                status = writeFields(roomId, gameState, fence, true, true, fields, stored, event);
             }
-            
-            logger.debug("Saved game state for room: {} (players: {}, bullets: {}, version: {})",
-                    roomId, gameState.getPlayerCount(), gameState.getBulletCount(), gameState.getVersion());
-            
+            SaveResult result = SaveResult.fromStatus(status);
+            event.full = full;
+            event.result = result.name();
+            EngineEvents.commit(event, roomId, gameState);
+            if (result == SaveResult.SAVED) {
+                stored.replace(fields, gameState.getVersion());
+            }
+
+            logger.debug("Saved game state for room: {} (players: {}, bullets: {}, version: {}, fence: {}, full: {}) -> {}",
+                    roomId, gameState.getPlayerCount(), gameState.getBulletCount(), gameState.getVersion(),
+                    fence, full, result);
+            return result;
         } catch (Exception e) {
             logger.error("Error saving game state for room: {}", roomId, e);
             throw new RuntimeException("Failed to save game state", e);
         }
     }
 
+    private Long writeFields(String roomId, GameState gameState, long fence, boolean refreshTtl, boolean full,
+                             Map<String, byte[]> fields, RoomFields stored, EngineEvents.RedisSave event) {
+        // A full write replaces the key, so it always sets the TTL again
+        List<byte[]> args = saveArgs(roomHashCodec, gameState, fence, refreshTtl || full ? roomTtlSeconds : 0,
+                full, fields, stored);
+        if (event.isEnabled()) {
+            event.bytes += byteCount(args);
+        }
+        return redisTemplate.execute(SAVE_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT,
+                List.of(ROOM_KEY_PREFIX + roomId), args.toArray());
+    }
+
+    /**
+     * Builds the arguments of save-room-state.lua: every field for a full write, otherwise
+     * only those that differ from {@code stored}.
+     */
+    static List<byte[]> saveArgs(RoomHashCodec codec, GameState gameState, long fence, long ttlSeconds,
+                                 boolean full, Map<String, byte[]> fields, RoomFields stored) {
+        RedisSerializer<String> strings = RedisSerializer.string();
+        List<byte[]> deleted = new ArrayList<>();
+        List<byte[]> changed = new ArrayList<>();
+        if (!full) {
+            for (String field : stored.fields.keySet()) {
+                if (!fields.containsKey(field)) {
+                    deleted.add(strings.serialize(field));
+                }
+            }
+        }
+        fields.forEach((field, value) -> {
+            if (full || !Arrays.equals(stored.fields.get(field), value)) {
+                changed.add(strings.serialize(field));
+                changed.add(codec.toStored(field, value));
+            }
+        });
+
+        List<byte[]> args = new ArrayList<>(6 + deleted.size() + changed.size());
+        args.add(strings.serialize(Long.toString(gameState.getVersion())));
+        args.add(strings.serialize(Long.toString(fence)));
+        args.add(strings.serialize(Long.toString(ttlSeconds)));
+        args.add(strings.serialize(full ? "1" : "0"));
+        args.add(strings.serialize(Long.toString(stored.version)));
+        args.add(strings.serialize(Integer.toString(deleted.size())));
+        args.addAll(deleted);
+        args.addAll(changed);
+        return args;
+    }
+
+    /**
+     * Resets the TTL of several rooms in one pipelined round trip.
+     *
+     * @param roomIds Room identifiers
+     */
+    public void refreshTtl(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        RedisSerializer<String> strings = RedisSerializer.string();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String roomId : roomIds) {
+                    connection.keyCommands().expire(strings.serialize(ROOM_KEY_PREFIX + roomId), roomTtlSeconds);
+                }
+                return null;
+            });
+            logger.debug("Refreshed TTL for {} rooms", roomIds.size());
+        } catch (Exception e) {
+            logger.error("Error refreshing TTL for {} rooms", roomIds.size(), e);
+            throw new RuntimeException("Failed to refresh room TTL", e);
+        }
+    }
+
     /**
      * Deletes the game state for a room.
      *
@@ -109,12 +319,113 @@ public class GameStateRepository {
     public boolean roomExists(String roomId) {
         String key = ROOM_KEY_PREFIX + roomId;
         try {
-            return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+            // A claimed room that was never saved has a fencing token but no version; a
+            // hibernated one keeps its version next to the fencing token
+            return Boolean.TRUE.equals(redisTemplate.opsForHash().hasKey(key, RoomSummary.VERSION_FIELD));
         } catch (Exception e) {
             logger.error("Error checking if room exists: {}", roomId, e);
             return false;
         }
     }
-}
 
+    /**
+     * Hands a room over to another player-events partition.
+     *
+     * Must be called by the consumer thread that owns the room's current partition, after
+     * its last event for the room has been saved. In one MULTI/EXEC it points the directory
+     * at the new partition with a bumped epoch, clears the pending move, bumps the room's
+     * fencing token so no later save from this instance lands, and refreshes the state TTL
+     * so the new owner finds the state. From then on the old owner forwards the
+     * room's events instead of applying them, so no input is applied twice or dropped.
+     *
+     * @param roomId Room identifier
+     * @param current Current committed route, or null if the room follows the key hash
+     * @param fromPartition Partition this consumer owns
+     * @param toPartition Partition taking over the room
+     * @return the committed route
+     */
+    public RoomRoute handOffRoom(String roomId, RoomRoute current, int fromPartition, int toPartition) {
+        RoomRoute next = current != null ? current.moveTo(toPartition) : new RoomRoute(toPartition, 1);
+        RedisSerializer<String> strings = RedisSerializer.string();
+        byte[] stateKey = strings.serialize(ROOM_KEY_PREFIX + roomId);
+        byte[] directoryKey = strings.serialize(RoomRoute.DIRECTORY_KEY);
+        byte[] pendingKey = strings.serialize(RoomRoute.PENDING_KEY);
+        byte[] field = strings.serialize(roomId);
+        byte[] value = strings.serialize(next.encode());
+        try {
+            List<Object> results = redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+                connection.multi();
+                connection.hashCommands().hSet(directoryKey, field, value);
+                connection.hashCommands().hDel(pendingKey, field);
+                connection.hashCommands().hIncrBy(stateKey, FENCE_FIELD, 1);
+                connection.keyCommands().expire(stateKey, roomTtlSeconds);
+                return connection.exec();
+            });
+            if (results == null || results.isEmpty()) {
+                throw new IllegalStateException("Handoff transaction was discarded");
+            }
+            logger.info("Handed off room {} from partition {} to {} (epoch {})",
+                    roomId, fromPartition, toPartition, next.getEpoch());
+            return next;
+        } catch (Exception e) {
+            logger.error("Error handing off room: {} to partition {}", roomId, toPartition, e);
+            throw new RuntimeException("Failed to hand off room", e);
+        }
+    }
+
+    /**
+     * @return total size of the values, for the JFR events
+     */
+    static long byteCount(Collection<byte[]> values) {
+        long bytes = 0;
+        for (byte[] value : values) {
+            bytes += value.length;
+        }
+        return bytes;
+    }
+
+    static long byteCount(Map<byte[], byte[]> fields) {
+        if (fields == null) {
+            return 0;
+        }
+        return byteCount(fields.keySet()) + byteCount(fields.values());
+    }
+
+    /**
+     * Loads a Lua script from the classpath that returns an integer.
+     */
+    public static RedisScript<Long> loadScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Outcome of a conditional save.
+     */
+    public enum SaveResult {
+        /** State written */
+        SAVED,
+        /** Redis already holds this version or a newer one */
+        STALE,
+        /** Another instance has claimed the room since this writer did */
+        FENCED;
 
+        static SaveResult fromStatus(Long status) {
+            if (status == null) {
+                throw new IllegalStateException("Save script returned no status");
+            }
+            switch (status.intValue()) {
+                case 1:
+                    return SAVED;
+                case 0:
+                    return STALE;
+                case -1:
+                    return FENCED;
+                default:
+                    throw new IllegalStateException("Unexpected save script status " + status);
+            }
+        }
+    }
+}
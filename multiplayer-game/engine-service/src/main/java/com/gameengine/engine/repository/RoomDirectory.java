@@ -0,0 +1,138 @@
+package com.gameengine.engine.repository;
+
+import com.gameengine.protocol.RoomRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Room-to-partition ownership directory in Redis, with a local copy for the hot path.
+ *
+ * The local copy is refreshed by the rebalancer and whenever partitions are assigned to
+ * this instance. Committed routes only change through
+ * {@link GameStateRepository#handOffRoom}, which runs on the consumer thread that owns
+ * the room's current partition, so that thread's view of its own rooms is always exact.
+ * Other threads re-read a route from Redis before acting on a mismatch.
+ */
+@Repository
+public class RoomDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomDirectory.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, RoomRoute> routes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> pendingMoves = new ConcurrentHashMap<>();
+
+    public RoomDirectory(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Reloads committed routes and pending moves from Redis.
+     */
+    public void refresh() {
+        try {
+            Map<String, RoomRoute> loadedRoutes = new HashMap<>();
+            redisTemplate.<String, String>opsForHash().entries(RoomRoute.DIRECTORY_KEY).forEach((roomId, value) -> {
+                RoomRoute route = RoomRoute.decode(value);
+                if (route != null) {
+                    loadedRoutes.put(roomId, route);
+                }
+            });
+            Map<String, Integer> loadedMoves = new HashMap<>();
+            redisTemplate.<String, String>opsForHash().entries(RoomRoute.PENDING_KEY).forEach((roomId, value) -> {
+                RoomRoute target = RoomRoute.decode(value);
+                if (target != null) {
+                    loadedMoves.put(roomId, target.getPartition());
+                }
+            });
+
+            loadedRoutes.forEach(this::updateLocal);
+            routes.keySet().retainAll(loadedRoutes.keySet());
+            pendingMoves.keySet().retainAll(loadedMoves.keySet());
+            pendingMoves.putAll(loadedMoves);
+            logger.debug("Refreshed room directory: {} routes, {} pending moves", routes.size(), pendingMoves.size());
+        } catch (Exception e) {
+            logger.error("Error refreshing room directory", e);
+        }
+    }
+
+    /**
+     * @return the locally known route for a room, or null if it follows the key hash
+     */
+    public RoomRoute routeFor(String roomId) {
+        return routes.get(roomId);
+    }
+
+    /**
+     * Reads a single route from Redis and updates the local copy.
+     *
+     * @return the committed route, or null if the room follows the key hash
+     */
+    public RoomRoute reload(String roomId) {
+        try {
+            String value = redisTemplate.<String, String>opsForHash().get(RoomRoute.DIRECTORY_KEY, roomId);
+            RoomRoute route = RoomRoute.decode(value);
+            if (route == null) {
+                routes.remove(roomId);
+            } else {
+                updateLocal(roomId, route);
+            }
+            return route;
+        } catch (Exception e) {
+            logger.error("Error reading room route for room: {}", roomId, e);
+            throw new RuntimeException("Failed to read room route", e);
+        }
+    }
+
+    /**
+     * @return the partition a room has been asked to move to, or null
+     */
+    public Integer pendingMoveFor(String roomId) {
+        return pendingMoves.get(roomId);
+    }
+
+    /**
+     * Records a move request. The handoff itself happens when the current owner next
+     * processes an event for the room.
+     */
+    public void requestMove(String roomId, int targetPartition) {
+        redisTemplate.opsForHash().put(RoomRoute.PENDING_KEY, roomId, Integer.toString(targetPartition));
+        pendingMoves.put(roomId, targetPartition);
+        logger.info("Requested move of room {} to partition {}", roomId, targetPartition);
+    }
+
+    /**
+     * Records a committed handoff in the local copy, keeping the newest epoch.
+     */
+    public void updateLocal(String roomId, RoomRoute route) {
+        routes.merge(roomId, route, (current, next) -> next.getEpoch() >= current.getEpoch() ? next : current);
+        Integer pending = pendingMoves.get(roomId);
+        if (pending != null && pending == route.getPartition()) {
+            pendingMoves.remove(roomId);
+        }
+    }
+
+    /**
+     * @return committed routes as last loaded from Redis
+     */
+    public Map<String, RoomRoute> snapshot() {
+        return Map.copyOf(routes);
+    }
+
+    /**
+     * Drops directory entries for rooms whose state no longer exists.
+     */
+    public void remove(String roomId) {
+        redisTemplate.opsForHash().delete(RoomRoute.DIRECTORY_KEY, roomId);
+        redisTemplate.opsForHash().delete(RoomRoute.PENDING_KEY, roomId);
+        routes.remove(roomId);
+        pendingMoves.remove(roomId);
+        logger.info("Removed room directory entry for room: {}", roomId);
+    }
+}
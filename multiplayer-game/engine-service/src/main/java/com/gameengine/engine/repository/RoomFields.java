@@ -0,0 +1,35 @@
+package com.gameengine.engine.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash fields of a room as last read from or written to Redis by this instance.
+ *
+ * Kept alongside a held room so that a save only sends the fields whose encoding changed
+ * (see {@link GameStateRepository#saveGameState}). An empty set means Redis is not known
+ * to hold the room and the next save writes it in full. Guarded by the room lock.
+ */
+public final class RoomFields {
+
+    final Map<String, byte[]> fields = new HashMap<>();
+    // Version the fields belong to; an in-place save only applies on top of it
+    long version;
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * Forgets the stored fields so the next save writes the whole room.
+     */
+    public void clear() {
+        fields.clear();
+    }
+
+    void replace(Map<String, byte[]> written, long writtenVersion) {
+        fields.clear();
+        fields.putAll(written);
+        version = writtenVersion;
+    }
+}
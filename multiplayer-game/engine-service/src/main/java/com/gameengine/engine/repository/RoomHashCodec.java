@@ -0,0 +1,163 @@
+package com.gameengine.engine.repository;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gameengine.engine.model.Bullet;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.Player;
+import com.gameengine.protocol.DictionaryCompressor;
+import com.gameengine.protocol.RoomSummary;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps a {@link GameState} to and from the fields of its Redis hash.
+ *
+ * Layout of "room:&lt;roomId&gt;":
+ *   state              roomId, world size and physics mode (JSON), rarely changes
+ *   players            player count      } see {@link RoomSummary}
+ *   lastUpdated        game time         }
+ *   version, fence     written by the save script, not by this codec
+ *   bullets            all bullets (JSON), rewritten whenever any bullet moves
+ *   player:&lt;playerId&gt;  one player (JSON)
+ *
+ * With a compressor, the JSON fields are stored compressed; {@link #encode} and
+ * {@link #decode} always work on the uncompressed values.
+ */
+public class RoomHashCodec {
+
+    static final String STATE_FIELD = "state";
+    static final String BULLETS_FIELD = "bullets";
+    static final String PLAYER_FIELD_PREFIX = "player:";
+
+    private final ObjectMapper objectMapper;
+    private final JavaType bulletListType;
+    private final DictionaryCompressor compressor;
+
+    public RoomHashCodec(ObjectMapper objectMapper) {
+        this(objectMapper, null);
+    }
+
+    /**
+     * @param compressor Compresses JSON fields as they are written, or null to store them plain
+     */
+    public RoomHashCodec(ObjectMapper objectMapper, DictionaryCompressor compressor) {
+        this.objectMapper = objectMapper;
+        this.bulletListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Bullet.class);
+        this.compressor = compressor;
+    }
+
+    /**
+     * @return every codec-owned field of the state, keyed by field name
+     */
+    public Map<String, byte[]> encode(GameState state) {
+        try {
+            Map<String, byte[]> fields = new LinkedHashMap<>();
+            fields.put(STATE_FIELD, objectMapper.writeValueAsBytes(
+                    new Header(state.getRoomId(), state.getWorldWidth(), state.getWorldHeight(), state.isFixedPoint())));
+            fields.put(RoomSummary.PLAYERS_FIELD, ascii(state.getPlayerCount()));
+            fields.put(RoomSummary.LAST_UPDATED_FIELD, ascii(state.getTimestamp()));
+            fields.put(BULLETS_FIELD, objectMapper.writerFor(bulletListType).writeValueAsBytes(state.getBullets()));
+            for (Player player : state.playerIndex()) {
+                fields.put(PLAYER_FIELD_PREFIX + player.getPlayerId(), objectMapper.writeValueAsBytes(player));
+            }
+            return fields;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode room " + state.getRoomId(), e);
+        }
+    }
+
+    /**
+     * @param fields All fields of the hash, as returned by HGETALL
+     * @return the decoded state, or null if the hash holds no room state
+     */
+    public GameState decode(Map<String, byte[]> fields) {
+        byte[] rawHeader = fields.get(STATE_FIELD);
+        if (rawHeader == null) {
+            return null;
+        }
+        try {
+            Header header = objectMapper.readValue(rawHeader, Header.class);
+            GameState state = new GameState(header.roomId);
+            state.setWorldWidth(header.worldWidth);
+            state.setWorldHeight(header.worldHeight);
+            state.setFixedPoint(header.fixedPoint);
+            state.setVersion(parseLong(fields.get(RoomSummary.VERSION_FIELD)));
+            state.setTimestamp(parseLong(fields.get(RoomSummary.LAST_UPDATED_FIELD)));
+
+            byte[] rawBullets = fields.get(BULLETS_FIELD);
+            List<Bullet> bullets = rawBullets != null ? objectMapper.readValue(rawBullets, bulletListType) : null;
+            state.setBullets(bullets != null ? new ArrayList<>(bullets) : new ArrayList<>());
+
+            Map<String, Player> players = new HashMap<>();
+            for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+                if (field.getKey().startsWith(PLAYER_FIELD_PREFIX)) {
+                    Player player = objectMapper.readValue(field.getValue(), Player.class);
+                    players.put(player.getPlayerId(), player);
+                }
+            }
+            state.setPlayers(players);
+            return state;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decode room hash", e);
+        }
+    }
+
+    /**
+     * @return the value as written to Redis
+     */
+    byte[] toStored(String field, byte[] value) {
+        // Summary fields stay plain decimal for HMGET readers and the save script
+        return compressor != null && !RoomSummary.FIELDS.contains(field) ? compressor.compress(value) : value;
+    }
+
+    /**
+     * Compressed fields are always readable, whatever this codec writes.
+     *
+     * @param raw All fields of the hash, as returned by HGETALL
+     * @return the fields by name, uncompressed
+     */
+    static Map<String, byte[]> fromStored(Map<byte[], byte[]> raw) {
+        Map<String, byte[]> fields = new HashMap<>();
+        if (raw != null) {
+            raw.forEach((field, value) -> fields.put(new String(field, StandardCharsets.UTF_8),
+                    DictionaryCompressor.decompressIfNeeded(value)));
+        }
+        return fields;
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static long parseLong(byte[] value) {
+        return value != null ? Long.parseLong(new String(value, StandardCharsets.US_ASCII)) : 0;
+    }
+
+    /**
+     * Room fields that do not change during play.
+     */
+    static final class Header {
+        String roomId;
+        double worldWidth;
+        double worldHeight;
+        // Absent from rooms stored before fixed-point physics, which are all double precision
+        boolean fixedPoint;
+
+        Header() {
+        }
+
+        Header(String roomId, double worldWidth, double worldHeight, boolean fixedPoint) {
+            this.roomId = roomId;
+            this.worldWidth = worldWidth;
+            this.worldHeight = worldHeight;
+            this.fixedPoint = fixedPoint;
+        }
+    }
+}
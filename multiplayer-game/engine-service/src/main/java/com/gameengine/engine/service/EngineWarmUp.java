@@ -0,0 +1,209 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.config.InputBatchWireDeserializer;
+import com.gameengine.engine.config.StateUpdateSerializer;
+import com.gameengine.engine.logic.GameLogic;
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.StateUpdate;
+import com.gameengine.engine.repository.RoomHashCodec;
+import com.gameengine.protocol.InputBatch;
+import com.gameengine.protocol.InputBatchCodec;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.Velocity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Runs synthetic rooms through the engine's hot paths before it takes traffic, so the
+ * first rooms after a deploy run JIT-compiled code rather than the interpreter.
+ *
+ * Each round plays a few rooms of bots: their input batches are encoded and decoded as
+ * on player-events, applied through {@link GameLogic} and its physics tick in both
+ * physics modes, round-tripped through the Redis hash codec and encoded as state
+ * updates. Nothing is sent to Redis or Kafka. Rounds repeat until the JIT compiles less
+ * than game.engine.warmup.stable-compile-ms per round for
+ * game.engine.warmup.stable-rounds rounds in a row, or until
+ * game.engine.warmup.max-duration-ms has passed.
+ *
+ * Started as a lifecycle phase after the web server and before the Kafka listener
+ * containers. No partition is consumed and readiness reports REFUSING_TRAFFIC until it is
+ * done. With game.engine.warmup.exit-when-done the JVM exits once started, for a
+ * class-data-sharing training run.
+ */
+@Component
+public class EngineWarmUp implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngineWarmUp.class);
+    private static final String TOPIC = "warmup";
+    private static final int PLAYERS_PER_ROOM = 8;
+
+    private final GameLogic gameLogic;
+    private final RoomHashCodec roomHashCodec;
+    private final StateUpdateSerializer stateUpdateSerializer = new StateUpdateSerializer();
+    private final InputBatchWireDeserializer inputBatchDeserializer = new InputBatchWireDeserializer();
+    private final boolean enabled;
+    private final long maxDurationMs;
+    private final int roomsPerRound;
+    private final int eventsPerRoom;
+    private final int stableRounds;
+    private final long stableCompileMs;
+    private final int splitThreshold;
+    private final boolean exitWhenDone;
+    private volatile boolean running;
+    // Keeps the results observable so the JIT cannot drop the work
+    private long sink;
+
+    public EngineWarmUp(GameLogic gameLogic,
+                        RoomHashCodec roomHashCodec,
+                        @Value("${game.engine.warmup.enabled:true}") boolean enabled,
+                        @Value("${game.engine.warmup.max-duration-ms:20000}") long maxDurationMs,
+                        @Value("${game.engine.warmup.rooms-per-round:8}") int roomsPerRound,
+                        @Value("${game.engine.warmup.events-per-room:100}") int eventsPerRoom,
+                        @Value("${game.engine.warmup.stable-rounds:5}") int stableRounds,
+                        @Value("${game.engine.warmup.stable-compile-ms:10}") long stableCompileMs,
+                        @Value("${game.engine.warmup.exit-when-done:false}") boolean exitWhenDone,
+                        @Value("${game.engine.tick.split-threshold:256}") int splitThreshold,
+                        @Value("${game.engine.compression.kafka-dictionary-id:0}") int dictionaryId,
+                        @Value("${game.engine.compression.level:3}") int compressionLevel) {
+        this.gameLogic = gameLogic;
+        this.roomHashCodec = roomHashCodec;
+        this.enabled = enabled;
+        this.maxDurationMs = maxDurationMs;
+        this.roomsPerRound = roomsPerRound;
+        this.eventsPerRoom = eventsPerRoom;
+        this.stableRounds = stableRounds;
+        this.stableCompileMs = stableCompileMs;
+        this.exitWhenDone = exitWhenDone;
+        this.splitThreshold = splitThreshold;
+        // Same settings as the producer, so the same compressor code gets compiled
+        stateUpdateSerializer.configure(Map.of(
+                StateUpdateSerializer.DICTIONARY_ID_CONFIG, dictionaryId,
+                StateUpdateSerializer.LEVEL_CONFIG, compressionLevel), false);
+        inputBatchDeserializer.configure(Map.of(), false);
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            try {
+                warmUp();
+            } catch (RuntimeException e) {
+                // A cold engine is slower, not broken
+                logger.warn("Warm-up failed; taking traffic without it", e);
+            }
+        }
+        running = true;
+    }
+
+    /**
+     * Ends a training run once startup has completed; exiting from {@link #start} would
+     * deadlock with the context refresh it runs in.
+     */
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (exitWhenDone) {
+            logger.info("Warm-up done; exiting as requested by game.engine.warmup.exit-when-done");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    private void warmUp() {
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean timed = jit != null && jit.isCompilationTimeMonitoringSupported();
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + maxDurationMs * 1_000_000;
+        long compiledMs = timed ? jit.getTotalCompilationTime() : 0;
+        int rounds = 0;
+        int stable = 0;
+        // Without compilation timing, run for the full duration
+        while (stable < stableRounds && System.nanoTime() < deadline) {
+            runRound(rounds++);
+            if (timed) {
+                long nowMs = jit.getTotalCompilationTime();
+                logger.debug("Warm-up round {}: {} ms compiling", rounds, nowMs - compiledMs);
+                stable = nowMs - compiledMs < stableCompileMs ? stable + 1 : 0;
+                compiledMs = nowMs;
+            }
+        }
+        logger.info("Warm-up ran {} rounds in {} ms; {} (checksum {})",
+                rounds, (System.nanoTime() - startNanos) / 1_000_000,
+                stable >= stableRounds ? "compilation settled" : "time limit reached", sink);
+    }
+
+    private void runRound(int round) {
+        SplittableRandom random = new SplittableRandom(round);
+        for (int r = 0; r < roomsPerRound; r++) {
+            String roomId = "warmup-" + r;
+            List<PlayerEvent> events = new ArrayList<>(eventsPerRoom);
+            for (int i = 0; i < eventsPerRoom; i++) {
+                events.add(syntheticEvent(roomId, i, random));
+            }
+            InputBatch batch = inputBatchDeserializer.deserialize(TOPIC,
+                    InputBatchCodec.toBytes(new InputBatch(roomId, events)));
+
+            // Every other room runs fixed-point physics
+            GameState state = new GameState(roomId);
+            state.setFixedPoint(r % 2 == 1);
+            int i = 0;
+            for (PlayerEvent event : batch.getEvents()) {
+                // Both apply paths, as with the tick scheduler on and off
+                if (i++ % 2 == 0) {
+                    state = gameLogic.apply(state, event);
+                } else {
+                    state = gameLogic.applyAction(state, event);
+                    gameLogic.tick(state, splitThreshold);
+                }
+                GameState stored = roomHashCodec.decode(roomHashCodec.encode(state));
+                StateUpdate update = new StateUpdate(roomId, state);
+                update.setFullUpdate(true);
+                sink += stored.getPlayerCount() + stateUpdateSerializer.serialize(TOPIC, update).length;
+            }
+        }
+    }
+
+    private static PlayerEvent syntheticEvent(String roomId, int index, SplittableRandom random) {
+        String playerId = "bot-" + random.nextInt(PLAYERS_PER_ROOM);
+        PlayerEvent.ActionType action = index % 10 == 9 ? PlayerEvent.ActionType.JUMP
+                : index % 4 == 3 ? PlayerEvent.ActionType.SHOOT
+                : PlayerEvent.ActionType.MOVE;
+        PlayerEvent event = new PlayerEvent(playerId, roomId, action,
+                new Position(random.nextDouble(50, 750), random.nextDouble(50, 550)),
+                new Velocity(random.nextDouble(-5, 5), random.nextDouble(-5, 5)));
+        event.setTimestamp(System.currentTimeMillis());
+        return event;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * After the web server, so probes can report the engine as not ready yet; before the
+     * Kafka listener containers, so nothing is consumed until the warm-up is done.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+}
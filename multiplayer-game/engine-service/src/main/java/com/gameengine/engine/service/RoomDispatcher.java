@@ -0,0 +1,122 @@
+package com.gameengine.engine.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs the rooms of a consumer batch in parallel, each room's work in order, so the batch
+ * takes as long as its slowest room rather than the sum of them. A room stuck on a slow
+ * Redis call then only holds up itself.
+ *
+ * Shared by all consumer threads: a fixed pool of game.engine.dispatch.parallelism
+ * threads with a bounded queue. When the queue is full the submitting consumer thread
+ * runs the room itself, which slows its polling instead of queueing without limit. The
+ * calling thread always takes the first room of its batch, and a batch of one room is
+ * not handed off at all.
+ */
+@Service
+public class RoomDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomDispatcher.class);
+
+    private final ThreadPoolExecutor executor;
+    private final DistributionSummary roomsPerBatch;
+    private final Counter callerRuns;
+
+    public RoomDispatcher(MeterRegistry meterRegistry,
+                          @Value("${game.engine.dispatch.parallelism:16}") int parallelism,
+                          @Value("${game.engine.dispatch.queue-capacity:1024}") int queueCapacity) {
+        this.roomsPerBatch = DistributionSummary.builder("engine.dispatch.rooms")
+                .description("Rooms in a consumer batch, run in parallel")
+                .register(meterRegistry);
+        this.callerRuns = Counter.builder("engine.dispatch.caller-runs")
+                .description("Rooms run on the consumer thread because the dispatch queue was full")
+                .register(meterRegistry);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "room-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    // Also after shutdown, so a batch in progress still completes
+                    callerRuns.increment();
+                    task.run();
+                });
+        meterRegistry.gauge("engine.dispatch.queued", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Runs the work of every room and returns once all of it has finished.
+     *
+     * @param byRoom Items to process, by room, each room's in order
+     * @param work Processes one room's items; called once per room, on any thread
+     * @throws RuntimeException if the work of any room threw, after all rooms finished
+     */
+    public <T> void dispatch(Map<String, List<T>> byRoom, BiConsumer<String, List<T>> work) {
+        roomsPerBatch.record(byRoom.size());
+        Iterator<Map.Entry<String, List<T>>> rooms = byRoom.entrySet().iterator();
+        if (!rooms.hasNext()) {
+            return;
+        }
+        Map.Entry<String, List<T>> first = rooms.next();
+        List<CompletableFuture<Void>> others = new ArrayList<>(byRoom.size() - 1);
+        while (rooms.hasNext()) {
+            Map.Entry<String, List<T>> room = rooms.next();
+            others.add(CompletableFuture.runAsync(() -> work.accept(room.getKey(), room.getValue()), executor));
+        }
+
+        RuntimeException failure = null;
+        try {
+            work.accept(first.getKey(), first.getValue());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<Void> room : others) {
+            try {
+                room.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = new RuntimeException("Room dispatch failed", e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Room dispatch did not finish within 5 s of shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
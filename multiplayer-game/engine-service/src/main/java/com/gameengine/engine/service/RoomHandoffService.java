@@ -0,0 +1,106 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.repository.GameStateRepository;
+import com.gameengine.engine.repository.RoomDirectory;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.RoomRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether this consumer owns a room and performs pending handoffs.
+ *
+ * A room is owned by the partition in its directory entry, or by whatever partition
+ * its events arrive on if it has none. Events that arrive on a partition that no longer
+ * owns the room (sent before the gateway saw the new route) are re-published to the
+ * owner's partition instead of being applied.
+ */
+@Service
+public class RoomHandoffService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomHandoffService.class);
+
+    private final RoomDirectory roomDirectory;
+    private final GameStateRepository gameStateRepository;
+    private final RoomStateCache roomStateCache;
+    private final KafkaTemplate<String, PlayerEvent> kafkaTemplate;
+    private final String playerEventsTopic;
+    private final long forwardTimeoutMs;
+
+    public RoomHandoffService(RoomDirectory roomDirectory,
+                              GameStateRepository gameStateRepository,
+                              RoomStateCache roomStateCache,
+                              @Qualifier("playerEventForwardKafkaTemplate")
+                              KafkaTemplate<String, PlayerEvent> playerEventForwardKafkaTemplate,
+                              @Value("${spring.kafka.topics.player-events}") String playerEventsTopic,
+                              @Value("${game.engine.rebalance.forward-timeout-ms:5000}") long forwardTimeoutMs) {
+        this.roomDirectory = roomDirectory;
+        this.gameStateRepository = gameStateRepository;
+        this.roomStateCache = roomStateCache;
+        this.kafkaTemplate = playerEventForwardKafkaTemplate;
+        this.playerEventsTopic = playerEventsTopic;
+        this.forwardTimeoutMs = forwardTimeoutMs;
+    }
+
+    /**
+     * Hands off or forwards the event if this partition does not own its room.
+     *
+     * @param event Player event
+     * @param partition Partition the event arrived on
+     * @return true if the event was forwarded and must not be applied here
+     */
+    public boolean routeAway(PlayerEvent event, int partition) {
+        String roomId = event.getRoomId();
+        RoomRoute route = roomDirectory.routeFor(roomId);
+
+        if (route != null && route.getPartition() != partition) {
+            // Local copy may be stale on this thread; Redis is authoritative
+            route = roomDirectory.reload(roomId);
+            if (route != null && route.getPartition() != partition) {
+                roomStateCache.evict(roomId);
+                forward(event, route.getPartition());
+                return true;
+            }
+        }
+
+        Integer target = roomDirectory.pendingMoveFor(roomId);
+        if (target != null && target != partition) {
+            // This thread owns the room and has saved every earlier event for it;
+            // holding the room lock keeps a concurrent tick from saving after the handoff
+            RoomStateCache.Room room = roomStateCache.lock(roomId, partition);
+            try {
+                // The fence bump below must not overtake a save still in flight
+                roomStateCache.awaitSave(room);
+                RoomRoute next = gameStateRepository.handOffRoom(roomId, route, partition, target);
+                roomDirectory.updateLocal(roomId, next);
+                roomStateCache.evictLocked(room);
+            } finally {
+                room.unlock();
+            }
+            forward(event, target);
+            return true;
+        }
+        return false;
+    }
+
+    private void forward(PlayerEvent event, int partition) {
+        try {
+            // Synchronous so the batch is only acknowledged once the event is safe on the new partition
+            kafkaTemplate.send(playerEventsTopic, partition, event.getRoomId(), event)
+                    .get(forwardTimeoutMs, TimeUnit.MILLISECONDS);
+            logger.debug("Forwarded event for room: {} to partition {}", event.getRoomId(), partition);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted forwarding event", e);
+        } catch (Exception e) {
+            logger.error("Error forwarding event for room: {} to partition {}", event.getRoomId(), partition, e);
+            throw new RuntimeException("Failed to forward event", e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.model.Player;
+import com.gameengine.engine.repository.GameStateRepository;
+import com.gameengine.engine.timer.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time-based upkeep of held rooms, driven by one hierarchical {@link TimingWheel}.
+ *
+ * Each held room has up to three timers:
+ * - bullet expiry, due when its oldest bullet runs out, replacing a scan on every apply
+ * - idle check, evicting the room from memory once it has no events and no bullets, and
+ *   hibernating it to cold storage if its players have also stopped acting
+ * - TTL refresh, collected into one pipelined EXPIRE batch per wheel tick, so a room's
+ *   Redis TTL is pushed once per interval instead of on every save
+ */
+@Service
+public class RoomHousekeeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomHousekeeper.class);
+
+    private final RoomStateCache roomStateCache;
+    private final GameStateRepository gameStateRepository;
+    private final StateUpdatePublisher stateUpdatePublisher;
+    private final long idleEvictMs;
+    private final long ttlRefreshIntervalMs;
+    private final TimingWheel<RoomTimer> wheel;
+
+    public RoomHousekeeper(RoomStateCache roomStateCache,
+                           GameStateRepository gameStateRepository,
+                           StateUpdatePublisher stateUpdatePublisher,
+                           @Value("${game.engine.housekeeping.wheel-tick-ms:50}") long wheelTickMs,
+                           @Value("${game.engine.housekeeping.wheel-size:64}") int wheelSize,
+                           @Value("${game.engine.housekeeping.idle-evict-ms:60000}") long idleEvictMs,
+                           @Value("${game.engine.housekeeping.ttl-refresh-interval-ms:100000}") long ttlRefreshIntervalMs) {
+        this.roomStateCache = roomStateCache;
+        this.gameStateRepository = gameStateRepository;
+        this.stateUpdatePublisher = stateUpdatePublisher;
+        this.idleEvictMs = idleEvictMs;
+        this.ttlRefreshIntervalMs = ttlRefreshIntervalMs;
+        // Three levels of 64 x 50 ms span about 3.6 hours, well past any room timer
+        this.wheel = new TimingWheel<>(wheelTickMs, wheelSize, 3, System.currentTimeMillis());
+    }
+
+    /**
+     * Schedules any timers a room is missing after an update. Must be called with the
+     * room locked.
+     */
+    public void track(RoomStateCache.Room room) {
+        long now = System.currentTimeMillis();
+        if (!room.lifecycleTimersScheduled) {
+            room.lifecycleTimersScheduled = true;
+            wheel.schedule(new RoomTimer(room, TimerType.IDLE_CHECK), now + idleEvictMs);
+            wheel.schedule(new RoomTimer(room, TimerType.TTL_REFRESH), now + ttlRefreshIntervalMs);
+        }
+        scheduleBulletExpiry(room);
+    }
+
+    @Scheduled(fixedRateString = "${game.engine.housekeeping.wheel-tick-ms:50}")
+    public void advance() {
+        long now = System.currentTimeMillis();
+        List<String> ttlRefreshes = new ArrayList<>();
+        for (RoomTimer timer : wheel.advance(now)) {
+            try {
+                switch (timer.type) {
+                    case BULLET_EXPIRY:
+                        expireBullets(timer.room, now);
+                        break;
+                    case IDLE_CHECK:
+                        checkIdle(timer.room, now, ttlRefreshes);
+                        break;
+                    case TTL_REFRESH:
+                        if (!timer.room.isEvicted()) {
+                            ttlRefreshes.add(timer.room.getRoomId());
+                            wheel.schedule(timer, now + ttlRefreshIntervalMs);
+                        }
+                        break;
+                }
+            } catch (Exception e) {
+                logger.error("Error running {} for room: {}", timer.type, timer.room.getRoomId(), e);
+            }
+        }
+
+        try {
+            gameStateRepository.refreshTtl(ttlRefreshes);
+        } catch (Exception e) {
+            // Rooms keep their previous TTL; the next interval retries
+            logger.warn("Batched TTL refresh of {} rooms failed: {}", ttlRefreshes.size(), e.getMessage());
+        }
+    }
+
+    private void expireBullets(RoomStateCache.Room room, long now) {
+        room.lock();
+        try {
+            if (room.isEvicted() || room.getState() == null) {
+                return;
+            }
+            room.bulletExpiryAt = 0;
+            GameState state = room.getState();
+            if (state.clearExpiredBullets(now)) {
+                state.setVersion(state.getVersion() + 1);
+                state.setTimestamp(now);
+                // Not awaited: a failed save evicts the room by itself
+                roomStateCache.save(room);
+                stateUpdatePublisher.publishStateUpdate(room, state, null);
+            }
+            scheduleBulletExpiry(room);
+        } finally {
+            room.unlock();
+        }
+    }
+
+    private void checkIdle(RoomStateCache.Room room, long now, List<String> ttlRefreshes) {
+        room.lock();
+        try {
+            if (room.isEvicted()) {
+                return;
+            }
+            GameState state = room.getState();
+            boolean bulletsInFlight = state != null && !state.getBullets().isEmpty();
+            long idleUntil = room.getLastEventAt() + idleEvictMs;
+            if (!bulletsInFlight && now >= idleUntil) {
+                if (playersIdle(state, now) && hibernate(room)) {
+                    // The cold copy carries its own TTL
+                    return;
+                }
+                roomStateCache.evictLocked(room);
+                // Start the full TTL from the moment the room went quiet
+                ttlRefreshes.add(room.getRoomId());
+                logger.debug("Evicted idle room from memory: {}", room.getRoomId());
+                return;
+            }
+            wheel.schedule(new RoomTimer(room, TimerType.IDLE_CHECK), Math.max(idleUntil, now + idleEvictMs / 4));
+        } finally {
+            room.unlock();
+        }
+    }
+
+    private boolean playersIdle(GameState state, long now) {
+        if (state == null) {
+            return false;
+        }
+        for (Player player : state.playerIndex()) {
+            if (now - player.getLastActionTimestamp() < idleEvictMs) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hibernate(RoomStateCache.Room room) {
+        try {
+            if (roomStateCache.hibernateLocked(room)) {
+                logger.debug("Hibernated idle room: {}", room.getRoomId());
+                return true;
+            }
+        } catch (RuntimeException e) {
+            // The room stays hot in Redis and expires as usual
+            logger.warn("Hibernating idle room: {} failed: {}", room.getRoomId(), e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Schedules the room's bullet expiry unless one is pending. Bullets all live equally
+     * long, so one fired later never expires before the one already scheduled; only a
+     * room without a pending timer looks at its oldest bullet.
+     */
+    private void scheduleBulletExpiry(RoomStateCache.Room room) {
+        GameState state = room.getState();
+        if (room.bulletExpiryAt != 0 || state == null) {
+            return;
+        }
+        long next = state.nextBulletExpiry();
+        if (next != Long.MAX_VALUE) {
+            room.bulletExpiryAt = next;
+            wheel.schedule(new RoomTimer(room, TimerType.BULLET_EXPIRY), next);
+        }
+    }
+
+    private enum TimerType {
+        BULLET_EXPIRY,
+        IDLE_CHECK,
+        TTL_REFRESH
+    }
+
+    private static final class RoomTimer {
+        private final RoomStateCache.Room room;
+        private final TimerType type;
+
+        private RoomTimer(RoomStateCache.Room room, TimerType type) {
+            this.room = room;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.gameengine.engine.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events per room on this instance between rebalancer runs.
+ */
+@Component
+public class RoomLoadTracker {
+
+    private final Map<String, RoomCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Records one processed event.
+     *
+     * @param roomId Room identifier
+     * @param partition Partition the event arrived on
+     */
+    public void record(String roomId, int partition) {
+        // Counted inside compute, so drain cannot remove the counter between lookup and increment
+        counters.compute(roomId, (id, counter) -> {
+            RoomCounter current = counter != null ? counter : new RoomCounter();
+            current.partition = partition;
+            current.events.increment();
+            return current;
+        });
+    }
+
+    /**
+     * Returns event counts since the previous call and resets them.
+     * Rooms with no events in the window are dropped.
+     */
+    public Map<String, RoomLoad> drain() {
+        Map<String, RoomLoad> loads = new HashMap<>();
+        counters.forEach((roomId, counter) -> {
+            long events = counter.events.sumThenReset();
+            if (events > 0) {
+                loads.put(roomId, new RoomLoad(counter.partition, events));
+            } else {
+                // Only if still idle; a record since the reset keeps the counter
+                counters.computeIfPresent(roomId, (id, current) -> current.events.sum() == 0 ? null : current);
+            }
+        });
+        return loads;
+    }
+
+    private static final class RoomCounter {
+        private final LongAdder events = new LongAdder();
+        private volatile int partition;
+    }
+
+    /**
+     * Events seen for a room on a given partition in one window.
+     */
+    public static final class RoomLoad {
+        private final int partition;
+        private final long events;
+
+        public RoomLoad(int partition, long events) {
+            this.partition = partition;
+            this.events = events;
+        }
+
+        public int getPartition() {
+            return partition;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.repository.GameStateRepository;
+import com.gameengine.engine.repository.RoomDirectory;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.RoomRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves hot rooms off overloaded player-events partitions.
+ *
+ * Every instance reports the per-room event rates it measured into the "room-load"
+ * hash. The instance holding the "room-rebalancer:leader" lock then sums load per
+ * partition and, while the busiest partition is well above the average, asks its
+ * largest movable room to move to the least-loaded partition. A partition whose load
+ * comes from a single room is left alone - that room already has it to itself.
+ *
+ * Moves are only requested here; the owning consumer commits them through
+ * {@link RoomHandoffService}.
+ */
+@Service
+public class RoomRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomRebalancer.class);
+    private static final String LOAD_KEY = "room-load";
+    private static final String LEADER_KEY = "room-rebalancer:leader";
+    private static final RedisScript<Long> LEASE_SCRIPT = GameStateRepository.loadScript("redis/renew-lease.lua");
+
+    private final RoomLoadTracker loadTracker;
+    private final RoomDirectory roomDirectory;
+    private final GameStateRepository gameStateRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final KafkaTemplate<String, PlayerEvent> kafkaTemplate;
+    private final String playerEventsTopic;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final double imbalanceRatio;
+    private final double minPartitionEventsPerSecond;
+    private final int maxMovesPerRun;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private long lastRunAt = System.currentTimeMillis();
+
+    public RoomRebalancer(RoomLoadTracker loadTracker,
+                          RoomDirectory roomDirectory,
+                          GameStateRepository gameStateRepository,
+                          StringRedisTemplate redisTemplate,
+                          @Qualifier("playerEventForwardKafkaTemplate")
+                          KafkaTemplate<String, PlayerEvent> playerEventForwardKafkaTemplate,
+                          @Value("${spring.kafka.topics.player-events}") String playerEventsTopic,
+                          @Value("${game.engine.rebalance.enabled:true}") boolean enabled,
+                          @Value("${game.engine.rebalance.interval-ms:10000}") long intervalMs,
+                          @Value("${game.engine.rebalance.imbalance-ratio:1.5}") double imbalanceRatio,
+                          @Value("${game.engine.rebalance.min-partition-events-per-second:50}") double minPartitionEventsPerSecond,
+                          @Value("${game.engine.rebalance.max-moves-per-run:2}") int maxMovesPerRun) {
+        this.loadTracker = loadTracker;
+        this.roomDirectory = roomDirectory;
+        this.gameStateRepository = gameStateRepository;
+        this.redisTemplate = redisTemplate;
+        this.kafkaTemplate = playerEventForwardKafkaTemplate;
+        this.playerEventsTopic = playerEventsTopic;
+        this.enabled = enabled;
+        this.intervalMs = intervalMs;
+        this.imbalanceRatio = imbalanceRatio;
+        this.minPartitionEventsPerSecond = minPartitionEventsPerSecond;
+        this.maxMovesPerRun = maxMovesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${game.engine.rebalance.interval-ms:10000}")
+    public void run() {
+        try {
+            reportLoad();
+            roomDirectory.refresh();
+            if (enabled && isLeader()) {
+                rebalance();
+            }
+        } catch (Exception e) {
+            logger.error("Error running room rebalancer", e);
+        }
+    }
+
+    private void reportLoad() {
+        long now = System.currentTimeMillis();
+        double seconds = Math.max(1, now - lastRunAt) / 1000.0;
+        lastRunAt = now;
+
+        Map<String, String> fields = new HashMap<>();
+        loadTracker.drain().forEach((roomId, load) ->
+                fields.put(roomId, load.getPartition() + ":" + (load.getEvents() / seconds) + ":" + now));
+        if (!fields.isEmpty()) {
+            redisTemplate.opsForHash().putAll(LOAD_KEY, fields);
+        }
+    }
+
+    /**
+     * Acquires or renews the leader lease in one script, so a lease that lapsed after
+     * this instance last held it is never extended on behalf of a new leader.
+     */
+    private boolean isLeader() {
+        Long held = redisTemplate.execute(LEASE_SCRIPT, List.of(LEADER_KEY),
+                instanceId, Long.toString(intervalMs * 3));
+        return held != null && held == 1;
+    }
+
+    private void rebalance() {
+        int partitionCount = kafkaTemplate.partitionsFor(playerEventsTopic).size();
+        long staleBefore = System.currentTimeMillis() - intervalMs * 3;
+
+        Map<String, RoomRate> rates = new HashMap<>();
+        List<Object> staleRooms = new ArrayList<>();
+        redisTemplate.<String, String>opsForHash().entries(LOAD_KEY).forEach((roomId, value) -> {
+            RoomRate rate = RoomRate.decode(roomId, value);
+            if (rate == null || rate.reportedAt < staleBefore || rate.partition >= partitionCount) {
+                staleRooms.add(roomId);
+            } else {
+                rates.put(roomId, rate);
+            }
+        });
+        if (!staleRooms.isEmpty()) {
+            redisTemplate.opsForHash().delete(LOAD_KEY, staleRooms.toArray());
+        }
+
+        pruneDirectory(rates.keySet());
+
+        Set<String> pending = new HashSet<>();
+        for (String roomId : rates.keySet()) {
+            if (roomDirectory.pendingMoveFor(roomId) != null) {
+                pending.add(roomId);
+            }
+        }
+
+        for (Move move : plan(rates, partitionCount, pending)) {
+            roomDirectory.requestMove(move.roomId, move.toPartition);
+            logger.info("Rebalancing room {} ({} events/s) from partition {} to {}",
+                    move.roomId, String.format("%.1f", move.rate), move.fromPartition, move.toPartition);
+        }
+    }
+
+    /**
+     * Greedily picks moves from the busiest partition to the least busy one.
+     */
+    List<Move> plan(Map<String, RoomRate> rates, int partitionCount, Set<String> pending) {
+        double[] partitionLoad = new double[partitionCount];
+        Map<Integer, List<RoomRate>> roomsByPartition = new HashMap<>();
+        for (RoomRate rate : rates.values()) {
+            partitionLoad[rate.partition] += rate.eventsPerSecond;
+            roomsByPartition.computeIfAbsent(rate.partition, p -> new ArrayList<>()).add(rate);
+        }
+
+        double total = 0;
+        for (double load : partitionLoad) {
+            total += load;
+        }
+        double average = total / partitionCount;
+
+        List<Move> moves = new ArrayList<>();
+        while (moves.size() < maxMovesPerRun) {
+            int hottest = 0;
+            int coolest = 0;
+            for (int p = 1; p < partitionCount; p++) {
+                if (partitionLoad[p] > partitionLoad[hottest]) {
+                    hottest = p;
+                }
+                if (partitionLoad[p] < partitionLoad[coolest]) {
+                    coolest = p;
+                }
+            }
+            if (partitionLoad[hottest] < minPartitionEventsPerSecond
+                    || partitionLoad[hottest] <= average * imbalanceRatio) {
+                break;
+            }
+
+            List<RoomRate> candidates = roomsByPartition.getOrDefault(hottest, List.of());
+            if (candidates.size() < 2) {
+                break;
+            }
+            candidates.sort(Comparator.comparingDouble((RoomRate r) -> r.eventsPerSecond).reversed());
+
+            // Largest room whose move still leaves the target cooler than the source was
+            RoomRate chosen = null;
+            for (RoomRate candidate : candidates) {
+                if (!pending.contains(candidate.roomId)
+                        && partitionLoad[coolest] + candidate.eventsPerSecond < partitionLoad[hottest]) {
+                    chosen = candidate;
+                    break;
+                }
+            }
+            if (chosen == null) {
+                break;
+            }
+
+            moves.add(new Move(chosen.roomId, hottest, coolest, chosen.eventsPerSecond));
+            pending.add(chosen.roomId);
+            candidates.remove(chosen);
+            partitionLoad[hottest] -= chosen.eventsPerSecond;
+            partitionLoad[coolest] += chosen.eventsPerSecond;
+            roomsByPartition.computeIfAbsent(coolest, p -> new ArrayList<>())
+                    .add(new RoomRate(chosen.roomId, coolest, chosen.eventsPerSecond, chosen.reportedAt));
+        }
+        return moves;
+    }
+
+    /**
+     * Directory entries outlive their room otherwise; drop those whose state has expired.
+     */
+    private void pruneDirectory(Set<String> activeRooms) {
+        for (Map.Entry<String, RoomRoute> entry : roomDirectory.snapshot().entrySet()) {
+            String roomId = entry.getKey();
+            if (!activeRooms.contains(roomId) && !gameStateRepository.roomExists(roomId)) {
+                roomDirectory.remove(roomId);
+            }
+        }
+    }
+
+    static final class RoomRate {
+        final String roomId;
+        final int partition;
+        final double eventsPerSecond;
+        final long reportedAt;
+
+        RoomRate(String roomId, int partition, double eventsPerSecond, long reportedAt) {
+            this.roomId = roomId;
+            this.partition = partition;
+            this.eventsPerSecond = eventsPerSecond;
+            this.reportedAt = reportedAt;
+        }
+
+        static RoomRate decode(String roomId, String value) {
+            String[] parts = value.split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new RoomRate(roomId, Integer.parseInt(parts[0]),
+                        Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    static final class Move {
+        final String roomId;
+        final int fromPartition;
+        final int toPartition;
+        final double rate;
+
+        Move(String roomId, int fromPartition, int toPartition, double rate) {
+            this.roomId = roomId;
+            this.fromPartition = fromPartition;
+            this.toPartition = toPartition;
+            this.rate = rate;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.model.GameState;
+import com.gameengine.engine.repository.AsyncGameStateRepository;
+import com.gameengine.engine.repository.ColdRoomStore;
+import com.gameengine.engine.repository.GameStateRepository;
+import com.gameengine.engine.repository.RoomFields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory state of the rooms owned by this instance.
+ *
+ * A room is owned while its partition is assigned here. Its state is loaded from Redis
+ * the first time an event for it arrives and evicted when the partition is revoked, the
+ * room is handed off, or it goes idle. Redis remains the durable copy: every change is
+ * still saved through {@link #save}, so a new owner starts from the last saved state.
+ * Loading a room claims a new fencing token, which Redis checks on every save so that a
+ * previous owner still holding the room cannot overwrite the new owner's state.
+ *
+ * The listener thread and the tick scheduler both mutate room state, so all access goes
+ * through the per-room lock.
+ *
+ * With the {@link AsyncGameStateRepository} enabled, a save is sent without waiting for
+ * Redis and the room lock is released at once; the caller gets a future to await before
+ * acknowledging its input. Saves of a room still land in order, and a rejected one drops
+ * the room from memory as soon as the rejection arrives.
+ *
+ * A room that went idle may be hibernated to the {@link ColdRoomStore} instead of only
+ * leaving memory; loading it again wakes it from there.
+ */
+@Component
+public class RoomStateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomStateCache.class);
+
+    private static final CompletableFuture<Void> SAVED = CompletableFuture.completedFuture(null);
+
+    private final GameStateRepository gameStateRepository;
+    private final AsyncGameStateRepository asyncRepository;
+    private final ColdRoomStore coldRoomStore;
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    public RoomStateCache(GameStateRepository gameStateRepository,
+                          ObjectProvider<AsyncGameStateRepository> asyncRepository,
+                          ColdRoomStore coldRoomStore) {
+        this.gameStateRepository = gameStateRepository;
+        this.asyncRepository = asyncRepository.getIfAvailable();
+        this.coldRoomStore = coldRoomStore;
+    }
+
+    /**
+     * Locks a room, loading its state from Redis if it is not held yet.
+     * The caller must {@link Room#unlock()} it.
+     *
+     * @param roomId Room identifier
+     * @param partition Partition the room's events arrive on
+     * @return the locked room; its state is null for a new room
+     */
+    public Room lock(String roomId, int partition) {
+        while (true) {
+            Room room = rooms.computeIfAbsent(roomId, id -> new Room(id, partition));
+            room.lock.lock();
+            if (room.evicted) {
+                // Lost a race with eviction; a fresh entry will reload from Redis
+                room.lock.unlock();
+                continue;
+            }
+            if (!room.loaded) {
+                try {
+                    // Claim before reading so no earlier owner's save can land after the read
+                    if (asyncRepository != null) {
+                        // Same connection, so the read follows the claim; one round trip for both
+                        CompletableFuture<Long> fence = asyncRepository.claimRoom(roomId);
+                        CompletableFuture<GameState> state = asyncRepository.getGameState(roomId, room.stored);
+                        room.fence = join(fence);
+                        room.state = join(state);
+                    } else {
+                        room.fence = gameStateRepository.claimRoom(roomId);
+                        room.state = gameStateRepository.getGameState(roomId, room.stored);
+                    }
+                    if (room.state == null) {
+                        // A hibernated room leaves only a stub in its hash
+                        room.state = coldRoomStore.wake(roomId, room.fence, room.stored);
+                    }
+                    room.savedVersion = room.state != null ? room.state.getVersion() : -1;
+                    room.loaded = true;
+                } catch (RuntimeException e) {
+                    evictLocked(room);
+                    room.lock.unlock();
+                    throw e;
+                }
+            }
+            room.partition = partition;
+            room.lastEventAt = System.currentTimeMillis();
+            return room;
+        }
+    }
+
+    /**
+     * Saves a held room's state if its version moved since the last save; every change
+     * bumps it (see {@link GameState#markChanged}), so only true no-ops are skipped. Only
+     * the first save sets the TTL; after that {@link RoomHousekeeper} refreshes it once per
+     * interval.
+     * Must be called with the room locked.
+     *
+     * A save that Redis rejects means another instance has claimed the room or written a
+     * newer version, so the room is evicted and the save fails. With the blocking
+     * repository that happens before this method returns; otherwise the returned future
+     * fails once Redis answers.
+     *
+     * @return future completing when the save is in Redis
+     */
+    public CompletableFuture<Void> save(Room room) {
+        GameState state = room.state;
+        if (state == null || state.getVersion() == room.savedVersion) {
+            return SAVED;
+        }
+        if (asyncRepository != null) {
+            return saveAsync(room, state);
+        }
+        GameStateRepository.SaveResult result =
+                gameStateRepository.saveGameState(room.roomId, state, room.fence, !room.ttlApplied, room.stored);
+        if (result != GameStateRepository.SaveResult.SAVED) {
+            logger.warn("Save of room: {} at version {} rejected ({}); evicting", room.roomId, state.getVersion(), result);
+            evictLocked(room);
+            throw new IllegalStateException("Save of room " + room.roomId + " rejected: " + result);
+        }
+        room.savedVersion = state.getVersion();
+        room.ttlApplied = true;
+        return SAVED;
+    }
+
+    private CompletableFuture<Void> saveAsync(Room room, GameState state) {
+        long version = state.getVersion();
+        CompletableFuture<Void> saved = asyncRepository
+                .saveGameState(room.roomId, state, room.fence, !room.ttlApplied, room.stored)
+                .thenAccept(result -> {
+                    if (result != GameStateRepository.SaveResult.SAVED) {
+                        throw new IllegalStateException("Save of room " + room.roomId + " rejected: " + result);
+                    }
+                })
+                .whenComplete((ignored, e) -> {
+                    if (e != null && !room.evicted) {
+                        // Runs on the Redis I/O thread, which must not wait for the room lock;
+                        // the lock holder finds the room evicted when it next checks
+                        logger.warn("Save of room: {} at version {} failed; evicting: {}",
+                                room.roomId, version, e.getMessage());
+                        room.evicted = true;
+                        rooms.remove(room.roomId, room);
+                    }
+                });
+        // Later saves are diffed against this one and sent behind it
+        room.savedVersion = version;
+        room.ttlApplied = true;
+        room.pendingSave = saved;
+        return saved;
+    }
+
+    /**
+     * Waits for the last save of a held room to reach Redis, e.g. before handing it off.
+     * A failed save has already evicted the room. Must be called with the room locked.
+     */
+    public void awaitSave(Room room) {
+        CompletableFuture<Void> pending = room.pendingSave;
+        if (pending != null) {
+            awaitSaves(List.of(pending));
+        }
+    }
+
+    /**
+     * Waits for saves returned by {@link #save}. Failed saves have already evicted their
+     * rooms and been logged, so they are only counted here.
+     *
+     * @return number of saves that failed
+     */
+    public int awaitSaves(Collection<CompletableFuture<Void>> saves) {
+        int failed = 0;
+        for (CompletableFuture<Void> save : saves) {
+            try {
+                save.join();
+            } catch (CompletionException e) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * @return the rooms currently held, for the tick scheduler
+     */
+    public Collection<Room> rooms() {
+        return rooms.values();
+    }
+
+    /**
+     * Moves an idle room to cold storage and drops it from memory, once its last save is
+     * in Redis. Must be called with the room locked.
+     *
+     * @return true if the room was hibernated; otherwise it is still held
+     */
+    public boolean hibernateLocked(Room room) {
+        GameState state = room.state;
+        if (!coldRoomStore.isEnabled() || state == null) {
+            return false;
+        }
+        awaitSave(room);
+        if (room.evicted || state.getVersion() != room.savedVersion) {
+            return false;
+        }
+        if (!coldRoomStore.hibernate(room.roomId, state, room.fence)) {
+            return false;
+        }
+        evictLocked(room);
+        return true;
+    }
+
+    /**
+     * Drops a room from memory. Must be called with the room locked.
+     */
+    public void evictLocked(Room room) {
+        room.evicted = true;
+        rooms.remove(room.roomId, room);
+    }
+
+    /**
+     * Drops a room from memory if held.
+     */
+    public void evict(String roomId) {
+        Room room = rooms.get(roomId);
+        if (room == null) {
+            return;
+        }
+        room.lock.lock();
+        try {
+            evictLocked(room);
+        } finally {
+            room.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every room whose events arrive on the given partitions.
+     */
+    public void evictPartitions(Collection<Integer> partitions) {
+        List<Room> revoked = new ArrayList<>();
+        for (Room room : rooms.values()) {
+            if (partitions.contains(room.partition)) {
+                revoked.add(room);
+            }
+        }
+        revoked.forEach(room -> evict(room.roomId));
+        if (!revoked.isEmpty()) {
+            logger.info("Evicted {} rooms for revoked partitions {}", revoked.size(), partitions);
+        }
+    }
+
+    /**
+     * A held room. Fields are guarded by the room lock.
+     */
+    public static final class Room {
+        private final String roomId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile int partition;
+        private GameState state;
+        private boolean loaded;
+        private volatile boolean evicted;
+        private volatile long lastEventAt;
+        private boolean ttlApplied;
+        private long fence;
+        private long savedVersion = -1;
+        private final RoomFields stored = new RoomFields();
+        private CompletableFuture<Void> pendingSave;
+        // Housekeeping timers, guarded by the room lock
+        boolean lifecycleTimersScheduled;
+        long bulletExpiryAt;
+        // Broadcast throttling (TickBudget), guarded by the room lock
+        long lastBroadcastAt;
+        boolean broadcastPending;
+        // Events taken since the room's last published update, guarded by the room lock
+        private int unansweredInputs;
+
+        private Room(String roomId, int partition) {
+            this.roomId = roomId;
+            this.partition = partition;
+        }
+
+        public String getRoomId() {
+            return roomId;
+        }
+
+        public GameState getState() {
+            return state;
+        }
+
+        public void setState(GameState state) {
+            this.state = state;
+        }
+
+        public boolean isEvicted() {
+            return evicted;
+        }
+
+        public long getLastEventAt() {
+            return lastEventAt;
+        }
+
+        /**
+         * Counts a player event taken for the room; the room's next published update
+         * answers it. Must be called with the room lock held.
+         */
+        public void recordInput() {
+            unansweredInputs++;
+        }
+
+        /**
+         * @return events taken since the last call; must be called with the room lock held
+         */
+        int takeUnansweredInputs() {
+            int inputs = unansweredInputs;
+            unansweredInputs = 0;
+            return inputs;
+        }
+
+        public void lock() {
+            lock.lock();
+        }
+
+        public void unlock() {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.diagnostics.EngineEvents;
+import com.gameengine.engine.logic.GameLogic;
+import com.gameengine.engine.model.GameState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advances every room held by this instance once per tick on a work-stealing pool.
+ *
+ * Each room is its own task and rooms with many bullets split their bullet step further
+ * (see {@link GameLogic#tick}). A tick waits for all rooms before the next one starts,
+ * so ticks stay ordered per room; events and ticks for a room are serialized by the
+ * room lock in {@link RoomStateCache}. Saves issued during a tick are awaited before it
+ * ends, so a slow Redis shows up as tick time rather than an unbounded backlog.
+ *
+ * A tick that takes longer than the interval is an overrun: it is counted in
+ * engine.tick.overruns and the next tick starts immediately rather than queueing up.
+ * Tick and per-room times go to the {@link TickBudget}, which degrades the simulation
+ * before overruns pile up.
+ */
+@Service
+public class RoomTickScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomTickScheduler.class);
+    private static final long OVERRUN_LOG_INTERVAL_MS = 5000;
+
+    private final RoomStateCache roomStateCache;
+    private final GameLogic gameLogic;
+    private final StateUpdatePublisher stateUpdatePublisher;
+    private final TickBudget tickBudget;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final int splitThreshold;
+    private final ForkJoinPool pool;
+    private final Timer tickTimer;
+    private final Counter overrunCounter;
+
+    private long lastOverrunLogAt;
+    private long overrunsSinceLog;
+
+    public RoomTickScheduler(RoomStateCache roomStateCache,
+                             GameLogic gameLogic,
+                             StateUpdatePublisher stateUpdatePublisher,
+                             TickBudget tickBudget,
+                             MeterRegistry meterRegistry,
+                             @Value("${game.engine.tick.enabled:true}") boolean enabled,
+                             @Value("${game.engine.tick.interval-ms:50}") long intervalMs,
+                             @Value("${game.engine.tick.parallelism:0}") int parallelism,
+                             @Value("${game.engine.tick.split-threshold:256}") int splitThreshold) {
+        this.roomStateCache = roomStateCache;
+        this.gameLogic = gameLogic;
+        this.stateUpdatePublisher = stateUpdatePublisher;
+        this.tickBudget = tickBudget;
+        this.enabled = enabled;
+        this.intervalMs = intervalMs;
+        this.splitThreshold = splitThreshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.tickTimer = Timer.builder("engine.tick.duration")
+                .description("Time to advance all held rooms by one tick")
+                .register(meterRegistry);
+        this.overrunCounter = Counter.builder("engine.tick.overruns")
+                .description("Ticks that took longer than the tick interval")
+                .register(meterRegistry);
+        meterRegistry.gauge("engine.tick.rooms", roomStateCache, cache -> cache.rooms().size());
+    }
+
+    /**
+     * @return true if physics is advanced by ticks rather than once per event
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(fixedRateString = "${game.engine.tick.interval-ms:50}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<RoomTickTask> tasks = new ArrayList<>();
+        Queue<CompletableFuture<Void>> saves = new ConcurrentLinkedQueue<>();
+        int collisionStride = tickBudget.collisionStride();
+        for (RoomStateCache.Room room : roomStateCache.rooms()) {
+            tasks.add(new RoomTickTask(room, saves, collisionStride));
+        }
+        if (!tasks.isEmpty()) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+        roomStateCache.awaitSaves(saves);
+        long elapsedNanos = System.nanoTime() - start;
+        tickTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        tickBudget.recordTick(elapsedNanos);
+
+        if (elapsedNanos > TimeUnit.MILLISECONDS.toNanos(intervalMs)) {
+            onOverrun(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), tasks.size());
+        }
+    }
+
+    private void onOverrun(long elapsedMs, int roomCount) {
+        overrunCounter.increment();
+        overrunsSinceLog++;
+        long now = System.currentTimeMillis();
+        if (now - lastOverrunLogAt >= OVERRUN_LOG_INTERVAL_MS) {
+            logger.warn("Tick overrun: {} ms for {} rooms (interval {} ms, {} overruns since last report)",
+                    elapsedMs, roomCount, intervalMs, overrunsSinceLog);
+            lastOverrunLogAt = now;
+            overrunsSinceLog = 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Advances one room. Runs inside the pool, so a large room's bullet step forks into it.
+     */
+    private class RoomTickTask extends RecursiveAction {
+
+        private final RoomStateCache.Room room;
+        private final Queue<CompletableFuture<Void>> saves;
+        private final int collisionStride;
+
+        RoomTickTask(RoomStateCache.Room room, Queue<CompletableFuture<Void>> saves, int collisionStride) {
+            this.room = room;
+            this.saves = saves;
+            this.collisionStride = collisionStride;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            EngineEvents.RoomTick event = new EngineEvents.RoomTick();
+            event.begin();
+            room.lock();
+            try {
+                if (room.isEvicted()) {
+                    return;
+                }
+                GameState state = room.getState();
+                if (state == null) {
+                    return;
+                }
+                boolean changed = gameLogic.tick(state, splitThreshold, collisionStride);
+                if (changed) {
+                    saves.add(roomStateCache.save(room));
+                }
+                // A throttled update goes out once due, even if this tick changed nothing
+                if ((changed || tickBudget.isBroadcastPending(room)) && tickBudget.shouldBroadcast(room, state)) {
+                    stateUpdatePublisher.publishStateUpdate(room, state, null);
+                }
+                if (changed) {
+                    EngineEvents.commit(event, room.getRoomId(), state);
+                }
+            } catch (Exception e) {
+                logger.error("Error ticking room: {}", room.getRoomId(), e);
+                // Resync from Redis on the next event
+                roomStateCache.evictLocked(room);
+            } finally {
+                room.unlock();
+                tickBudget.recordRoom(System.nanoTime() - start);
+            }
+        }
+    }
+}
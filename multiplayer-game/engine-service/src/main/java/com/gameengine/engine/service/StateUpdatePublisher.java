@@ -1,7 +1,11 @@
 package com.gameengine.engine.service;
 
+import com.gameengine.engine.diagnostics.EngineEvents;
 import com.gameengine.engine.model.GameState;
 import com.gameengine.engine.model.StateUpdate;
+import com.gameengine.protocol.AnsweredInputs;
+import com.gameengine.protocol.Trace;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -42,18 +46,64 @@ public class StateUpdatePublisher {
      * @param gameState Updated game state
      */
     public void publishStateUpdate(String roomId, GameState gameState) {
+        publishStateUpdate(roomId, gameState, null);
+    }
+
+    /**
+     * Publishes a state update caused by a traced player event, carrying the event's
+     * {@link Trace} in the record headers.
+     *
+     * @param roomId Room identifier (partition key)
+     * @param gameState Updated game state
+     * @param trace Trace of the event, or null if it is not sampled
+     */
+    public void publishStateUpdate(String roomId, GameState gameState, Trace trace) {
+        publish(roomId, gameState, trace, 0);
+    }
+
+    /**
+     * Publishes the state of a held room. The update answers every event taken for the
+     * room since its last update, and says how many in an {@link AnsweredInputs} header.
+     * Must be called with the room lock held.
+     *
+     * @param room Room being published
+     * @param gameState Updated game state
+     * @param trace Trace of the event that caused the update, or null
+     */
+    public void publishStateUpdate(RoomStateCache.Room room, GameState gameState, Trace trace) {
+        publish(room.getRoomId(), gameState, trace, room.takeUnansweredInputs());
+    }
+
+    private void publish(String roomId, GameState gameState, Trace trace, int answeredInputs) {
         try {
-            // Create state update message
+            // Create state update message; it lists the whole room, so it stays flagged full
+            // and consumers replace their copy of the room rather than merge into it
             StateUpdate stateUpdate = new StateUpdate(roomId, gameState);
             stateUpdate.setTimestamp(System.currentTimeMillis());
-            stateUpdate.setFullUpdate(!enableDiffUpdates); // Use full update if diffs disabled
 
             // Publish to Kafka with roomId as key (partition key)
-            CompletableFuture<SendResult<String, StateUpdate>> future = 
-                    kafkaTemplate.send(stateUpdatesTopic, roomId, stateUpdate);
+            ProducerRecord<String, StateUpdate> record = new ProducerRecord<>(stateUpdatesTopic, roomId, stateUpdate);
+            AnsweredInputs.writeTo(record.headers(), answeredInputs);
+            if (trace != null) {
+                trace.stamp(Trace.ENGINE_SENT);
+                trace.writeTo(record.headers());
+            }
+            EngineEvents.KafkaPublish event = new EngineEvents.KafkaPublish();
+            event.begin();
+            if (event.isEnabled()) {
+                event.playerCount = gameState.getPlayerCount();
+                event.bulletCount = gameState.getBulletCount();
+            }
+            CompletableFuture<SendResult<String, StateUpdate>> future = kafkaTemplate.send(record);
 
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
+                    if (event.isEnabled()) {
+                        event.bytes = result.getRecordMetadata().serializedValueSize();
+                        event.partition = result.getRecordMetadata().partition();
+                    }
+                    // Counts were taken at send; the room has moved on by the broker's ack
+                    EngineEvents.commit(event, roomId, null);
                     logger.debug("Published state update for room: {} (version: {}) to topic: {}",
                             roomId, gameState.getVersion(), stateUpdatesTopic);
                 } else {
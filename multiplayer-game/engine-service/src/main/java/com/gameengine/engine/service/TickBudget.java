@@ -0,0 +1,234 @@
+package com.gameengine.engine.service;
+
+import com.gameengine.engine.model.GameState;
+import com.gameengine.protocol.PlayerEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Keeps the tick inside its time budget by degrading the simulation in steps when the
+ * pod is overloaded, instead of letting every room slow down alike.
+ *
+ * {@link RoomTickScheduler} reports every tick and the time each room took. At the end
+ * of each window of ticks the window's percentile tick time is compared to the budget:
+ * over budget, the next level is switched on; below recover-ratio of the budget for
+ * recover-windows windows in a row, the last one is switched off again. Levels add up:
+ * <ol>
+ *   <li>{@link Level#BROADCAST}: rooms with at least large-room-players players publish
+ *       state updates at most every broadcast-interval-ms; skipped updates are folded
+ *       into the next one</li>
+ *   <li>{@link Level#COLLISION}: bullets with no player near their path are hit-tested
+ *       every collision-stride steps (see {@code GameLogic#tick(GameState, int, int)})</li>
+ *   <li>{@link Level#INPUT}: the listener drops JUMPs and MOVEs superseded by a later MOVE
+ *       of the same player in the batch; SHOOTs are always applied</li>
+ * </ol>
+ * Level changes are counted in engine.tick.degradation.transitions and the current level
+ * is the engine.tick.degradation.level gauge.
+ */
+@Service
+public class TickBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickBudget.class);
+
+    /**
+     * Degradation levels, in the order they are switched on.
+     */
+    public enum Level {
+        NONE, BROADCAST, COLLISION, INPUT
+    }
+
+    private final boolean enabled;
+    private final long budgetNanos;
+    private final double percentile;
+    private final double recoverRatio;
+    private final int recoverWindows;
+    private final int largeRoomPlayers;
+    private final long broadcastIntervalMs;
+    private final int collisionStride;
+    private final long[] window;
+    private final MeterRegistry meterRegistry;
+    private final Timer roomTimer;
+    private final Counter skippedBroadcasts;
+    private final Map<PlayerEvent.ActionType, Counter> shedInputs = new EnumMap<>(PlayerEvent.ActionType.class);
+    private final LongAccumulator slowestRoomNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile Level level = Level.NONE;
+    // Window state; only touched by the tick scheduler thread
+    private int windowSize;
+    private int calmWindows;
+
+    public TickBudget(MeterRegistry meterRegistry,
+                      @Value("${game.engine.tick.budget.enabled:true}") boolean enabled,
+                      @Value("${game.engine.tick.budget.budget-ms:40}") long budgetMs,
+                      @Value("${game.engine.tick.budget.window-ticks:20}") int windowTicks,
+                      @Value("${game.engine.tick.budget.percentile:0.99}") double percentile,
+                      @Value("${game.engine.tick.budget.recover-ratio:0.6}") double recoverRatio,
+                      @Value("${game.engine.tick.budget.recover-windows:3}") int recoverWindows,
+                      @Value("${game.engine.tick.budget.large-room-players:16}") int largeRoomPlayers,
+                      @Value("${game.engine.tick.budget.broadcast-interval-ms:150}") long broadcastIntervalMs,
+                      @Value("${game.engine.tick.budget.collision-stride:3}") int collisionStride) {
+        this.enabled = enabled;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.percentile = percentile;
+        this.recoverRatio = recoverRatio;
+        this.recoverWindows = recoverWindows;
+        this.largeRoomPlayers = largeRoomPlayers;
+        this.broadcastIntervalMs = broadcastIntervalMs;
+        this.collisionStride = Math.max(1, collisionStride);
+        this.window = new long[Math.max(1, windowTicks)];
+        this.meterRegistry = meterRegistry;
+        this.roomTimer = Timer.builder("engine.tick.room.duration")
+                .description("Time to advance one room by one tick, including its save and publish")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.skippedBroadcasts = Counter.builder("engine.tick.broadcasts.skipped")
+                .description("State updates of large rooms not published while broadcasts are throttled")
+                .register(meterRegistry);
+        for (PlayerEvent.ActionType actionType : PlayerEvent.ActionType.values()) {
+            shedInputs.put(actionType, Counter.builder("engine.tick.inputs.shed")
+                    .description("Player events dropped while inputs are shed")
+                    .tag("action", actionType.name())
+                    .register(meterRegistry));
+        }
+        meterRegistry.gauge("engine.tick.degradation.level", this, budget -> budget.level.ordinal());
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Records the time one room took in a tick. Called from the tick pool.
+     */
+    void recordRoom(long elapsedNanos) {
+        roomTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        slowestRoomNanos.accumulate(elapsedNanos);
+    }
+
+    /**
+     * Records a whole tick and, at the end of a window, moves one level up or down.
+     * Called from the tick scheduler thread only.
+     */
+    void recordTick(long elapsedNanos) {
+        if (!enabled) {
+            return;
+        }
+        window[windowSize++] = elapsedNanos;
+        if (windowSize < window.length) {
+            return;
+        }
+        windowSize = 0;
+        long[] sorted = window.clone();
+        Arrays.sort(sorted);
+        long tickNanos = sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+        long slowestRoom = slowestRoomNanos.getThenReset();
+
+        Level current = level;
+        if (tickNanos > budgetNanos) {
+            calmWindows = 0;
+            if (current.ordinal() < Level.values().length - 1) {
+                changeLevel(Level.values()[current.ordinal() + 1], "degrade", tickNanos, slowestRoom);
+            }
+        } else if (tickNanos < budgetNanos * recoverRatio && current != Level.NONE) {
+            if (++calmWindows >= recoverWindows) {
+                calmWindows = 0;
+                changeLevel(Level.values()[current.ordinal() - 1], "recover", tickNanos, slowestRoom);
+            }
+        } else {
+            calmWindows = 0;
+        }
+    }
+
+    private void changeLevel(Level next, String direction, long tickNanos, long slowestRoomNanos) {
+        level = next;
+        meterRegistry.counter("engine.tick.degradation.transitions", "direction", direction, "level", next.name())
+                .increment();
+        if ("degrade".equals(direction)) {
+            logger.warn("Tick over budget: p{} {} ms (budget {} ms, slowest room {} ms); degrading to {}",
+                    Math.round(percentile * 100), TimeUnit.NANOSECONDS.toMillis(tickNanos),
+                    TimeUnit.NANOSECONDS.toMillis(budgetNanos), TimeUnit.NANOSECONDS.toMillis(slowestRoomNanos), next);
+        } else {
+            logger.info("Tick back within budget: p{} {} ms; recovering to {}",
+                    Math.round(percentile * 100), TimeUnit.NANOSECONDS.toMillis(tickNanos), next);
+        }
+    }
+
+    /**
+     * @return steps between hit tests of distant bullets for this tick; 1 unless
+     *         collision checks are coarsened
+     */
+    int collisionStride() {
+        return level.compareTo(Level.COLLISION) >= 0 ? collisionStride : 1;
+    }
+
+    /**
+     * Decides whether a room's new state is published now. A large room whose broadcast
+     * is throttled is marked pending instead, and goes out with its next due update.
+     * Must be called with the room lock held.
+     */
+    public boolean shouldBroadcast(RoomStateCache.Room room, GameState state) {
+        long now = System.currentTimeMillis();
+        if (level.compareTo(Level.BROADCAST) >= 0
+                && state.getPlayerCount() >= largeRoomPlayers
+                && now - room.lastBroadcastAt < broadcastIntervalMs) {
+            room.broadcastPending = true;
+            skippedBroadcasts.increment();
+            return false;
+        }
+        room.lastBroadcastAt = now;
+        room.broadcastPending = false;
+        return true;
+    }
+
+    /**
+     * @return true if a throttled update of the room has not been published yet; must be
+     *         called with the room lock held
+     */
+    boolean isBroadcastPending(RoomStateCache.Room room) {
+        return room.broadcastPending;
+    }
+
+    /**
+     * Picks the events of a batch to drop while inputs are shed.
+     *
+     * @return indices of the events to skip; empty unless inputs are shed
+     */
+    public Set<Integer> shedInputs(List<PlayerEvent> events) {
+        if (level != Level.INPUT) {
+            return Set.of();
+        }
+        Set<Integer> shed = new HashSet<>();
+        Set<String> laterMoves = new HashSet<>();
+        // Walk backwards so the last MOVE of each player is the one kept
+        for (int i = events.size() - 1; i >= 0; i--) {
+            PlayerEvent event = events.get(i);
+            if (event == null || event.getActionType() == null) {
+                continue;
+            }
+            boolean drop = switch (event.getActionType()) {
+                case JUMP -> true;
+                case MOVE -> !laterMoves.add(event.getRoomId() + '\u0000' + event.getPlayerId());
+                default -> false;
+            };
+            if (drop) {
+                shed.add(i);
+                shedInputs.get(event.getActionType()).increment();
+            }
+        }
+        return shed;
+    }
+}
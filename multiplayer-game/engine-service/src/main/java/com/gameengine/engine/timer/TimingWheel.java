@@ -0,0 +1,134 @@
+package com.gameengine.engine.timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * Level 0 has wheelSize buckets of tickMs each; every level above has buckets as wide
+ * as the whole level below. A timer sits in the lowest level whose span reaches its
+ * deadline and cascades down one level each time the clock enters its bucket, so
+ * scheduling is O(1) and each advance touches only the buckets the clock passes.
+ * Deadlines beyond the top level park in the top level and are re-placed on each pass.
+ *
+ * {@link #schedule} may be called from any thread; {@link #advance} must be called from
+ * a single thread. Expired items are returned in deadline-bucket order, not sorted
+ * within a bucket.
+ *
+ * @param <T> Timer payload
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTickMs;
+    private final List<List<ArrayDeque<Entry<T>>>> levels = new ArrayList<>();
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private long currentTime;
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, int levelCount, long startTimeMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTickMs = new long[levelCount];
+        long levelTick = tickMs;
+        for (int level = 0; level < levelCount; level++) {
+            levelTickMs[level] = levelTick;
+            List<ArrayDeque<Entry<T>>> buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayDeque<>());
+            }
+            levels.add(buckets);
+            levelTick *= wheelSize;
+        }
+        this.currentTime = startTimeMs - (startTimeMs % tickMs);
+    }
+
+    /**
+     * Schedules an item. It is returned by the first {@link #advance} whose time is at
+     * or after its deadline, rounded up to the next tick.
+     */
+    public void schedule(T item, long deadlineMs) {
+        // Round up so nothing fires before its deadline
+        long due = ((deadlineMs + tickMs - 1) / tickMs) * tickMs;
+        incoming.add(new Entry<>(item, due));
+    }
+
+    /**
+     * Moves the clock forward and collects everything that expired on the way.
+     *
+     * @param nowMs Current time
+     * @return expired items
+     */
+    public List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        Entry<T> entry;
+        while ((entry = incoming.poll()) != null) {
+            place(entry, expired);
+        }
+
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // Cascade from the top so entries can fall through several levels at once
+            for (int level = levelTickMs.length - 1; level > 0; level--) {
+                if (currentTime % levelTickMs[level] == 0) {
+                    ArrayDeque<Entry<T>> bucket = bucket(level, currentTime);
+                    int count = bucket.size();
+                    for (int i = 0; i < count; i++) {
+                        size--;
+                        place(bucket.poll(), expired);
+                    }
+                }
+            }
+            ArrayDeque<Entry<T>> due = bucket(0, currentTime);
+            while ((entry = due.poll()) != null) {
+                size--;
+                expired.add(entry.item);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return number of timers held in the wheel, excluding ones not yet drained from
+     *         the incoming queue
+     */
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry, List<T> expired) {
+        if (entry.due <= currentTime) {
+            expired.add(entry.item);
+            return;
+        }
+        int top = levelTickMs.length - 1;
+        for (int level = 0; level <= top; level++) {
+            long levelTick = levelTickMs[level];
+            long levelStart = currentTime - (currentTime % levelTick);
+            if (entry.due < levelStart + levelTick * wheelSize || level == top) {
+                bucket(level, entry.due).add(entry);
+                size++;
+                return;
+            }
+        }
+    }
+
+    private ArrayDeque<Entry<T>> bucket(int level, long time) {
+        return levels.get(level).get((int) ((time / levelTickMs[level]) % wheelSize));
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long due;
+
+        private Entry(T item, long due) {
+            this.item = item;
+            this.due = due;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- Takes ownership of a room by issuing the next fencing token. Writes carrying an older token
+-- are rejected by save-room-state.lua from then on.
+-- KEYS[1] room hash
+-- ARGV[1] TTL in seconds for a room with no state yet
+-- Returns the new fencing token
+
+-- Rooms saved before the hash layout are short-lived; start them over
+if redis.call('TYPE', KEYS[1]).ok == 'string' then
+    redis.call('DEL', KEYS[1])
+end
+
+local fence = redis.call('HINCRBY', KEYS[1], 'fence', 1)
+if redis.call('TTL', KEYS[1]) < 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+end
+return fence
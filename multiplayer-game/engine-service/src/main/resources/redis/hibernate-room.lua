@@ -0,0 +1,25 @@
+-- Moves an idle room's state to a compact cold key, leaving a stub in its hash that keeps the
+-- fencing token and the summary fields.
+-- KEYS[1] room hash, KEYS[2] cold key
+-- ARGV[1] writer's fencing token, ARGV[2] version the packed state was taken at,
+-- ARGV[3] TTL in seconds of the cold key and the stub, ARGV[4] packed state
+-- Returns 1 hibernated, 0 Redis holds another version, -1 fenced off by a newer owner
+
+local fence = tonumber(redis.call('HGET', KEYS[1], 'fence'))
+if fence ~= tonumber(ARGV[1]) then
+    return -1
+end
+if tonumber(redis.call('HGET', KEYS[1], 'version')) ~= tonumber(ARGV[2]) then
+    return 0
+end
+
+redis.call('SET', KEYS[2], ARGV[4], 'EX', ARGV[3])
+local keep = { fence = true, version = true, players = true, lastUpdated = true }
+for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do
+    if not keep[field] then
+        redis.call('HDEL', KEYS[1], field)
+    end
+end
+redis.call('HSET', KEYS[1], 'hibernated', '1')
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+return 1
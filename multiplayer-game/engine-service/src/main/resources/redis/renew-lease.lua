@@ -0,0 +1,17 @@
+-- Acquires or renews a lease held by one instance at a time. Checking the holder and
+-- extending the lease in one script keeps a lapsed lease from being renewed over a new holder.
+-- KEYS[1] lease key
+-- ARGV[1] instance ID
+-- ARGV[2] lease in milliseconds
+-- Returns 1 if the caller holds the lease, 0 otherwise
+
+local holder = redis.call('GET', KEYS[1])
+if not holder then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return 1
+end
+if holder == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
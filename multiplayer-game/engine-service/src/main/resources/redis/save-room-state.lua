@@ -0,0 +1,48 @@
+-- Writes changed fields of a room's hash, only if they come from the current owner and are newer
+-- than what is stored.
+-- KEYS[1] room hash
+-- ARGV[1] state version, ARGV[2] writer's fencing token, ARGV[3] TTL in seconds, or 0 to keep
+-- the current TTL, ARGV[4] '1' to replace the whole hash, '0' to update it in place,
+-- ARGV[5] version the fields of an in-place update were diffed against,
+-- ARGV[6] number of fields to delete, followed by those field names, then field/value pairs to set
+-- Returns 1 saved, 0 stale version or diffed against another version, -1 fenced off by a newer owner,
+-- 2 partial update of a room Redis no longer holds (resend in full)
+
+local fence = tonumber(redis.call('HGET', KEYS[1], 'fence'))
+if fence and fence ~= tonumber(ARGV[2]) then
+    return -1
+end
+
+local version = tonumber(redis.call('HGET', KEYS[1], 'version'))
+if version and version >= tonumber(ARGV[1]) then
+    return 0
+end
+
+if ARGV[4] == '1' then
+    redis.call('DEL', KEYS[1])
+elseif redis.call('HEXISTS', KEYS[1], 'state') == 0 then
+    return 2
+elseif version ~= tonumber(ARGV[5]) then
+    -- Saves may be pipelined; a diff only applies on top of the version it was taken from
+    return 0
+end
+
+local deleted = tonumber(ARGV[6])
+if deleted > 0 then
+    redis.call('HDEL', KEYS[1], unpack(ARGV, 7, 6 + deleted))
+end
+
+redis.call('HSET', KEYS[1], 'version', ARGV[1], 'fence', ARGV[2])
+-- Chunked to stay well inside Lua's unpack limit for rooms with many players
+local first = 7 + deleted
+while first <= #ARGV do
+    local last = math.min(first + 999, #ARGV)
+    redis.call('HSET', KEYS[1], unpack(ARGV, first, last))
+    first = last + 1
+end
+
+local ttl = tonumber(ARGV[3])
+if ttl > 0 then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+return 1
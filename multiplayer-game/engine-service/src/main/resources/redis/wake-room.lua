@@ -0,0 +1,25 @@
+-- Restores a hibernated room's fields into its hash and drops the cold key.
+-- KEYS[1] room hash, KEYS[2] cold key
+-- ARGV[1] fencing token of the owner that just claimed the room, ARGV[2] TTL in seconds,
+-- then field/value pairs to set
+-- Returns 1 restored, 0 the room is not hibernated, -1 fenced off by a newer owner
+
+local fence = tonumber(redis.call('HGET', KEYS[1], 'fence'))
+if fence ~= tonumber(ARGV[1]) then
+    return -1
+end
+if redis.call('HEXISTS', KEYS[1], 'hibernated') == 0 then
+    return 0
+end
+
+redis.call('HDEL', KEYS[1], 'hibernated')
+-- Chunked to stay well inside Lua's unpack limit for rooms with many players
+local first = 3
+while first <= #ARGV do
+    local last = math.min(first + 999, #ARGV)
+    redis.call('HSET', KEYS[1], unpack(ARGV, first, last))
+    first = last + 1
+end
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('DEL', KEYS[2])
+return 1
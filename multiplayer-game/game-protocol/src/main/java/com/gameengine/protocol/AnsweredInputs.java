@@ -0,0 +1,45 @@
+package com.gameengine.protocol;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Number of player events a 'game-state-updates' record answers, carried as a Kafka
+ * record header.
+ *
+ * The engine counts the events it has taken for a room since the room's last update and
+ * stamps the count on the next update it publishes, whatever caused it. Updates that only
+ * advance physics, such as ticks and bullet expiries, answer no events and carry no
+ * header; several events coalesced into one update are all answered by it. A consumer can
+ * therefore match updates to the events it sent for a room, in order.
+ */
+public final class AnsweredInputs {
+
+    public static final String HEADER = "answered-inputs";
+
+    private AnsweredInputs() {
+    }
+
+    /**
+     * Writes the count to a record's headers; a count of zero writes nothing.
+     */
+    public static void writeTo(Headers headers, int count) {
+        headers.remove(HEADER);
+        if (count > 0) {
+            headers.add(HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(count).array());
+        }
+    }
+
+    /**
+     * @return the number of events the record answers, 0 if it carries no count
+     */
+    public static int fromHeaders(Headers headers) {
+        Header header = headers != null ? headers.lastHeader(HEADER) : null;
+        if (header == null || header.value() == null || header.value().length != Integer.BYTES) {
+            return 0;
+        }
+        return ByteBuffer.wrap(header.value()).getInt();
+    }
+}
@@ -0,0 +1,186 @@
+package com.gameengine.protocol;
+
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * zstd compression with dictionaries shared by every service.
+ *
+ * State payloads are small and look alike: the same field names, ID prefixes and world
+ * size in every room. A dictionary trained on typical payloads lets each one compress on
+ * its own, where plain zstd or the producer's per-batch snappy would find little to reuse.
+ *
+ * Compressed frame layout:
+ * <pre>
+ * WireFormat header (TYPE_COMPRESSED), short dictionaryId, int uncompressedLength,
+ * zstd frame without magic, checksum, dictionary ID or content size
+ * </pre>
+ * Dictionaries are bundled with this module as
+ * {@code /com/gameengine/protocol/dictionaries/zstd-<id>.dict} and are never changed once
+ * published: a retrained dictionary gets a new ID, and readers keep the old files for as
+ * long as payloads compressed with them can still be read (Redis TTL, Kafka retention).
+ */
+public final class DictionaryCompressor {
+
+    /** Binary 'game-state-updates' snapshots */
+    public static final int STATE_SNAPSHOT_DICTIONARY = 1;
+    /** JSON fields of the room hashes in Redis */
+    public static final int ROOM_JSON_DICTIONARY = 2;
+
+    public static final int DEFAULT_LEVEL = 3;
+
+    private static final int HEADER_SIZE = WireFormat.HEADER_SIZE + 2 + 4;
+    private static final String RESOURCE_PATTERN = "/com/gameengine/protocol/dictionaries/zstd-%d.dict";
+    private static final int MAX_UNCOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+    private static final Map<Integer, ZstdDictDecompress> DECOMPRESS_DICTIONARIES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ZstdDecompressCtx> DECOMPRESS_CTX =
+            ThreadLocal.withInitial(() -> new ZstdDecompressCtx().setMagicless(true));
+
+    private final int dictionaryId;
+    private final ThreadLocal<ZstdCompressCtx> compressCtx;
+
+    /**
+     * @param dictionaryId ID of a bundled dictionary
+     * @param level zstd compression level
+     * @throws IllegalArgumentException if no dictionary with that ID is bundled
+     */
+    public DictionaryCompressor(int dictionaryId, int level) {
+        this(dictionaryId, loadDictionary(dictionaryId), level, true);
+    }
+
+    /**
+     * Compresses with a dictionary that is not bundled, e.g. one just trained. The
+     * dictionary is not registered for {@link #decompressIfNeeded}, so it can never stand
+     * in for a bundled dictionary with the same ID.
+     */
+    public DictionaryCompressor(int dictionaryId, byte[] dictionary, int level) {
+        this(dictionaryId, dictionary, level, false);
+    }
+
+    private DictionaryCompressor(int dictionaryId, byte[] dictionary, int level, boolean bundled) {
+        if (dictionaryId <= 0 || dictionaryId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Dictionary ID out of range: " + dictionaryId);
+        }
+        this.dictionaryId = dictionaryId;
+        ZstdDictCompress dict = new ZstdDictCompress(dictionary, level);
+        this.compressCtx = ThreadLocal.withInitial(() -> new ZstdCompressCtx()
+                .loadDict(dict)
+                .setMagicless(true)
+                .setChecksum(false)
+                .setDictID(false)
+                .setContentSize(false));
+        if (bundled) {
+            DECOMPRESS_DICTIONARIES.computeIfAbsent(dictionaryId, id -> new ZstdDictDecompress(dictionary));
+        }
+    }
+
+    /**
+     * @return true if a dictionary with this ID is bundled, and so already published
+     */
+    public static boolean isBundled(int dictionaryId) {
+        return DictionaryCompressor.class.getResource(String.format(RESOURCE_PATTERN, dictionaryId)) != null;
+    }
+
+    public int getDictionaryId() {
+        return dictionaryId;
+    }
+
+    /**
+     * @return a compressed frame, or the data itself if compressing would not make it smaller
+     */
+    public byte[] compress(byte[] data) {
+        byte[] compressed = compressCtx.get().compress(data);
+        if (HEADER_SIZE + compressed.length >= data.length) {
+            return data;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + compressed.length);
+        WireFormat.writeHeader(buffer, WireFormat.TYPE_COMPRESSED);
+        buffer.putShort((short) dictionaryId);
+        buffer.putInt(data.length);
+        buffer.put(compressed);
+        return buffer.array();
+    }
+
+    /**
+     * @return true if the payload is a compressed frame
+     */
+    public static boolean isCompressed(byte[] data) {
+        return WireFormat.isBinaryFrame(data) && data[2] == WireFormat.TYPE_COMPRESSED;
+    }
+
+    /**
+     * Decompresses a frame written by any compressor, using the dictionary named in its header.
+     *
+     * @return the original payload, or the data itself if it is not a compressed frame
+     * @throws IllegalArgumentException if the frame is malformed or its dictionary is unknown
+     */
+    public static byte[] decompressIfNeeded(byte[] data) {
+        if (!isCompressed(data)) {
+            return data;
+        }
+        if (data.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Truncated compressed frame");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        WireFormat.readHeader(buffer, WireFormat.TYPE_COMPRESSED);
+        int dictionaryId = buffer.getShort();
+        int length = buffer.getInt();
+        if (length < 0 || length > MAX_UNCOMPRESSED_BYTES) {
+            throw new IllegalArgumentException("Invalid uncompressed length " + length);
+        }
+        ZstdDictDecompress dict = DECOMPRESS_DICTIONARIES.computeIfAbsent(dictionaryId,
+                id -> new ZstdDictDecompress(loadDictionary(id)));
+
+        ZstdDecompressCtx ctx = DECOMPRESS_CTX.get();
+        ctx.loadDict(dict);
+        byte[] out = new byte[length];
+        int written = ctx.decompressByteArray(out, 0, length, data, HEADER_SIZE, data.length - HEADER_SIZE);
+        if (written != length) {
+            throw new IllegalArgumentException("Compressed frame decoded to " + written + " bytes, expected " + length);
+        }
+        return out;
+    }
+
+    /**
+     * Trains a dictionary from sample payloads.
+     *
+     * @param samples Typical payloads, ideally a few thousand
+     * @param dictionarySize Target dictionary size in bytes
+     */
+    public static byte[] train(List<byte[]> samples, int dictionarySize) {
+        long total = 0;
+        for (byte[] sample : samples) {
+            total += sample.length;
+        }
+        ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(Integer.MAX_VALUE, total + samples.size()),
+                dictionarySize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return trainer.trainSamples();
+    }
+
+    private static byte[] loadDictionary(int dictionaryId) {
+        String resource = String.format(RESOURCE_PATTERN, dictionaryId);
+        try (InputStream in = DictionaryCompressor.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown compression dictionary " + dictionaryId);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read compression dictionary " + dictionaryId, e);
+        }
+    }
+}
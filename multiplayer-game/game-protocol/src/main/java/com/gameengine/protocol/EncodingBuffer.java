@@ -0,0 +1,55 @@
+package com.gameengine.protocol;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Per-thread scratch buffer for encoding messages into exactly-sized byte arrays.
+ * 
+ * The scratch buffer is reused across calls and doubled when a message does not fit,
+ * so steady-state encoding allocates only the returned array.
+ */
+public final class EncodingBuffer {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_CAPACITY = 64 * 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> SCRATCH =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_CAPACITY));
+
+    private EncodingBuffer() {
+    }
+
+    /**
+     * Writes a message into a ByteBuffer.
+     */
+    @FunctionalInterface
+    public interface Encoder {
+        void encode(ByteBuffer buffer);
+    }
+
+    /**
+     * Runs the encoder against the thread's scratch buffer and returns the written bytes.
+     * The encoder may be invoked more than once if the buffer has to grow.
+     */
+    public static byte[] encode(Encoder encoder) {
+        ByteBuffer buffer = SCRATCH.get();
+        while (true) {
+            buffer.clear();
+            try {
+                encoder.encode(buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                if (buffer.capacity() >= MAX_CAPACITY) {
+                    throw new IllegalStateException("Message exceeds " + MAX_CAPACITY + " bytes", e);
+                }
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                SCRATCH.set(buffer);
+            }
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,69 @@
+package com.gameengine.protocol;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A run of player actions for one room, published to 'player-events' as a single record.
+ *
+ * Producers that see several actions for a room at once (a gateway draining its queue,
+ * the simulator) can send them together: the engine decodes the record in one pass with
+ * {@link InputBatchCodec} and applies the actions in order. A record holding a single
+ * {@link PlayerEvent} is read as a batch of one.
+ */
+public class InputBatch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String roomId;
+    private List<PlayerEvent> events;
+
+    public InputBatch() {
+        this.events = new ArrayList<>();
+    }
+
+    public InputBatch(String roomId, List<PlayerEvent> events) {
+        this.roomId = roomId;
+        this.events = events;
+    }
+
+    /**
+     * @return a batch holding one event, or null for a null event
+     */
+    public static InputBatch of(PlayerEvent event) {
+        if (event == null) {
+            return null;
+        }
+        List<PlayerEvent> events = new ArrayList<>(1);
+        events.add(event);
+        return new InputBatch(event.getRoomId(), events);
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+        this.roomId = roomId;
+    }
+
+    public List<PlayerEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<PlayerEvent> events) {
+        this.events = events;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    @Override
+    public String toString() {
+        return "InputBatch{" +
+                "roomId='" + roomId + '\'' +
+                ", events=" + events.size() +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.gameengine.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zero-reflection codec for {@link InputBatch}.
+ *
+ * The room ID and a base timestamp are written once; each action carries only what
+ * differs. Layout after the frame header:
+ * <pre>
+ * string roomId, long baseTimestamp, int count,
+ * count x (string playerId, byte actionType (-1 = none), int timestamp - baseTimestamp,
+ *          byte flags (1 = position, 2 = velocity), [double x, double y], [double vx, double vy])
+ * </pre>
+ * Decoded events share the batch's room ID string.
+ */
+public final class InputBatchCodec {
+
+    private static final int FLAG_POSITION = 1;
+    private static final int FLAG_VELOCITY = 2;
+    private static final PlayerEvent.ActionType[] ACTION_TYPES = PlayerEvent.ActionType.values();
+
+    private InputBatchCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if an event belongs to another room, or its
+     *                                  timestamp is too far from the first event's
+     */
+    public static void encode(InputBatch batch, ByteBuffer buffer) {
+        List<PlayerEvent> events = batch.getEvents();
+        long baseTimestamp = events.isEmpty() ? 0 : events.get(0).getTimestamp();
+        WireFormat.writeHeader(buffer, WireFormat.TYPE_INPUT_BATCH);
+        WireFormat.writeString(buffer, batch.getRoomId());
+        buffer.putLong(baseTimestamp);
+        buffer.putInt(events.size());
+        for (PlayerEvent event : events) {
+            if (event.getRoomId() != null && !event.getRoomId().equals(batch.getRoomId())) {
+                throw new IllegalArgumentException("Event for room " + event.getRoomId()
+                        + " in batch for room " + batch.getRoomId());
+            }
+            WireFormat.writeString(buffer, event.getPlayerId());
+            buffer.put(event.getActionType() != null ? (byte) event.getActionType().ordinal() : (byte) -1);
+            buffer.putInt(Math.toIntExact(event.getTimestamp() - baseTimestamp));
+
+            Position position = event.getPosition();
+            Velocity velocity = event.getVelocity();
+            int flags = (position != null ? FLAG_POSITION : 0) | (velocity != null ? FLAG_VELOCITY : 0);
+            buffer.put((byte) flags);
+            if (position != null) {
+                buffer.putDouble(position.getX());
+                buffer.putDouble(position.getY());
+            }
+            if (velocity != null) {
+                buffer.putDouble(velocity.getVx());
+                buffer.putDouble(velocity.getVy());
+            }
+        }
+    }
+
+    public static byte[] toBytes(InputBatch batch) {
+        return EncodingBuffer.encode(buffer -> encode(batch, buffer));
+    }
+
+    public static InputBatch decode(ByteBuffer buffer) {
+        WireFormat.readHeader(buffer, WireFormat.TYPE_INPUT_BATCH);
+        String roomId = WireFormat.readString(buffer);
+        long baseTimestamp = buffer.getLong();
+        int count = buffer.getInt();
+        // Each action takes at least 8 bytes; guards the allocation against a corrupt count
+        if (count < 0 || count > buffer.remaining() / 8) {
+            throw new IllegalArgumentException("Invalid action count " + count);
+        }
+        List<PlayerEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PlayerEvent event = new PlayerEvent();
+            event.setRoomId(roomId);
+            event.setPlayerId(WireFormat.readString(buffer));
+            byte actionType = buffer.get();
+            event.setActionType(actionType >= 0 && actionType < ACTION_TYPES.length ? ACTION_TYPES[actionType] : null);
+            event.setTimestamp(baseTimestamp + buffer.getInt());
+
+            int flags = buffer.get();
+            if ((flags & FLAG_POSITION) != 0) {
+                event.setPosition(new Position(buffer.getDouble(), buffer.getDouble()));
+            }
+            if ((flags & FLAG_VELOCITY) != 0) {
+                event.setVelocity(new Velocity(buffer.getDouble(), buffer.getDouble()));
+            }
+            events.add(event);
+        }
+        return new InputBatch(roomId, events);
+    }
+}
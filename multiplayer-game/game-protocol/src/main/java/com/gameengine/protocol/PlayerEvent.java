@@ -1,11 +1,14 @@
-package com.gameengine.simulator.model;
+package com.gameengine.protocol;
 
 import java.io.Serializable;
 import java.time.Instant;
 
 /**
- * Represents a player action event for the simulator.
- * This matches the event structure used by the engine service.
+ * Represents a player action event in the game.
+ * This event is published to Kafka topic 'player-events' with roomId as the partition key.
+ * 
+ * This is the single definition shared by gateway-service, engine-service and
+ * simulator-service; the wire form is written by {@link PlayerEventCodec}.
  */
 public class PlayerEvent implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -95,80 +98,13 @@ public class PlayerEvent implements Serializable {
                 '}';
     }
 
+    /**
+     * Available action types for players.
+     * Wire codes are the ordinals, so new values must only be appended.
+     */
     public enum ActionType {
         MOVE,
         SHOOT,
         JUMP
     }
-
-    public static class Position implements Serializable {
-        private static final long serialVersionUID = 1L;
-        
-        private double x;
-        private double y;
-
-        public Position() {}
-
-        public Position(double x, double y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public double getX() {
-            return x;
-        }
-
-        public void setX(double x) {
-            this.x = x;
-        }
-
-        public double getY() {
-            return y;
-        }
-
-        public void setY(double y) {
-            this.y = y;
-        }
-
-        @Override
-        public String toString() {
-            return "Position{x=" + x + ", y=" + y + '}';
-        }
-    }
-
-    public static class Velocity implements Serializable {
-        private static final long serialVersionUID = 1L;
-        
-        private double vx;
-        private double vy;
-
-        public Velocity() {}
-
-        public Velocity(double vx, double vy) {
-            this.vx = vx;
-            this.vy = vy;
-        }
-
-        public double getVx() {
-            return vx;
-        }
-
-        public void setVx(double vx) {
-            this.vx = vx;
-        }
-
-        public double getVy() {
-            return vy;
-        }
-
-        public void setVy(double vy) {
-            this.vy = vy;
-        }
-
-        @Override
-        public String toString() {
-            return "Velocity{vx=" + vx + ", vy=" + vy + '}';
-        }
-    }
 }
-
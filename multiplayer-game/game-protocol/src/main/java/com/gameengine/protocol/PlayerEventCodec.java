@@ -0,0 +1,84 @@
+package com.gameengine.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Zero-reflection codec for {@link PlayerEvent}.
+ * 
+ * Layout after the frame header:
+ * <pre>
+ * string playerId, string roomId, byte actionType (-1 = none), long timestamp,
+ * byte flags (1 = position, 2 = velocity), [double x, double y], [double vx, double vy]
+ * </pre>
+ */
+public final class PlayerEventCodec {
+
+    private static final int FLAG_POSITION = 1;
+    private static final int FLAG_VELOCITY = 2;
+    private static final PlayerEvent.ActionType[] ACTION_TYPES = PlayerEvent.ActionType.values();
+
+    private PlayerEventCodec() {
+    }
+
+    public static void encode(PlayerEvent event, ByteBuffer buffer) {
+        WireFormat.writeHeader(buffer, WireFormat.TYPE_PLAYER_EVENT);
+        WireFormat.writeString(buffer, event.getPlayerId());
+        WireFormat.writeString(buffer, event.getRoomId());
+        buffer.put(event.getActionType() != null ? (byte) event.getActionType().ordinal() : (byte) -1);
+        buffer.putLong(event.getTimestamp());
+
+        Position position = event.getPosition();
+        Velocity velocity = event.getVelocity();
+        int flags = (position != null ? FLAG_POSITION : 0) | (velocity != null ? FLAG_VELOCITY : 0);
+        buffer.put((byte) flags);
+        if (position != null) {
+            buffer.putDouble(position.getX());
+            buffer.putDouble(position.getY());
+        }
+        if (velocity != null) {
+            buffer.putDouble(velocity.getVx());
+            buffer.putDouble(velocity.getVy());
+        }
+    }
+
+    public static byte[] toBytes(PlayerEvent event) {
+        return EncodingBuffer.encode(buffer -> encode(event, buffer));
+    }
+
+    public static PlayerEvent decode(ByteBuffer buffer) {
+        return decodeInto(buffer, new PlayerEvent());
+    }
+
+    /**
+     * Decodes into an existing event, reusing its position and velocity objects,
+     * so a consumer can parse a stream of events without per-event allocation
+     * beyond the ID strings.
+     */
+    public static PlayerEvent decodeInto(ByteBuffer buffer, PlayerEvent target) {
+        WireFormat.readHeader(buffer, WireFormat.TYPE_PLAYER_EVENT);
+        target.setPlayerId(WireFormat.readString(buffer));
+        target.setRoomId(WireFormat.readString(buffer));
+        byte actionType = buffer.get();
+        target.setActionType(actionType >= 0 && actionType < ACTION_TYPES.length ? ACTION_TYPES[actionType] : null);
+        target.setTimestamp(buffer.getLong());
+
+        int flags = buffer.get();
+        if ((flags & FLAG_POSITION) != 0) {
+            Position position = target.getPosition() != null ? target.getPosition() : new Position();
+            position.setX(buffer.getDouble());
+            position.setY(buffer.getDouble());
+            target.setPosition(position);
+        } else {
+            target.setPosition(null);
+        }
+        if ((flags & FLAG_VELOCITY) != 0) {
+            Velocity velocity = target.getVelocity() != null ? target.getVelocity() : new Velocity();
+            velocity.setVx(buffer.getDouble());
+            velocity.setVy(buffer.getDouble());
+            target.setVelocity(velocity);
+        } else {
+            target.setVelocity(null);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,47 @@
+package com.gameengine.protocol;
+
+import java.io.Serializable;
+
+/**
+ * 2D Position representation
+ */
+public class Position implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private double x;
+    private double y;
+
+    public Position() {}
+
+    public Position(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public void setX(double x) {
+        this.x = x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public void setY(double y) {
+        this.y = y;
+    }
+
+    public double distance(Position other) {
+        double dx = this.x - other.x;
+        double dy = this.y - other.y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public String toString() {
+        return "Position{x=" + x + ", y=" + y + '}';
+    }
+}
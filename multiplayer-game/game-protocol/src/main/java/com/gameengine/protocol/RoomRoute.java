@@ -0,0 +1,69 @@
+package com.gameengine.protocol;
+
+/**
+ * Explicit player-events partition for a room, stored in the Redis ownership directory.
+ *
+ * Rooms without a directory entry are routed by Kafka's key hash on roomId. Once the
+ * engine rebalancer moves a room, the gateway sends that room's events to the recorded
+ * partition and the engine forwards any stragglers that still arrive on the old one.
+ *
+ * Directory layout (Redis hash, field = roomId, value = "partition:epoch"):
+ *   room-directory          committed routes, written only by the owning partition's consumer
+ *   room-directory:pending  requested moves, value = target partition
+ */
+public final class RoomRoute {
+
+    public static final String DIRECTORY_KEY = "room-directory";
+    public static final String PENDING_KEY = "room-directory:pending";
+
+    private final int partition;
+    private final long epoch;
+
+    public RoomRoute(int partition, long epoch) {
+        this.partition = partition;
+        this.epoch = epoch;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    /**
+     * Incremented on every handoff so readers can tell which of two routes is newer.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public RoomRoute moveTo(int newPartition) {
+        return new RoomRoute(newPartition, epoch + 1);
+    }
+
+    public String encode() {
+        return partition + ":" + epoch;
+    }
+
+    /**
+     * @return the decoded route, or null if the value is missing or malformed
+     */
+    public static RoomRoute decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(':');
+        try {
+            if (separator < 0) {
+                return new RoomRoute(Integer.parseInt(value), 0);
+            }
+            return new RoomRoute(Integer.parseInt(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RoomRoute{partition=" + partition + ", epoch=" + epoch + '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.gameengine.protocol;
+
+import java.util.List;
+
+/**
+ * Room metadata that can be read without loading the room's state, for lobby and
+ * matchmaking queries.
+ *
+ * Rooms are stored by engine-service as a Redis hash under "room:&lt;roomId&gt;". The summary
+ * fields are plain decimal strings next to the serialized players and bullets:
+ *   players      number of players in the room
+ *   version      state version, incremented on every change
+ *   lastUpdated  game time of the last change, epoch millis
+ */
+public final class RoomSummary {
+
+    public static final String KEY_PREFIX = "room:";
+    public static final String PLAYERS_FIELD = "players";
+    public static final String VERSION_FIELD = "version";
+    public static final String LAST_UPDATED_FIELD = "lastUpdated";
+
+    /**
+     * Field order expected by {@link #decode}.
+     */
+    public static final List<String> FIELDS = List.of(PLAYERS_FIELD, VERSION_FIELD, LAST_UPDATED_FIELD);
+
+    private final String roomId;
+    private final int playerCount;
+    private final long version;
+    private final long lastUpdated;
+
+    public RoomSummary(String roomId, int playerCount, long version, long lastUpdated) {
+        this.roomId = roomId;
+        this.playerCount = playerCount;
+        this.version = version;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    /**
+     * @param roomId Room identifier
+     * @param values Values of {@link #FIELDS}, in order, as returned by HMGET
+     * @return the decoded summary, or null if the room does not exist or is malformed
+     */
+    public static RoomSummary decode(String roomId, List<String> values) {
+        if (values == null || values.size() < FIELDS.size() || values.get(0) == null) {
+            return null;
+        }
+        try {
+            return new RoomSummary(roomId,
+                    Integer.parseInt(values.get(0)),
+                    values.get(1) != null ? Long.parseLong(values.get(1)) : 0,
+                    values.get(2) != null ? Long.parseLong(values.get(2)) : 0);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RoomSummary{roomId='" + roomId + "', playerCount=" + playerCount +
+                ", version=" + version + ", lastUpdated=" + lastUpdated + '}';
+    }
+}
@@ -0,0 +1,211 @@
+package com.gameengine.protocol;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoded form of a 'game-state-updates' message, as delivered to clients.
+ * 
+ * For a full update, players and bullets hold the complete room state. For a diff,
+ * players holds updated players, bullets holds new bullets, and the removed lists
+ * hold IDs that left the room. The wire form is written by {@link StateSnapshotCodec}.
+ */
+public class StateSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String roomId;
+    private long version;
+    private long timestamp;
+    private boolean fullUpdate;
+    private List<PlayerState> players;
+    private List<BulletState> bullets;
+    private List<String> removedPlayers;
+    private List<String> removedBullets;
+
+    public StateSnapshot() {
+        this.players = new ArrayList<>();
+        this.bullets = new ArrayList<>();
+        this.removedPlayers = new ArrayList<>();
+        this.removedBullets = new ArrayList<>();
+    }
+
+    // Getters and Setters
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+        this.roomId = roomId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean isFullUpdate() {
+        return fullUpdate;
+    }
+
+    public void setFullUpdate(boolean fullUpdate) {
+        this.fullUpdate = fullUpdate;
+    }
+
+    public List<PlayerState> getPlayers() {
+        return players;
+    }
+
+    public void setPlayers(List<PlayerState> players) {
+        this.players = players;
+    }
+
+    public List<BulletState> getBullets() {
+        return bullets;
+    }
+
+    public void setBullets(List<BulletState> bullets) {
+        this.bullets = bullets;
+    }
+
+    public List<String> getRemovedPlayers() {
+        return removedPlayers;
+    }
+
+    public void setRemovedPlayers(List<String> removedPlayers) {
+        this.removedPlayers = removedPlayers;
+    }
+
+    public List<String> getRemovedBullets() {
+        return removedBullets;
+    }
+
+    public void setRemovedBullets(List<String> removedBullets) {
+        this.removedBullets = removedBullets;
+    }
+
+    @Override
+    public String toString() {
+        return "StateSnapshot{" +
+                "roomId='" + roomId + '\'' +
+                ", version=" + version +
+                ", fullUpdate=" + fullUpdate +
+                ", playerCount=" + players.size() +
+                ", bulletCount=" + bullets.size() +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+
+    public static class PlayerState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String playerId;
+        private Position position;
+        private Velocity velocity;
+        private int health;
+
+        public PlayerState() {}
+
+        public PlayerState(String playerId, Position position, Velocity velocity, int health) {
+            this.playerId = playerId;
+            this.position = position;
+            this.velocity = velocity;
+            this.health = health;
+        }
+
+        // Getters and Setters
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public void setPlayerId(String playerId) {
+            this.playerId = playerId;
+        }
+
+        public Position getPosition() {
+            return position;
+        }
+
+        public void setPosition(Position position) {
+            this.position = position;
+        }
+
+        public Velocity getVelocity() {
+            return velocity;
+        }
+
+        public void setVelocity(Velocity velocity) {
+            this.velocity = velocity;
+        }
+
+        public int getHealth() {
+            return health;
+        }
+
+        public void setHealth(int health) {
+            this.health = health;
+        }
+    }
+
+    public static class BulletState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String bulletId;
+        private String shooterId;
+        private Position position;
+        private Velocity velocity;
+
+        public BulletState() {}
+
+        public BulletState(String bulletId, String shooterId, Position position, Velocity velocity) {
+            this.bulletId = bulletId;
+            this.shooterId = shooterId;
+            this.position = position;
+            this.velocity = velocity;
+        }
+
+        // Getters and Setters
+        public String getBulletId() {
+            return bulletId;
+        }
+
+        public void setBulletId(String bulletId) {
+            this.bulletId = bulletId;
+        }
+
+        public String getShooterId() {
+            return shooterId;
+        }
+
+        public void setShooterId(String shooterId) {
+            this.shooterId = shooterId;
+        }
+
+        public Position getPosition() {
+            return position;
+        }
+
+        public void setPosition(Position position) {
+            this.position = position;
+        }
+
+        public Velocity getVelocity() {
+            return velocity;
+        }
+
+        public void setVelocity(Velocity velocity) {
+            this.velocity = velocity;
+        }
+    }
+}
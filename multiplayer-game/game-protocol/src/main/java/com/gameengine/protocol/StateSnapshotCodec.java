@@ -0,0 +1,198 @@
+package com.gameengine.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Zero-reflection codec for 'game-state-updates' messages.
+ * 
+ * Layout after the frame header:
+ * <pre>
+ * string roomId, long version, long timestamp, byte flags (1 = full update),
+ * int playerCount, playerCount x (string playerId, double x, double y, double vx, double vy, int health),
+ * int bulletCount, bulletCount x (string bulletId, string shooterId, double x, double y, double vx, double vy),
+ * int removedPlayerCount, removedPlayerCount x string,
+ * int removedBulletCount, removedBulletCount x string
+ * </pre>
+ * The write methods let a producer stream its own model straight into the buffer,
+ * in the order above, without building a {@link StateSnapshot} first.
+ */
+public final class StateSnapshotCodec {
+
+    private static final int FLAG_FULL_UPDATE = 1;
+    // Bytes after the ID strings: four doubles, plus a player's int health
+    private static final int PLAYER_FIXED_SIZE = 4 * Double.BYTES + Integer.BYTES;
+    private static final int BULLET_FIXED_SIZE = 4 * Double.BYTES;
+
+    private StateSnapshotCodec() {
+    }
+
+    public static void writeHeader(ByteBuffer buffer, String roomId, long version, long timestamp, boolean fullUpdate) {
+        WireFormat.writeHeader(buffer, WireFormat.TYPE_STATE_SNAPSHOT);
+        WireFormat.writeString(buffer, roomId);
+        buffer.putLong(version);
+        buffer.putLong(timestamp);
+        buffer.put((byte) (fullUpdate ? FLAG_FULL_UPDATE : 0));
+    }
+
+    /**
+     * Writes the element count that precedes the players or bullets section.
+     */
+    public static void writeCount(ByteBuffer buffer, int count) {
+        buffer.putInt(count);
+    }
+
+    public static void writePlayer(ByteBuffer buffer, String playerId, Position position, Velocity velocity, int health) {
+        WireFormat.writeString(buffer, playerId);
+        writeVector(buffer, position, velocity);
+        buffer.putInt(health);
+    }
+
+    public static void writeBullet(ByteBuffer buffer, String bulletId, String shooterId, Position position, Velocity velocity) {
+        WireFormat.writeString(buffer, bulletId);
+        WireFormat.writeString(buffer, shooterId);
+        writeVector(buffer, position, velocity);
+    }
+
+    /**
+     * Writes a counted list of IDs (removed players or removed bullets).
+     */
+    public static void writeIds(ByteBuffer buffer, Collection<String> ids) {
+        buffer.putInt(ids.size());
+        for (String id : ids) {
+            WireFormat.writeString(buffer, id);
+        }
+    }
+
+    public static void encode(StateSnapshot snapshot, ByteBuffer buffer) {
+        writeHeader(buffer, snapshot.getRoomId(), snapshot.getVersion(), snapshot.getTimestamp(), snapshot.isFullUpdate());
+        writeCount(buffer, snapshot.getPlayers().size());
+        for (StateSnapshot.PlayerState player : snapshot.getPlayers()) {
+            writePlayer(buffer, player.getPlayerId(), player.getPosition(), player.getVelocity(), player.getHealth());
+        }
+        writeCount(buffer, snapshot.getBullets().size());
+        for (StateSnapshot.BulletState bullet : snapshot.getBullets()) {
+            writeBullet(buffer, bullet.getBulletId(), bullet.getShooterId(), bullet.getPosition(), bullet.getVelocity());
+        }
+        writeIds(buffer, snapshot.getRemovedPlayers());
+        writeIds(buffer, snapshot.getRemovedBullets());
+    }
+
+    public static byte[] toBytes(StateSnapshot snapshot) {
+        return EncodingBuffer.encode(buffer -> encode(snapshot, buffer));
+    }
+
+    public static StateSnapshot decode(ByteBuffer buffer) {
+        WireFormat.readHeader(buffer, WireFormat.TYPE_STATE_SNAPSHOT);
+        StateSnapshot snapshot = new StateSnapshot();
+        snapshot.setRoomId(WireFormat.readString(buffer));
+        snapshot.setVersion(buffer.getLong());
+        snapshot.setTimestamp(buffer.getLong());
+        snapshot.setFullUpdate((buffer.get() & FLAG_FULL_UPDATE) != 0);
+
+        int playerCount = buffer.getInt();
+        List<StateSnapshot.PlayerState> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            String playerId = WireFormat.readString(buffer);
+            Position position = new Position(buffer.getDouble(), buffer.getDouble());
+            Velocity velocity = new Velocity(buffer.getDouble(), buffer.getDouble());
+            players.add(new StateSnapshot.PlayerState(playerId, position, velocity, buffer.getInt()));
+        }
+        snapshot.setPlayers(players);
+
+        int bulletCount = buffer.getInt();
+        List<StateSnapshot.BulletState> bullets = new ArrayList<>(bulletCount);
+        for (int i = 0; i < bulletCount; i++) {
+            String bulletId = WireFormat.readString(buffer);
+            String shooterId = WireFormat.readString(buffer);
+            Position position = new Position(buffer.getDouble(), buffer.getDouble());
+            Velocity velocity = new Velocity(buffer.getDouble(), buffer.getDouble());
+            bullets.add(new StateSnapshot.BulletState(bulletId, shooterId, position, velocity));
+        }
+        snapshot.setBullets(bullets);
+
+        snapshot.setRemovedPlayers(readIds(buffer));
+        snapshot.setRemovedBullets(readIds(buffer));
+        return snapshot;
+    }
+
+    /**
+     * Reads the version, the flags and the player counts of a frame without decoding its
+     * players and bullets, for readers that pass the frame on as it is.
+     */
+    public static Summary peek(ByteBuffer buffer) {
+        WireFormat.readHeader(buffer, WireFormat.TYPE_STATE_SNAPSHOT);
+        WireFormat.skipString(buffer);
+        long version = buffer.getLong();
+        buffer.getLong();
+        boolean fullUpdate = (buffer.get() & FLAG_FULL_UPDATE) != 0;
+
+        int playerCount = buffer.getInt();
+        for (int i = 0; i < playerCount; i++) {
+            WireFormat.skipString(buffer);
+            buffer.position(buffer.position() + PLAYER_FIXED_SIZE);
+        }
+        int bulletCount = buffer.getInt();
+        for (int i = 0; i < bulletCount; i++) {
+            WireFormat.skipString(buffer);
+            WireFormat.skipString(buffer);
+            buffer.position(buffer.position() + BULLET_FIXED_SIZE);
+        }
+        int removedPlayerCount = buffer.getInt();
+        return new Summary(version, fullUpdate, playerCount, removedPlayerCount);
+    }
+
+    /**
+     * What {@link #peek} reads from a frame.
+     */
+    public static final class Summary {
+        private final long version;
+        private final boolean fullUpdate;
+        private final int playerCount;
+        private final int removedPlayerCount;
+
+        Summary(long version, boolean fullUpdate, int playerCount, int removedPlayerCount) {
+            this.version = version;
+            this.fullUpdate = fullUpdate;
+            this.playerCount = playerCount;
+            this.removedPlayerCount = removedPlayerCount;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isFullUpdate() {
+            return fullUpdate;
+        }
+
+        /**
+         * @return players listed in the frame
+         */
+        public int getPlayerCount() {
+            return playerCount;
+        }
+
+        public int getRemovedPlayerCount() {
+            return removedPlayerCount;
+        }
+    }
+
+    private static List<String> readIds(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(WireFormat.readString(buffer));
+        }
+        return ids;
+    }
+
+    private static void writeVector(ByteBuffer buffer, Position position, Velocity velocity) {
+        buffer.putDouble(position != null ? position.getX() : 0);
+        buffer.putDouble(position != null ? position.getY() : 0);
+        buffer.putDouble(velocity != null ? velocity.getVx() : 0);
+        buffer.putDouble(velocity != null ? velocity.getVy() : 0);
+    }
+}
@@ -0,0 +1,147 @@
+package com.gameengine.protocol;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Latency trace of one sampled player action, carried as Kafka record headers from the
+ * gateway through 'player-events', the engine and 'game-state-updates' back to the
+ * gateway that broadcasts the result.
+ *
+ * Each service stamps the wall-clock time (epoch microseconds) at which the action passed
+ * one of the stage boundaries below; the gateway turns consecutive stamps into stage
+ * latencies. Stamps from different hosts are only as comparable as their clocks.
+ *
+ * Only sampled actions carry headers, so untraced records pay for one header lookup.
+ */
+public final class Trace {
+
+    public static final String TRACE_ID = "trace-id";
+    /** Gateway received the client's action */
+    public static final String INGRESS = "trace-ingress";
+    /** Gateway handed the event to the Kafka producer */
+    public static final String GATEWAY_SENT = "trace-gateway-sent";
+    /** Engine received the batch holding the event */
+    public static final String ENGINE_RECEIVED = "trace-engine-received";
+    /** Engine applied the event to the room */
+    public static final String ENGINE_APPLIED = "trace-engine-applied";
+    /** Engine saved (or, with async saves, sent) the room's state */
+    public static final String ENGINE_SAVED = "trace-engine-saved";
+    /** Engine handed the state update to the Kafka producer */
+    public static final String ENGINE_SENT = "trace-engine-sent";
+
+    private final String traceId;
+    private final Map<String, Long> stamps = new LinkedHashMap<>();
+
+    private Trace(String traceId) {
+        this.traceId = traceId;
+    }
+
+    /**
+     * Starts a trace at the gateway, stamped with {@link #INGRESS}.
+     */
+    public static Trace start(long ingressMicros) {
+        Trace trace = new Trace(UUID.randomUUID().toString());
+        trace.stamp(INGRESS, ingressMicros);
+        return trace;
+    }
+
+    /**
+     * @return the trace carried by a record, or null if the record is not sampled
+     */
+    public static Trace fromHeaders(Headers headers) {
+        Header id = headers != null ? headers.lastHeader(TRACE_ID) : null;
+        if (id == null) {
+            return null;
+        }
+        Trace trace = new Trace(new String(id.value(), StandardCharsets.UTF_8));
+        for (Header header : headers) {
+            trace.read(header.key(), header.value());
+        }
+        return trace;
+    }
+
+    /**
+     * Reads a trace from headers already mapped by Spring Kafka (byte[] values), as batch
+     * listeners receive them.
+     *
+     * @return the trace, or null if the record is not sampled
+     */
+    public static Trace fromMappedHeaders(Map<String, Object> headers) {
+        Object id = headers != null ? headers.get(TRACE_ID) : null;
+        if (!(id instanceof byte[] rawId)) {
+            return null;
+        }
+        Trace trace = new Trace(new String(rawId, StandardCharsets.UTF_8));
+        headers.forEach((key, value) -> {
+            if (value instanceof byte[] raw) {
+                trace.read(key, raw);
+            }
+        });
+        return trace;
+    }
+
+    /**
+     * @return the current wall-clock time in epoch microseconds
+     */
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /**
+     * Stamps a stage boundary with the current time.
+     */
+    public void stamp(String stage) {
+        stamp(stage, nowMicros());
+    }
+
+    /**
+     * Stamps a stage boundary with a time taken earlier, in epoch microseconds.
+     */
+    public void stamp(String stage, long micros) {
+        stamps.put(stage, micros);
+    }
+
+    /**
+     * @return the stage boundary's time in epoch microseconds, or -1 if not stamped
+     */
+    public long get(String stage) {
+        Long micros = stamps.get(stage);
+        return micros != null ? micros : -1;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Writes the trace ID and every stamp to a record's headers.
+     */
+    public void writeTo(Headers headers) {
+        headers.remove(TRACE_ID);
+        headers.add(TRACE_ID, traceId.getBytes(StandardCharsets.UTF_8));
+        stamps.forEach((stage, micros) -> {
+            headers.remove(stage);
+            headers.add(stage, ByteBuffer.allocate(Long.BYTES).putLong(micros).array());
+        });
+    }
+
+    private void read(String key, byte[] value) {
+        if (key.startsWith("trace-") && !TRACE_ID.equals(key) && value != null && value.length == Long.BYTES) {
+            stamps.put(key, ByteBuffer.wrap(value).getLong());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Trace{traceId='" + traceId + "', stamps=" + stamps + '}';
+    }
+}
@@ -0,0 +1,45 @@
+package com.gameengine.protocol;
+
+import java.io.Serializable;
+
+/**
+ * 2D Velocity representation
+ */
+public class Velocity implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private double vx;
+    private double vy;
+
+    public Velocity() {}
+
+    public Velocity(double vx, double vy) {
+        this.vx = vx;
+        this.vy = vy;
+    }
+
+    public double getVx() {
+        return vx;
+    }
+
+    public void setVx(double vx) {
+        this.vx = vx;
+    }
+
+    public double getVy() {
+        return vy;
+    }
+
+    public void setVy(double vy) {
+        this.vy = vy;
+    }
+
+    public double getMagnitude() {
+        return Math.sqrt(vx * vx + vy * vy);
+    }
+
+    @Override
+    public String toString() {
+        return "Velocity{vx=" + vx + ", vy=" + vy + '}';
+    }
+}
@@ -0,0 +1,141 @@
+package com.gameengine.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frame layout and primitive helpers shared by the codecs.
+ * 
+ * Every message starts with a 3-byte header: MAGIC, VERSION, message type. MAGIC is
+ * not a valid first byte of a JSON document, so readers can tell binary frames from
+ * legacy JSON payloads by looking at the first byte. All multi-byte values are
+ * big-endian (ByteBuffer default).
+ * 
+ * Strings are a signed short byte length (-1 for null) followed by UTF-8 bytes.
+ */
+public final class WireFormat {
+
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final byte VERSION = 1;
+
+    public static final byte TYPE_PLAYER_EVENT = 1;
+    public static final byte TYPE_STATE_SNAPSHOT = 2;
+    /** Another frame (or a JSON document) compressed with a shared dictionary, see {@link DictionaryCompressor} */
+    public static final byte TYPE_COMPRESSED = 3;
+    /** Several player actions for one room in one record, see {@link InputBatchCodec} */
+    public static final byte TYPE_INPUT_BATCH = 4;
+
+    public static final int HEADER_SIZE = 3;
+
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    private WireFormat() {
+    }
+
+    /**
+     * @return true if the payload starts with a binary frame header
+     */
+    public static boolean isBinaryFrame(byte[] data) {
+        return data != null && data.length >= HEADER_SIZE && data[0] == MAGIC;
+    }
+
+    public static void writeHeader(ByteBuffer buffer, byte type) {
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(type);
+    }
+
+    /**
+     * Reads and validates a frame header.
+     *
+     * @throws IllegalArgumentException if the frame is not of the expected type or version
+     */
+    public static void readHeader(ByteBuffer buffer, byte expectedType) {
+        byte magic = buffer.get();
+        byte version = buffer.get();
+        byte type = buffer.get();
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Not a protocol frame (magic " + magic + ")");
+        }
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported protocol version " + version);
+        }
+        if (type != expectedType) {
+            throw new IllegalArgumentException("Unexpected message type " + type + ", expected " + expectedType);
+        }
+    }
+
+    /**
+     * @return the message type of a binary frame; only valid if {@link #isBinaryFrame} is true
+     */
+    public static byte frameType(byte[] data) {
+        return data[2];
+    }
+
+    /**
+     * Writes a string without allocating for the common all-ASCII case.
+     */
+    public static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        int length = value.length();
+        if (length <= MAX_STRING_BYTES && isAscii(value)) {
+            buffer.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long for wire format: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Moves past a string without decoding it.
+     */
+    public static void skipString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Upper bound on the encoded size of a string.
+     */
+    public static int maxStringSize(String value) {
+        return 2 + (value == null ? 0 : value.length() * 3);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gameengine.protocol.kafka;
+
+import com.gameengine.protocol.InputBatch;
+import com.gameengine.protocol.InputBatchCodec;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link InputBatch}es in the binary wire format.
+ */
+public class InputBatchSerializer implements Serializer<InputBatch> {
+
+    @Override
+    public byte[] serialize(String topic, InputBatch batch) {
+        return batch == null ? null : InputBatchCodec.toBytes(batch);
+    }
+}
@@ -0,0 +1,26 @@
+package com.gameengine.protocol.kafka;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.PlayerEventCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka deserializer reading binary {@link PlayerEvent} frames.
+ */
+public class PlayerEventDeserializer implements Deserializer<PlayerEvent> {
+
+    @Override
+    public PlayerEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return PlayerEventCodec.decode(ByteBuffer.wrap(data));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to decode player event from topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.gameengine.protocol.kafka;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.PlayerEventCodec;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link PlayerEvent}s in the binary wire format.
+ */
+public class PlayerEventSerializer implements Serializer<PlayerEvent> {
+
+    @Override
+    public byte[] serialize(String topic, PlayerEvent event) {
+        return event == null ? null : PlayerEventCodec.toBytes(event);
+    }
+}
@@ -0,0 +1,28 @@
+package com.gameengine.protocol.kafka;
+
+import com.gameengine.protocol.DictionaryCompressor;
+import com.gameengine.protocol.StateSnapshot;
+import com.gameengine.protocol.StateSnapshotCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka deserializer reading binary 'game-state-updates' frames into {@link StateSnapshot}s.
+ * Frames compressed by the engine ({@link DictionaryCompressor}) are decompressed first.
+ */
+public class StateSnapshotDeserializer implements Deserializer<StateSnapshot> {
+
+    @Override
+    public StateSnapshot deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return StateSnapshotCodec.decode(ByteBuffer.wrap(DictionaryCompressor.decompressIfNeeded(data)));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to decode state snapshot from topic " + topic, e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.gameengine.gateway.config;
 
-import com.gameengine.gateway.dto.PlayerActionDTO;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.kafka.PlayerEventSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,7 +10,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -25,13 +25,13 @@ public class KafkaProducerConfig {
     private String bootstrapServers;
 
     @Bean
-    public ProducerFactory<String, PlayerActionDTO> playerEventProducerFactory() {
+    public ProducerFactory<String, PlayerEvent> playerEventProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         
         // Basic Kafka properties
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PlayerEventSerializer.class);
         
         // Reliability and idempotence
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
@@ -44,18 +44,13 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
-        
-        // Type mapping for JSON serializer
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        Map<String, Class<?>> typeMappings = new HashMap<>();
-        typeMappings.put("playerEvent", PlayerActionDTO.class);
-        configProps.put(JsonSerializer.TYPE_MAPPINGS, typeMappings);
+
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     @Bean(name = "playerEventKafkaTemplate")
-    public KafkaTemplate<String, PlayerActionDTO> playerEventKafkaTemplate() {
+    public KafkaTemplate<String, PlayerEvent> playerEventKafkaTemplate() {
         return new KafkaTemplate<>(playerEventProducerFactory());
     }
 }
@@ -0,0 +1,133 @@
+package com.gameengine.gateway.config;
+
+import com.gameengine.gateway.service.RoomAdmission;
+import com.gameengine.gateway.service.SnapshotBaselines;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs {@link RoomAdmission} when a client subscribes to /topic/room/{roomId} or to its
+ * per-session delta stream /user/queue/room/{roomId}.
+ *
+ * A rejected subscription fails with a STOMP ERROR frame naming the reason. Admitted
+ * subscriptions are released on UNSUBSCRIBE or when the session disconnects; delta
+ * subscriptions are also registered with {@link SnapshotBaselines} for as long.
+ *
+ * With gateway.broadcast.passthrough, room broadcasts are binary, and only sessions of
+ * the plain WebSocket endpoint receive binary frames (see {@link WebSocketConfig}); other
+ * sessions are refused /topic/room/{roomId} rather than sent corrupted frames.
+ */
+@Component
+public class RoomAdmissionInterceptor implements ChannelInterceptor {
+
+    private static final String ROOM_TOPIC_PREFIX = "/topic/room/";
+    private static final String ROOM_QUEUE_PREFIX = "/user" + SnapshotBaselines.QUEUE_PREFIX;
+
+    private final RoomAdmission roomAdmission;
+    private final SnapshotBaselines snapshotBaselines;
+    private final boolean binaryBroadcasts;
+    // sessionId -> subscriptionId -> destination
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+
+    public RoomAdmissionInterceptor(RoomAdmission roomAdmission,
+                                    SnapshotBaselines snapshotBaselines,
+                                    @Value("${gateway.broadcast.passthrough:false}") boolean binaryBroadcasts) {
+        this.roomAdmission = roomAdmission;
+        this.snapshotBaselines = snapshotBaselines;
+        this.binaryBroadcasts = binaryBroadcasts;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null || accessor.getSessionId() == null) {
+            return message;
+        }
+        String sessionId = accessor.getSessionId();
+        switch (accessor.getCommand()) {
+            case SUBSCRIBE:
+                subscribe(sessionId, accessor.getSubscriptionId(), accessor.getDestination(),
+                        accessor.getSessionAttributes());
+                break;
+            case UNSUBSCRIBE:
+                unsubscribe(sessionId, accessor.getSubscriptionId());
+                break;
+            case DISCONNECT:
+                Map<String, String> destinations = subscriptions.remove(sessionId);
+                if (destinations != null) {
+                    destinations.values().forEach(destination -> release(sessionId, destination));
+                }
+                break;
+            default:
+                break;
+        }
+        return message;
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, String destination,
+                           Map<String, Object> sessionAttributes) {
+        String roomId = roomId(destination);
+        if (subscriptionId == null || roomId == null) {
+            return;
+        }
+        if (binaryBroadcasts && destination.startsWith(ROOM_TOPIC_PREFIX)
+                && (sessionAttributes == null || !sessionAttributes.containsKey(WebSocketConfig.BINARY_SESSION_ATTRIBUTE))) {
+            throw new MessageDeliveryException("Room broadcasts are binary; connect to the plain WebSocket endpoint");
+        }
+        RoomAdmission.Decision decision = roomAdmission.admit(roomId);
+        if (decision != RoomAdmission.Decision.ADMITTED) {
+            throw new MessageDeliveryException("Cannot join room " + roomId + ": " + decision);
+        }
+        if (destination.startsWith(ROOM_QUEUE_PREFIX)) {
+            snapshotBaselines.subscribe(sessionId, roomId);
+        }
+        String previous = subscriptions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            // Subscription ID reused without UNSUBSCRIBE
+            release(sessionId, previous);
+        }
+    }
+
+    private void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> destinations = subscriptions.get(sessionId);
+        String destination = destinations != null && subscriptionId != null ? destinations.remove(subscriptionId) : null;
+        if (destination != null) {
+            release(sessionId, destination);
+        }
+    }
+
+    private void release(String sessionId, String destination) {
+        String roomId = roomId(destination);
+        roomAdmission.release(roomId);
+        if (destination.startsWith(ROOM_QUEUE_PREFIX)) {
+            snapshotBaselines.unsubscribe(sessionId, roomId);
+        }
+    }
+
+    /**
+     * @return the room a subscription is to, or null if it is not a room destination
+     */
+    private static String roomId(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        if (destination.startsWith(ROOM_TOPIC_PREFIX)) {
+            return destination.substring(ROOM_TOPIC_PREFIX.length());
+        }
+        if (destination.startsWith(ROOM_QUEUE_PREFIX)) {
+            return destination.substring(ROOM_QUEUE_PREFIX.length());
+        }
+        return null;
+    }
+}
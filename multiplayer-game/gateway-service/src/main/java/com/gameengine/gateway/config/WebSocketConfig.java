@@ -2,29 +2,53 @@ package com.gameengine.gateway.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
 
 /**
  * WebSocket configuration using STOMP protocol.
  * 
  * Endpoints:
- * - WebSocket endpoint: /ws
- * - Client subscriptions: /topic/room/{roomId}
- * - Client sends to: /app/player/action
+ * - WebSocket endpoint: /ws, with SockJS fallback
+ * - Plain WebSocket endpoint: /ws-binary, for clients of binary broadcasts. SockJS sends
+ *   every STOMP frame as text, even over its WebSocket transport, so binary frames
+ *   (gateway.broadcast.passthrough) only reach sessions connected here.
+ * - Client subscriptions: /topic/room/{roomId}, or /user/queue/room/{roomId} for deltas
+ * - Client sends to: /app/player/action, /app/room/{roomId}/ack
+ *
+ * Room subscriptions go through {@link RoomAdmissionInterceptor}.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /** Session attribute set on sessions that connected to the binary endpoint */
+    public static final String BINARY_SESSION_ATTRIBUTE = "binaryFrames";
+
     @Value("${websocket.allowed-origins:*}")
     private String allowedOrigins;
 
     @Value("${websocket.endpoint:/ws}")
     private String endpoint;
 
+    @Value("${websocket.binary-endpoint:/ws-binary}")
+    private String binaryEndpoint;
+
+    private final RoomAdmissionInterceptor roomAdmissionInterceptor;
+
+    public WebSocketConfig(RoomAdmissionInterceptor roomAdmissionInterceptor) {
+        this.roomAdmissionInterceptor = roomAdmissionInterceptor;
+    }
+
     /**
      * Configures the message broker.
      * Uses simple in-memory broker for topic subscriptions.
@@ -33,7 +57,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable simple broker for topic subscriptions
         // Clients can subscribe to: /topic/room/{roomId}
-        config.enableSimpleBroker("/topic");
+        // and, per session, to /user/queue/room/{roomId}
+        config.enableSimpleBroker("/topic", "/queue");
         
         // Prefix for messages from client to server
         // Clients send to: /app/player/action
@@ -45,7 +70,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     /**
      * Registers STOMP endpoints.
-     * Clients connect to /ws endpoint with SockJS fallback.
+     * Clients connect to /ws endpoint with SockJS fallback, or to /ws-binary for binary broadcasts.
      */
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -55,6 +80,36 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS()
                 .setHeartbeatTime(10000)  // 10 seconds
                 .setDisconnectDelay(30000); // 30 seconds
+
+        // Plain WebSocket, so application/octet-stream messages go out as binary frames
+        registry.addEndpoint(binaryEndpoint)
+                .setAllowedOriginPatterns(allowedOrigins.split(","))
+                .addInterceptors(new BinarySessionMarker());
     }
-}
 
+    /**
+     * Checks room subscriptions against the room's capacity before they reach the broker.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(roomAdmissionInterceptor);
+    }
+
+    /**
+     * Marks sessions of the binary endpoint with {@link #BINARY_SESSION_ATTRIBUTE}.
+     */
+    private static final class BinarySessionMarker implements HandshakeInterceptor {
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            attributes.put(BINARY_SESSION_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+}
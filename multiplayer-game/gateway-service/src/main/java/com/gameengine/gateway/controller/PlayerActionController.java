@@ -0,0 +1,37 @@
+package com.gameengine.gateway.controller;
+
+import com.gameengine.gateway.service.PlayerEventPublisher;
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Receives player actions sent by clients to /app/player/action and publishes them to
+ * 'player-events'.
+ */
+@Controller
+public class PlayerActionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerActionController.class);
+
+    private final PlayerEventPublisher playerEventPublisher;
+
+    public PlayerActionController(PlayerEventPublisher playerEventPublisher) {
+        this.playerEventPublisher = playerEventPublisher;
+    }
+
+    @MessageMapping("/player/action")
+    public void onPlayerAction(@Payload PlayerEvent event) {
+        // Stamped first so a sampled trace includes time spent in this gateway
+        long ingressMicros = Trace.nowMicros();
+        if (event.getRoomId() == null || event.getPlayerId() == null || event.getActionType() == null) {
+            logger.warn("Ignoring incomplete player action: {}", event);
+            return;
+        }
+        playerEventPublisher.publish(event, ingressMicros);
+    }
+}
@@ -0,0 +1,32 @@
+package com.gameengine.gateway.controller;
+
+import com.gameengine.gateway.service.SnapshotBaselines;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Receives the snapshot versions clients have applied, sent to /app/room/{roomId}/ack
+ * with the version as the body, and makes them the session's delta baseline.
+ */
+@Controller
+public class SnapshotAckController {
+
+    private final SnapshotBaselines snapshotBaselines;
+
+    public SnapshotAckController(SnapshotBaselines snapshotBaselines) {
+        this.snapshotBaselines = snapshotBaselines;
+    }
+
+    @MessageMapping("/room/{roomId}/ack")
+    public void onAck(@DestinationVariable String roomId,
+                      @Payload Long version,
+                      @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        if (version != null) {
+            snapshotBaselines.acknowledge(sessionId, roomId, version);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.gameengine.gateway.listener;
+
+import com.gameengine.gateway.service.RoomAdmission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consumes only the 'game-state-updates' partitions that carry rooms this gateway's
+ * clients are in, so a gateway's ingest grows with its own clients rather than with
+ * all the traffic.
+ *
+ * The engine keys each update by room ID without naming a partition, so a room's
+ * partition is the Kafka key hash of its ID modulo the topic's partition count; no
+ * lookup is needed. The partitions are assigned to one consumer by hand (no consumer
+ * group rebalancing) and follow {@link RoomAdmission}: when a room gets its first client
+ * on this gateway or loses its last, the consumer is woken and reassigned. A newly
+ * assigned partition is read from its end, like the group consumers' latest offset
+ * reset. Records go to whichever {@link StateUpdateHandler} is active; nothing is
+ * committed.
+ *
+ * Other rooms on an assigned partition arrive too and are broadcast to nobody; rooms on
+ * unassigned partitions are not seen, so the {@link com.gameengine.gateway.service.RoomMetadataCache}
+ * only keeps rooms with clients here current and relies on its TTL for the rest.
+ *
+ * Enabled with gateway.room-affinity.enabled (the default); the handlers' own listeners
+ * read the whole topic otherwise.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.room-affinity.enabled", havingValue = "true", matchIfMissing = true)
+public class RoomAffinityConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAffinityConsumer.class);
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final RoomAdmission roomAdmission;
+    private final StateUpdateHandler handler;
+    private final String topic;
+    private final Duration pollTimeout;
+    private final Counter reassignments;
+    private final AtomicInteger assignedPartitions = new AtomicInteger();
+    private final Object signal = new Object();
+
+    private volatile boolean running;
+    private volatile boolean reassign = true;
+    private volatile Consumer<String, byte[]> consumer;
+    private Thread thread;
+
+    public RoomAffinityConsumer(ConsumerFactory<?, ?> consumerFactory,
+                                RoomAdmission roomAdmission,
+                                StateUpdateHandler handler,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.kafka.topics.game-state-updates}") String topic,
+                                @Value("${gateway.room-affinity.poll-timeout-ms:500}") long pollTimeoutMs) {
+        this.consumerFactory = consumerFactory;
+        this.roomAdmission = roomAdmission;
+        this.handler = handler;
+        this.topic = topic;
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+        this.reassignments = Counter.builder("gateway.room-affinity.reassignments")
+                .description("Times the state update consumer's partitions were changed")
+                .register(meterRegistry);
+        meterRegistry.gauge("gateway.room-affinity.partitions", assignedPartitions);
+    }
+
+    @PostConstruct
+    public void start() {
+        roomAdmission.onRoomsChanged(this::roomsChanged);
+        running = true;
+        thread = new Thread(this::run, "state-updates-affinity");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        roomsChanged();
+        thread.join(pollTimeout.toMillis() * 4);
+    }
+
+    /**
+     * @return the partition the engine's updates for a room are written to
+     */
+    static int partitionOf(String roomId, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(roomId.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    private void roomsChanged() {
+        reassign = true;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        Consumer<String, byte[]> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String, byte[]> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        return (Consumer<String, byte[]>) consumerFactory.createConsumer(null, "state-updates-affinity", null, overrides);
+    }
+
+    private void run() {
+        try (Consumer<String, byte[]> created = createConsumer()) {
+            consumer = created;
+            while (running) {
+                try {
+                    if (reassign) {
+                        reassign = false;
+                        assign(created);
+                    }
+                    if (created.assignment().isEmpty()) {
+                        awaitRooms();
+                        continue;
+                    }
+                    dispatch(created.poll(pollTimeout));
+                } catch (WakeupException e) {
+                    // Rooms changed or stopping; loop around
+                } catch (Exception e) {
+                    logger.error("Error consuming state updates", e);
+                    reassign = true;
+                    backOff();
+                }
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private void awaitRooms() {
+        synchronized (signal) {
+            while (running && !reassign) {
+                try {
+                    signal.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    private void backOff() {
+        synchronized (signal) {
+            try {
+                signal.wait(pollTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private void assign(Consumer<String, byte[]> created) {
+        List<PartitionInfo> partitions = created.partitionsFor(topic);
+        if (partitions == null || partitions.isEmpty()) {
+            logger.warn("No partitions found for topic: {}", topic);
+            reassign = true;
+            backOff();
+            return;
+        }
+        Set<TopicPartition> wanted = new HashSet<>();
+        for (String roomId : roomAdmission.rooms()) {
+            wanted.add(new TopicPartition(topic, partitionOf(roomId, partitions.size())));
+        }
+        Set<TopicPartition> current = created.assignment();
+        if (wanted.equals(current)) {
+            return;
+        }
+        Set<TopicPartition> added = new HashSet<>(wanted);
+        added.removeAll(current);
+        created.assign(wanted);
+        if (!added.isEmpty()) {
+            created.seekToEnd(added);
+        }
+        assignedPartitions.set(wanted.size());
+        reassignments.increment();
+        logger.info("Consuming {} of {} {} partitions for this gateway's rooms",
+                wanted.size(), partitions.size(), topic);
+    }
+
+    private void dispatch(ConsumerRecords<String, byte[]> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(records.count());
+        List<byte[]> frames = new ArrayList<>(records.count());
+        List<Map<String, Object>> headers = new ArrayList<>(records.count());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            keys.add(record.key());
+            frames.add(record.value());
+            Map<String, Object> mapped = new HashMap<>();
+            for (Header header : record.headers()) {
+                mapped.put(header.key(), header.value());
+            }
+            headers.add(mapped);
+        }
+        handler.onRecords(keys, frames, headers);
+    }
+}
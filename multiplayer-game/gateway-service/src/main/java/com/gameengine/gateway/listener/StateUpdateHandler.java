@@ -0,0 +1,18 @@
+package com.gameengine.gateway.listener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles a batch of 'game-state-updates' records, however they were consumed: by the
+ * handler's own listener, or by the {@link RoomAffinityConsumer}.
+ */
+public interface StateUpdateHandler {
+
+    /**
+     * @param keys Record keys (room IDs)
+     * @param frames Record values as the engine encoded them
+     * @param headers Record headers by name, raw values
+     */
+    void onRecords(List<String> keys, List<byte[]> frames, List<Map<String, Object>> headers);
+}
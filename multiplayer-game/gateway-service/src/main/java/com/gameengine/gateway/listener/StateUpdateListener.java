@@ -0,0 +1,125 @@
+package com.gameengine.gateway.listener;
+
+import com.gameengine.gateway.service.LatencyTracer;
+import com.gameengine.gateway.service.RoomAdmission;
+import com.gameengine.gateway.service.RoomMetadataCache;
+import com.gameengine.gateway.service.SnapshotBaselines;
+import com.gameengine.protocol.StateSnapshot;
+import com.gameengine.protocol.Trace;
+import com.gameengine.protocol.kafka.StateSnapshotDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumes the 'game-state-updates' stream: keeps the {@link RoomMetadataCache} current
+ * and broadcasts each update to the room's subscribers on /topic/room/{roomId}. Sessions
+ * on the room's delta stream get it through {@link SnapshotBaselines} instead.
+ *
+ * Every gateway needs every room's updates, so each instance consumes in its own
+ * consumer group (gateway.room-metadata.group-id) from the latest offset. Updates that
+ * carry a {@link Trace} are handed to the {@link LatencyTracer} after their broadcast.
+ *
+ * Snapshots are decoded here and sent to clients as JSON; with gateway.broadcast.passthrough
+ * the {@link StateUpdatePassthroughListener} takes over instead.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.broadcast.passthrough", havingValue = "false", matchIfMissing = true)
+public class StateUpdateListener implements StateUpdateHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateUpdateListener.class);
+    private static final String ROOM_TOPIC_PREFIX = "/topic/room/";
+
+    private final RoomMetadataCache roomMetadataCache;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LatencyTracer latencyTracer;
+    private final SnapshotBaselines snapshotBaselines;
+    private final RoomAdmission roomAdmission;
+    private final StateSnapshotDeserializer deserializer = new StateSnapshotDeserializer();
+
+    public StateUpdateListener(RoomMetadataCache roomMetadataCache,
+                               SimpMessagingTemplate messagingTemplate,
+                               LatencyTracer latencyTracer,
+                               SnapshotBaselines snapshotBaselines,
+                               RoomAdmission roomAdmission) {
+        this.roomMetadataCache = roomMetadataCache;
+        this.messagingTemplate = messagingTemplate;
+        this.latencyTracer = latencyTracer;
+        this.snapshotBaselines = snapshotBaselines;
+        this.roomAdmission = roomAdmission;
+    }
+
+    /**
+     * Reads the whole topic; not started while the {@link RoomAffinityConsumer} feeds
+     * {@link #onRecords} instead.
+     */
+    @KafkaListener(
+            topics = "${spring.kafka.topics.game-state-updates}",
+            groupId = "${gateway.room-metadata.group-id}",
+            autoStartup = "#{!${gateway.room-affinity.enabled:true}}"
+    )
+    public void onStateUpdates(@Payload List<StateSnapshot> snapshots,
+                               @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false)
+                               List<Map<String, Object>> headers,
+                               Acknowledgment acknowledgment) {
+        broadcast(snapshots, headers);
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    /**
+     * Decodes only the records of rooms with clients on this gateway or in the metadata
+     * cache; the rest share a partition with them and are dropped undecoded.
+     */
+    @Override
+    public void onRecords(List<String> keys, List<byte[]> frames, List<Map<String, Object>> headers) {
+        List<StateSnapshot> snapshots = new ArrayList<>(frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            String roomId = keys.get(i);
+            StateSnapshot snapshot = null;
+            if (roomId != null && (roomAdmission.connectionCount(roomId) > 0 || roomMetadataCache.isCached(roomId))) {
+                try {
+                    snapshot = deserializer.deserialize(null, frames.get(i));
+                } catch (RuntimeException e) {
+                    logger.error("Error decoding state update for room: {}", roomId, e);
+                }
+            }
+            snapshots.add(snapshot);
+        }
+        broadcast(snapshots, headers);
+    }
+
+    private void broadcast(List<StateSnapshot> snapshots, List<Map<String, Object>> headers) {
+        long receivedMicros = Trace.nowMicros();
+        for (int i = 0; i < snapshots.size(); i++) {
+            StateSnapshot snapshot = snapshots.get(i);
+            if (snapshot == null || snapshot.getRoomId() == null) {
+                continue;
+            }
+            try {
+                roomMetadataCache.onStateUpdate(snapshot);
+                messagingTemplate.convertAndSend(ROOM_TOPIC_PREFIX + snapshot.getRoomId(), snapshot);
+                snapshotBaselines.onSnapshot(snapshot);
+
+                Trace trace = headers != null ? Trace.fromMappedHeaders(headers.get(i)) : null;
+                if (trace != null) {
+                    latencyTracer.record(snapshot.getRoomId(), trace, receivedMicros, Trace.nowMicros());
+                }
+            } catch (Exception e) {
+                logger.error("Error handling state update for room: {}", snapshot.getRoomId(), e);
+            }
+        }
+    }
+}
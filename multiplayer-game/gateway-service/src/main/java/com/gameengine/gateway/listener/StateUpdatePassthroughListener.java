@@ -0,0 +1,126 @@
+package com.gameengine.gateway.listener;
+
+import com.gameengine.gateway.service.LatencyTracer;
+import com.gameengine.gateway.service.RoomAdmission;
+import com.gameengine.gateway.service.RoomMetadataCache;
+import com.gameengine.gateway.service.SnapshotBaselines;
+import com.gameengine.protocol.DictionaryCompressor;
+import com.gameengine.protocol.StateSnapshotCodec;
+import com.gameengine.protocol.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passthrough variant of {@link StateUpdateListener}: forwards each 'game-state-updates'
+ * record to /topic/room/{roomId} as the engine encoded it, without decoding the snapshot
+ * and encoding it again as JSON.
+ *
+ * Records are consumed as raw bytes and the room comes from the record key. The frame is
+ * sent as an application/octet-stream STOMP message, and clients decode it with the
+ * game-protocol layout. It goes out as a binary WebSocket frame only to sessions of the
+ * plain WebSocket endpoint: SockJS sends every frame as text, even over its WebSocket
+ * transport, so SockJS sessions are refused room broadcasts while this is enabled (see
+ * {@link com.gameengine.gateway.config.RoomAdmissionInterceptor}). Frames the engine compressed with a shared dictionary are decompressed first,
+ * so clients need no dictionary. The {@link RoomMetadataCache} is kept current from
+ * {@link StateSnapshotCodec#peek}, and only for rooms it holds. Only rooms with sessions
+ * on their delta stream are decoded, for {@link SnapshotBaselines}.
+ *
+ * Enabled with gateway.broadcast.passthrough.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.broadcast.passthrough", havingValue = "true")
+public class StateUpdatePassthroughListener implements StateUpdateHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateUpdatePassthroughListener.class);
+    private static final String ROOM_TOPIC_PREFIX = "/topic/room/";
+    private static final Map<String, Object> BINARY_HEADERS =
+            Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_OCTET_STREAM);
+
+    private final RoomMetadataCache roomMetadataCache;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LatencyTracer latencyTracer;
+    private final SnapshotBaselines snapshotBaselines;
+    private final RoomAdmission roomAdmission;
+
+    public StateUpdatePassthroughListener(RoomMetadataCache roomMetadataCache,
+                                          SimpMessagingTemplate messagingTemplate,
+                                          LatencyTracer latencyTracer,
+                                          SnapshotBaselines snapshotBaselines,
+                                          RoomAdmission roomAdmission) {
+        this.roomMetadataCache = roomMetadataCache;
+        this.messagingTemplate = messagingTemplate;
+        this.latencyTracer = latencyTracer;
+        this.snapshotBaselines = snapshotBaselines;
+        this.roomAdmission = roomAdmission;
+    }
+
+    /**
+     * Reads the whole topic; not started while the {@link RoomAffinityConsumer} feeds
+     * {@link #onRecords} instead.
+     */
+    @KafkaListener(
+            topics = "${spring.kafka.topics.game-state-updates}",
+            groupId = "${gateway.room-metadata.group-id}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+            autoStartup = "#{!${gateway.room-affinity.enabled:true}}"
+    )
+    public void onStateUpdates(@Payload List<byte[]> frames,
+                               @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
+                               @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false)
+                               List<Map<String, Object>> headers,
+                               Acknowledgment acknowledgment) {
+        onRecords(keys, frames, headers);
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    @Override
+    public void onRecords(List<String> keys, List<byte[]> frames, List<Map<String, Object>> headers) {
+        long receivedMicros = Trace.nowMicros();
+        for (int i = 0; i < frames.size(); i++) {
+            String roomId = keys.get(i);
+            byte[] frame = frames.get(i);
+            if (roomId == null || frame == null) {
+                continue;
+            }
+            if (roomAdmission.connectionCount(roomId) == 0 && !roomMetadataCache.isCached(roomId)) {
+                // No one here to send it to
+                continue;
+            }
+            try {
+                frame = DictionaryCompressor.decompressIfNeeded(frame);
+                if (roomMetadataCache.isCached(roomId)) {
+                    StateSnapshotCodec.Summary summary = StateSnapshotCodec.peek(ByteBuffer.wrap(frame));
+                    roomMetadataCache.onStateUpdate(roomId, summary.getVersion(), summary.isFullUpdate(),
+                            summary.getPlayerCount(), summary.getRemovedPlayerCount());
+                }
+                messagingTemplate.convertAndSend(ROOM_TOPIC_PREFIX + roomId, frame, BINARY_HEADERS);
+                if (snapshotBaselines.hasSessions(roomId)) {
+                    snapshotBaselines.onSnapshot(StateSnapshotCodec.decode(ByteBuffer.wrap(frame)));
+                }
+
+                Trace trace = headers != null ? Trace.fromMappedHeaders(headers.get(i)) : null;
+                if (trace != null) {
+                    latencyTracer.record(roomId, trace, receivedMicros, Trace.nowMicros());
+                }
+            } catch (Exception e) {
+                logger.error("Error forwarding state update for room: {}", roomId, e);
+            }
+        }
+    }
+}
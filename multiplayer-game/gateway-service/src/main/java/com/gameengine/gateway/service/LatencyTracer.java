@@ -0,0 +1,109 @@
+package com.gameengine.gateway.service;
+
+import com.gameengine.protocol.Trace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the {@link Trace} of a sampled action into a stage-by-stage latency breakdown
+ * once its state update has been broadcast.
+ *
+ * Stages, each a histogram in trace.stage.latency tagged by stage:
+ *   gateway.queue         client action received -> handed to the producer
+ *   kafka.player-events   -> engine received the batch
+ *   engine.apply          -> applied to the room (includes waiting in the batch)
+ *   engine.redis          -> room saved
+ *   engine.publish        -> state update handed to the producer
+ *   kafka.state-updates   -> gateway received the update
+ *   gateway.fanout        -> broadcast to the room's subscribers
+ * plus trace.end-to-end for the whole path. Kafka stages span hosts and include their
+ * clock offset; a negative span is counted in trace.clock-skew and not recorded.
+ * Per-room detail goes to the debug log with the trace ID rather than into meter tags.
+ */
+@Service
+public class LatencyTracer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyTracer.class);
+
+    private static final String[][] STAGES = {
+            {"gateway.queue", Trace.INGRESS, Trace.GATEWAY_SENT},
+            {"kafka.player-events", Trace.GATEWAY_SENT, Trace.ENGINE_RECEIVED},
+            {"engine.apply", Trace.ENGINE_RECEIVED, Trace.ENGINE_APPLIED},
+            {"engine.redis", Trace.ENGINE_APPLIED, Trace.ENGINE_SAVED},
+            {"engine.publish", Trace.ENGINE_SAVED, Trace.ENGINE_SENT},
+    };
+    private static final String STATE_RECEIVED_STAGE = "kafka.state-updates";
+    private static final String FANOUT_STAGE = "gateway.fanout";
+
+    private final Map<String, Timer> stageTimers = new LinkedHashMap<>();
+    private final Timer endToEndTimer;
+    private final Counter clockSkewCounter;
+
+    public LatencyTracer(MeterRegistry meterRegistry) {
+        for (String[] stage : STAGES) {
+            stageTimers.put(stage[0], stageTimer(meterRegistry, stage[0]));
+        }
+        stageTimers.put(STATE_RECEIVED_STAGE, stageTimer(meterRegistry, STATE_RECEIVED_STAGE));
+        stageTimers.put(FANOUT_STAGE, stageTimer(meterRegistry, FANOUT_STAGE));
+        this.endToEndTimer = Timer.builder("trace.end-to-end")
+                .description("Client action received to resulting state broadcast, for sampled actions")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.clockSkewCounter = Counter.builder("trace.clock-skew")
+                .description("Trace stages that ended before they started, across hosts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a trace that completed with a broadcast.
+     *
+     * @param roomId Room the update was for
+     * @param trace Trace read from the state update's headers
+     * @param receivedMicros When the gateway received the update
+     * @param broadcastMicros When the broadcast finished
+     */
+    public void record(String roomId, Trace trace, long receivedMicros, long broadcastMicros) {
+        for (String[] stage : STAGES) {
+            record(stage[0], trace.get(stage[1]), trace.get(stage[2]));
+        }
+        record(STATE_RECEIVED_STAGE, trace.get(Trace.ENGINE_SENT), receivedMicros);
+        record(FANOUT_STAGE, receivedMicros, broadcastMicros);
+
+        long ingress = trace.get(Trace.INGRESS);
+        if (ingress >= 0 && broadcastMicros >= ingress) {
+            endToEndTimer.record(broadcastMicros - ingress, TimeUnit.MICROSECONDS);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Trace {} for room: {} took {} us end to end: {}",
+                    trace.getTraceId(), roomId, ingress >= 0 ? broadcastMicros - ingress : -1, trace);
+        }
+    }
+
+    private void record(String stage, long startMicros, long endMicros) {
+        if (startMicros < 0 || endMicros < 0) {
+            // Not stamped, e.g. an event forwarded between partitions
+            return;
+        }
+        if (endMicros < startMicros) {
+            clockSkewCounter.increment();
+            return;
+        }
+        stageTimers.get(stage).record(endMicros - startMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("trace.stage.latency")
+                .description("Latency of one stage between a client action and its state broadcast")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
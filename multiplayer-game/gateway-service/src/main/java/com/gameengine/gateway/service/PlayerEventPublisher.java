@@ -0,0 +1,82 @@
+package com.gameengine.gateway.service;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Trace;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Publishes player events to Kafka.
+ * Publishes to topic: player-events, keyed by roomId. Rooms moved by the engine
+ * rebalancer are sent to their explicit partition instead of the key hash.
+ *
+ * A sample of events (gateway.tracing.sample-rate) carries a {@link Trace} in its headers,
+ * which {@link LatencyTracer} reads back when the resulting state update arrives.
+ */
+@Service
+public class PlayerEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerEventPublisher.class);
+
+    private final KafkaTemplate<String, PlayerEvent> kafkaTemplate;
+    private final RoomRouter roomRouter;
+    private final String playerEventsTopic;
+    private final double traceSampleRate;
+
+    public PlayerEventPublisher(
+            @Qualifier("playerEventKafkaTemplate") KafkaTemplate<String, PlayerEvent> playerEventKafkaTemplate,
+            RoomRouter roomRouter,
+            @Value("${spring.kafka.topics.player-events}") String playerEventsTopic,
+            @Value("${gateway.tracing.sample-rate:0.01}") double traceSampleRate) {
+        this.kafkaTemplate = playerEventKafkaTemplate;
+        this.roomRouter = roomRouter;
+        this.playerEventsTopic = playerEventsTopic;
+        this.traceSampleRate = traceSampleRate;
+    }
+
+    /**
+     * Publishes a player event.
+     *
+     * @param event Player event
+     * @return future completing when Kafka acknowledges the event
+     */
+    public CompletableFuture<SendResult<String, PlayerEvent>> publish(PlayerEvent event) {
+        return publish(event, Trace.nowMicros());
+    }
+
+    /**
+     * Publishes a player event received from a client.
+     *
+     * @param event Player event
+     * @param ingressMicros When the gateway received it, in epoch microseconds
+     * @return future completing when Kafka acknowledges the event
+     */
+    public CompletableFuture<SendResult<String, PlayerEvent>> publish(PlayerEvent event, long ingressMicros) {
+        String roomId = event.getRoomId();
+        Integer partition = roomRouter.partitionFor(roomId);
+
+        ProducerRecord<String, PlayerEvent> record = new ProducerRecord<>(playerEventsTopic, partition, roomId, event);
+        if (traceSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < traceSampleRate) {
+            Trace trace = Trace.start(ingressMicros);
+            trace.stamp(Trace.GATEWAY_SENT);
+            trace.writeTo(record.headers());
+        }
+        CompletableFuture<SendResult<String, PlayerEvent>> future = kafkaTemplate.send(record);
+
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                logger.error("Failed to publish player event for room: {}", roomId, ex);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,138 @@
+package com.gameengine.gateway.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether a client may join a room, from the {@link RoomMetadataCache} and the
+ * connections this gateway already has to the room. In the common case no I/O is done.
+ *
+ * A room is full once either the engine's player count or this gateway's connections
+ * reach gateway.max-connections-per-room. Rooms that do not exist yet are admitted
+ * (the first JOIN creates them) unless gateway.admission.require-existing-room is set.
+ * If Redis cannot be read and the room is not cached, the client is admitted: the
+ * engine stays authoritative and admission only protects it.
+ */
+@Service
+public class RoomAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAdmission.class);
+
+    /**
+     * Outcome of an admission check.
+     */
+    public enum Decision {
+        ADMITTED,
+        ROOM_FULL,
+        NO_SUCH_ROOM
+    }
+
+    private final RoomMetadataCache roomMetadataCache;
+    private final MeterRegistry meterRegistry;
+    private final int maxConnectionsPerRoom;
+    private final boolean requireExistingRoom;
+    private final Map<String, AtomicInteger> connections = new ConcurrentHashMap<>();
+    private final List<Runnable> roomListeners = new CopyOnWriteArrayList<>();
+
+    public RoomAdmission(RoomMetadataCache roomMetadataCache,
+                         MeterRegistry meterRegistry,
+                         @Value("${gateway.max-connections-per-room:100}") int maxConnectionsPerRoom,
+                         @Value("${gateway.admission.require-existing-room:false}") boolean requireExistingRoom) {
+        this.roomMetadataCache = roomMetadataCache;
+        this.meterRegistry = meterRegistry;
+        this.maxConnectionsPerRoom = maxConnectionsPerRoom;
+        this.requireExistingRoom = requireExistingRoom;
+    }
+
+    /**
+     * Admits a connection to a room. An admitted connection must be {@link #release}d.
+     *
+     * @param roomId Room identifier
+     * @return the decision
+     */
+    public Decision admit(String roomId) {
+        Decision decision = decide(roomId);
+        meterRegistry.counter("gateway.admission.decisions", "decision", decision.name()).increment();
+        if (decision != Decision.ADMITTED) {
+            logger.debug("Rejected connection to room: {} ({})", roomId, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * Releases a connection admitted by {@link #admit}.
+     */
+    public void release(String roomId) {
+        boolean[] emptied = {false};
+        connections.computeIfPresent(roomId, (id, count) -> {
+            emptied[0] = count.decrementAndGet() <= 0;
+            return emptied[0] ? null : count;
+        });
+        if (emptied[0]) {
+            roomListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * @return rooms this gateway holds connections to
+     */
+    public Set<String> rooms() {
+        return Set.copyOf(connections.keySet());
+    }
+
+    /**
+     * Registers a callback run when a room gets its first connection on this gateway or
+     * loses its last one.
+     */
+    public void onRoomsChanged(Runnable listener) {
+        roomListeners.add(listener);
+    }
+
+    /**
+     * @return connections this gateway holds to the room
+     */
+    public int connectionCount(String roomId) {
+        AtomicInteger count = connections.get(roomId);
+        return count != null ? count.get() : 0;
+    }
+
+    private Decision decide(String roomId) {
+        try {
+            RoomMetadata metadata = roomMetadataCache.get(roomId);
+            if (!metadata.exists() && requireExistingRoom) {
+                return Decision.NO_SUCH_ROOM;
+            }
+            if (metadata.getPlayerCount() >= maxConnectionsPerRoom) {
+                return Decision.ROOM_FULL;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Admitting connection to room: {} without metadata: {}", roomId, e.getMessage());
+        }
+
+        Decision[] decision = {Decision.ADMITTED};
+        boolean[] opened = {false};
+        connections.compute(roomId, (id, count) -> {
+            AtomicInteger current = count != null ? count : new AtomicInteger();
+            if (current.get() >= maxConnectionsPerRoom) {
+                decision[0] = Decision.ROOM_FULL;
+            } else {
+                opened[0] = current.incrementAndGet() == 1;
+            }
+            return current.get() > 0 ? current : null;
+        });
+        if (opened[0]) {
+            roomListeners.forEach(Runnable::run);
+        }
+        return decision[0];
+    }
+}
@@ -0,0 +1,63 @@
+package com.gameengine.gateway.service;
+
+/**
+ * What the gateway knows about a room for admission checks, as of one cache entry.
+ */
+public final class RoomMetadata {
+
+    private final String roomId;
+    private final boolean exists;
+    private final int playerCount;
+    private final long version;
+    private final Integer partition;
+    final long expiresAt;
+
+    RoomMetadata(String roomId, boolean exists, int playerCount, long version, Integer partition, long expiresAt) {
+        this.roomId = roomId;
+        this.exists = exists;
+        this.playerCount = playerCount;
+        this.version = version;
+        this.partition = partition;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * @return true if the engine has saved state for the room
+     */
+    public boolean exists() {
+        return exists;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return player-events partition that owns the room, or null if it follows the key hash
+     */
+    public Integer getPartition() {
+        return partition;
+    }
+
+    RoomMetadata withPartition(Integer newPartition) {
+        return new RoomMetadata(roomId, exists, playerCount, version, newPartition, expiresAt);
+    }
+
+    RoomMetadata withState(int newPlayerCount, long newVersion) {
+        return new RoomMetadata(roomId, true, newPlayerCount, newVersion, partition, expiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return "RoomMetadata{roomId='" + roomId + "', exists=" + exists + ", playerCount=" + playerCount +
+                ", version=" + version + ", partition=" + partition + '}';
+    }
+}
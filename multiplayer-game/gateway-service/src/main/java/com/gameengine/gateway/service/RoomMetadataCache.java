@@ -0,0 +1,209 @@
+package com.gameengine.gateway.service;
+
+import com.gameengine.protocol.RoomSummary;
+import com.gameengine.protocol.StateSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway-local near-cache of room metadata, so that admitting a connection does not
+ * cost a Redis round trip.
+ *
+ * A miss reads the room's summary fields from Redis (see {@link RoomSummary}); misses
+ * for the same room that arrive while that read is in flight, as in a connection storm
+ * at match start, wait for it instead of sending their own. Entries expire after a TTL,
+ * shorter for rooms that do not exist yet. In between, the 'game-state-updates' stream
+ * keeps cached rooms current: a room that was missing now exists, and its player count
+ * follows the snapshots. The owner partition is always the one {@link RoomRouter} holds.
+ */
+@Service
+public class RoomMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomMetadataCache.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RoomRouter roomRouter;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final int maxEntries;
+    private final Map<String, RoomMetadata> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<RoomMetadata>> loads = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public RoomMetadataCache(StringRedisTemplate redisTemplate,
+                             RoomRouter roomRouter,
+                             MeterRegistry meterRegistry,
+                             @Value("${gateway.room-metadata.ttl-ms:30000}") long ttlMs,
+                             @Value("${gateway.room-metadata.negative-ttl-ms:2000}") long negativeTtlMs,
+                             @Value("${gateway.room-metadata.max-entries:100000}") int maxEntries) {
+        this.redisTemplate = redisTemplate;
+        this.roomRouter = roomRouter;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("gateway.room-metadata.lookups")
+                .description("Room metadata lookups served from the near-cache or Redis")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gateway.room-metadata.lookups")
+                .description("Room metadata lookups served from the near-cache or Redis")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gauge("gateway.room-metadata.entries", entries, Map::size);
+    }
+
+    /**
+     * @param roomId Room identifier
+     * @return the room's metadata; a room that does not exist has exists() false
+     * @throws RuntimeException if the room is not cached and Redis cannot be read
+     */
+    public RoomMetadata get(String roomId) {
+        long now = System.currentTimeMillis();
+        RoomMetadata cached = entries.get(roomId);
+        if (cached != null && now < cached.expiresAt) {
+            hits.increment();
+            return currentPartition(cached);
+        }
+        misses.increment();
+
+        CompletableFuture<RoomMetadata> load = new CompletableFuture<>();
+        CompletableFuture<RoomMetadata> inFlight = loads.putIfAbsent(roomId, load);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                return staleOrThrow(roomId, cached, e.getCause());
+            }
+        }
+        try {
+            RoomMetadata loaded = load(roomId, now);
+            RoomMetadata kept = store(loaded);
+            load.complete(kept);
+            return kept;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            return staleOrThrow(roomId, cached, e);
+        } finally {
+            loads.remove(roomId, load);
+        }
+    }
+
+    /**
+     * Applies a state snapshot to the room's entry, if the room is cached. Rooms nobody
+     * asked about are not added, which keeps the cache to the rooms this gateway serves.
+     *
+     * Snapshots built from a whole room list every player, so their count is exact. A
+     * diff only lists what changed: the count can then only be bounded from below, and
+     * the entry's TTL limits how long it may lag.
+     */
+    public void onStateUpdate(StateSnapshot snapshot) {
+        if (snapshot == null || snapshot.getRoomId() == null) {
+            return;
+        }
+        int listed = snapshot.getPlayers() != null ? snapshot.getPlayers().size() : 0;
+        int removed = snapshot.getRemovedPlayers() != null ? snapshot.getRemovedPlayers().size() : 0;
+        onStateUpdate(snapshot.getRoomId(), snapshot.getVersion(), snapshot.isFullUpdate(), listed, removed);
+    }
+
+    /**
+     * Applies a state update given only its counts, as read by
+     * {@link com.gameengine.protocol.StateSnapshotCodec#peek}.
+     *
+     * @param listed Players listed in the update
+     * @param removed Players the update removes
+     */
+    public void onStateUpdate(String roomId, long version, boolean fullUpdate, int listed, int removed) {
+        entries.computeIfPresent(roomId, (id, cached) -> {
+            if (cached.exists() && version <= cached.getVersion()) {
+                return cached;
+            }
+            int playerCount = fullUpdate ? listed : Math.max(listed, cached.getPlayerCount() - removed);
+            return cached.withState(playerCount, version);
+        });
+    }
+
+    /**
+     * @return true if the room has an entry, so its updates are worth reading
+     */
+    public boolean isCached(String roomId) {
+        return entries.containsKey(roomId);
+    }
+
+    /**
+     * Drops a room's entry so the next lookup reads Redis.
+     */
+    public void invalidate(String roomId) {
+        entries.remove(roomId);
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.room-metadata.ttl-ms:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        List<String> expired = new ArrayList<>();
+        entries.forEach((roomId, entry) -> {
+            if (now >= entry.expiresAt) {
+                expired.add(roomId);
+            }
+        });
+        for (String roomId : expired) {
+            entries.computeIfPresent(roomId, (id, entry) -> now >= entry.expiresAt ? null : entry);
+        }
+        if (!expired.isEmpty()) {
+            logger.debug("Evicted {} expired room metadata entries", expired.size());
+        }
+    }
+
+    private RoomMetadata load(String roomId, long now) {
+        List<String> values = redisTemplate.<String, String>opsForHash()
+                .multiGet(RoomSummary.KEY_PREFIX + roomId, RoomSummary.FIELDS);
+        RoomSummary summary = RoomSummary.decode(roomId, values);
+        Integer partition = roomRouter.partitionFor(roomId);
+        if (summary == null) {
+            return new RoomMetadata(roomId, false, 0, 0, partition, now + negativeTtlMs);
+        }
+        return new RoomMetadata(roomId, true, summary.getPlayerCount(), summary.getVersion(), partition, now + ttlMs);
+    }
+
+    private RoomMetadata store(RoomMetadata loaded) {
+        if (entries.size() >= maxEntries && !entries.containsKey(loaded.getRoomId())) {
+            // Still answered, just not cached until expired entries make room
+            return loaded;
+        }
+        // A snapshot applied while the read was in flight may be newer than Redis was
+        return entries.merge(loaded.getRoomId(), loaded, (current, fresh) ->
+                current.exists() && current.getVersion() > fresh.getVersion() ? current : fresh);
+    }
+
+    private RoomMetadata currentPartition(RoomMetadata cached) {
+        Integer partition = roomRouter.partitionFor(cached.getRoomId());
+        if (partition == null ? cached.getPartition() == null : partition.equals(cached.getPartition())) {
+            return cached;
+        }
+        RoomMetadata moved = cached.withPartition(partition);
+        entries.replace(cached.getRoomId(), cached, moved);
+        return moved;
+    }
+
+    private RoomMetadata staleOrThrow(String roomId, RoomMetadata stale, Throwable cause) {
+        if (stale != null) {
+            logger.warn("Error reading metadata of room: {}; using expired entry: {}", roomId, cause.getMessage());
+            return currentPartition(stale);
+        }
+        throw cause instanceof RuntimeException runtime ? runtime
+                : new RuntimeException("Failed to read room metadata", cause);
+    }
+}
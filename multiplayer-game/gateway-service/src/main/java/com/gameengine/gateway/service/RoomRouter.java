@@ -0,0 +1,55 @@
+package com.gameengine.gateway.service;
+
+import com.gameengine.protocol.RoomRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local copy of the room ownership directory maintained by engine-service.
+ *
+ * A stale copy only costs a hop: the engine forwards events that arrive on a partition
+ * which no longer owns the room.
+ */
+@Service
+public class RoomRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomRouter.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private volatile Map<String, Integer> partitions = Map.of();
+
+    public RoomRouter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @param roomId Room identifier
+     * @return explicit partition for the room, or null to use the key hash
+     */
+    public Integer partitionFor(String roomId) {
+        return partitions.get(roomId);
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.room-routes-refresh-ms:1000}")
+    public void refresh() {
+        try {
+            Map<String, Integer> loaded = new HashMap<>();
+            redisTemplate.<String, String>opsForHash().entries(RoomRoute.DIRECTORY_KEY).forEach((roomId, value) -> {
+                RoomRoute route = RoomRoute.decode(value);
+                if (route != null) {
+                    loaded.put(roomId, route.getPartition());
+                }
+            });
+            partitions = loaded;
+        } catch (Exception e) {
+            // Keep routing with the last known directory
+            logger.warn("Error refreshing room routes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.gameengine.gateway.service;
+
+import com.gameengine.protocol.Position;
+import com.gameengine.protocol.StateSnapshot;
+import com.gameengine.protocol.Velocity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends each session the state of a room relative to the last snapshot it acknowledged,
+ * instead of the whole room on every update.
+ *
+ * Clients opt in by subscribing to /user/queue/room/{roomId} and acknowledging the
+ * versions they apply on /app/room/{roomId}/ack. For every room with such a session, the
+ * gateway keeps the room as of its last history-size updates. Each update then goes to
+ * each session as a delta against its acknowledged baseline: the players and bullets
+ * that differ from it, and the IDs of those gone since, with the baseline's version in
+ * the base-version STOMP header. A session with no acknowledged version still in the
+ * history (new, or too far behind) gets the whole room, flagged fullUpdate, and
+ * continues from whichever version it acknowledges next.
+ *
+ * Rooms without such a session cost nothing here. The room's image is built from the
+ * updates themselves, so it starts with the first update after the first session
+ * subscribes.
+ *
+ * Versions identify room images, so this relies on the engine raising a room's version
+ * with every change it publishes (its GameState.markChanged). An update that does not
+ * raise it is dropped as stale, and acknowledgements name images by version alone.
+ */
+@Service
+public class SnapshotBaselines {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotBaselines.class);
+
+    /** STOMP header naming the version a delta applies to */
+    public static final String BASE_VERSION_HEADER = "base-version";
+    public static final String QUEUE_PREFIX = "/queue/room/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int historySize;
+    private final Map<String, RoomHistory> rooms = new ConcurrentHashMap<>();
+    private final Counter fullSent;
+    private final Counter deltaSent;
+    private final Counter entriesOmitted;
+
+    public SnapshotBaselines(SimpMessagingTemplate messagingTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${gateway.delta.history-size:32}") int historySize) {
+        this.messagingTemplate = messagingTemplate;
+        this.historySize = Math.max(1, historySize);
+        this.fullSent = Counter.builder("gateway.delta.sent")
+                .description("Per-session state updates sent")
+                .tag("kind", "full")
+                .register(meterRegistry);
+        this.deltaSent = Counter.builder("gateway.delta.sent")
+                .description("Per-session state updates sent")
+                .tag("kind", "delta")
+                .register(meterRegistry);
+        this.entriesOmitted = Counter.builder("gateway.delta.entries.omitted")
+                .description("Players and bullets left out of deltas because the session's baseline has them")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("gateway.delta.rooms", List.of(), rooms);
+    }
+
+    /**
+     * Starts sending a session the room's updates.
+     */
+    public void subscribe(String sessionId, String roomId) {
+        rooms.compute(roomId, (id, history) -> {
+            RoomHistory current = history != null ? history : new RoomHistory(historySize);
+            synchronized (current) {
+                current.sessions.computeIfAbsent(sessionId, s -> new Session()).subscriptions++;
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Stops sending a session the room's updates; the room's history is dropped with its
+     * last session.
+     */
+    public void unsubscribe(String sessionId, String roomId) {
+        rooms.computeIfPresent(roomId, (id, history) -> {
+            synchronized (history) {
+                Session session = history.sessions.get(sessionId);
+                if (session != null && --session.subscriptions <= 0) {
+                    history.sessions.remove(sessionId);
+                }
+                return history.sessions.isEmpty() ? null : history;
+            }
+        });
+    }
+
+    /**
+     * Records that a session has applied a version of the room, making it the session's
+     * baseline. Versions older than the current baseline, or never sent, are ignored.
+     */
+    public void acknowledge(String sessionId, String roomId, long version) {
+        RoomHistory history = rooms.get(roomId);
+        if (history == null) {
+            return;
+        }
+        synchronized (history) {
+            Session session = history.sessions.get(sessionId);
+            if (session != null && version > session.ackedVersion && version <= history.latestVersion()) {
+                session.ackedVersion = version;
+            }
+        }
+    }
+
+    /**
+     * Advances the room's image by an update from 'game-state-updates' and sends each of
+     * its sessions what changed since that session's baseline.
+     */
+    public void onSnapshot(StateSnapshot snapshot) {
+        RoomHistory history = rooms.get(snapshot.getRoomId());
+        if (history == null) {
+            return;
+        }
+        List<Send> sends = new ArrayList<>();
+        synchronized (history) {
+            Frame frame = history.advance(snapshot);
+            if (frame == null) {
+                return;
+            }
+            Map<Long, StateSnapshot> deltas = new HashMap<>();
+            StateSnapshot full = null;
+            for (Map.Entry<String, Session> entry : history.sessions.entrySet()) {
+                Frame base = history.find(entry.getValue().ackedVersion);
+                if (base == null) {
+                    full = full != null ? full : frame.toSnapshot(snapshot.getRoomId());
+                    sends.add(new Send(entry.getKey(), full, -1));
+                } else {
+                    StateSnapshot delta = deltas.computeIfAbsent(base.version,
+                            v -> frame.deltaFrom(base, snapshot.getRoomId(), entriesOmitted));
+                    sends.add(new Send(entry.getKey(), delta, base.version));
+                }
+            }
+        }
+        // Sent outside the lock so acks for the room are not held up by the broker
+        for (Send send : sends) {
+            try {
+                messagingTemplate.convertAndSendToUser(send.sessionId, QUEUE_PREFIX + snapshot.getRoomId(),
+                        send.snapshot, headers(send.sessionId, send.baseVersion));
+                (send.baseVersion < 0 ? fullSent : deltaSent).increment();
+            } catch (Exception e) {
+                logger.warn("Failed to send state update for room: {} to session: {}",
+                        snapshot.getRoomId(), send.sessionId, e);
+            }
+        }
+    }
+
+    /**
+     * @return true if a session on this gateway takes the room's deltas
+     */
+    public boolean hasSessions(String roomId) {
+        return rooms.containsKey(roomId);
+    }
+
+    /**
+     * Headers that route a user destination to one session, which needs no Principal.
+     */
+    private static Map<String, Object> headers(String sessionId, long baseVersion) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        if (baseVersion >= 0) {
+            accessor.setNativeHeader(BASE_VERSION_HEADER, Long.toString(baseVersion));
+        }
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    private record Send(String sessionId, StateSnapshot snapshot, long baseVersion) {
+    }
+
+    private static final class Session {
+        private long ackedVersion = -1;
+        private int subscriptions;
+    }
+
+    /**
+     * A room's recent images, oldest overwritten first. Guarded by its own monitor.
+     */
+    private static final class RoomHistory {
+        private final Frame[] ring;
+        private final Map<String, Session> sessions = new HashMap<>();
+        private int next;
+
+        private RoomHistory(int size) {
+            this.ring = new Frame[size];
+        }
+
+        private long latestVersion() {
+            Frame latest = latest();
+            return latest != null ? latest.version : -1;
+        }
+
+        private Frame latest() {
+            return ring[(next - 1 + ring.length) % ring.length];
+        }
+
+        private Frame find(long version) {
+            if (version < 0) {
+                return null;
+            }
+            for (Frame frame : ring) {
+                if (frame != null && frame.version == version) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the room's new image, or null if the update is stale (no newer than the
+         *         latest image; the engine publishes each change under a new version) or
+         *         cannot be applied (a partial update before any whole one)
+         */
+        private Frame advance(StateSnapshot snapshot) {
+            Frame latest = latest();
+            if (latest != null && snapshot.getVersion() <= latest.version) {
+                return null;
+            }
+            if (latest == null && !snapshot.isFullUpdate()) {
+                return null;
+            }
+            Frame frame = snapshot.isFullUpdate() ? Frame.of(snapshot) : latest.apply(snapshot);
+            ring[next] = frame;
+            next = (next + 1) % ring.length;
+            return frame;
+        }
+    }
+
+    /**
+     * The whole room at one version. Never changed once built, so deltas and full
+     * snapshots can share its entries.
+     */
+    private static final class Frame {
+        private final long version;
+        private final long timestamp;
+        private final Map<String, StateSnapshot.PlayerState> players;
+        private final Map<String, StateSnapshot.BulletState> bullets;
+
+        private Frame(long version, long timestamp, Map<String, StateSnapshot.PlayerState> players,
+                      Map<String, StateSnapshot.BulletState> bullets) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.players = players;
+            this.bullets = bullets;
+        }
+
+        private static Frame of(StateSnapshot snapshot) {
+            Map<String, StateSnapshot.PlayerState> players = new LinkedHashMap<>();
+            Map<String, StateSnapshot.BulletState> bullets = new LinkedHashMap<>();
+            putAll(snapshot, players, bullets);
+            return new Frame(snapshot.getVersion(), snapshot.getTimestamp(), players, bullets);
+        }
+
+        private Frame apply(StateSnapshot snapshot) {
+            Map<String, StateSnapshot.PlayerState> nextPlayers = new LinkedHashMap<>(players);
+            Map<String, StateSnapshot.BulletState> nextBullets = new LinkedHashMap<>(bullets);
+            putAll(snapshot, nextPlayers, nextBullets);
+            if (snapshot.getRemovedPlayers() != null) {
+                snapshot.getRemovedPlayers().forEach(nextPlayers::remove);
+            }
+            if (snapshot.getRemovedBullets() != null) {
+                snapshot.getRemovedBullets().forEach(nextBullets::remove);
+            }
+            return new Frame(snapshot.getVersion(), snapshot.getTimestamp(), nextPlayers, nextBullets);
+        }
+
+        private static void putAll(StateSnapshot snapshot, Map<String, StateSnapshot.PlayerState> players,
+                                   Map<String, StateSnapshot.BulletState> bullets) {
+            if (snapshot.getPlayers() != null) {
+                snapshot.getPlayers().forEach(player -> players.put(player.getPlayerId(), player));
+            }
+            if (snapshot.getBullets() != null) {
+                snapshot.getBullets().forEach(bullet -> bullets.put(bullet.getBulletId(), bullet));
+            }
+        }
+
+        private StateSnapshot toSnapshot(String roomId) {
+            StateSnapshot snapshot = header(roomId, true);
+            snapshot.setPlayers(new ArrayList<>(players.values()));
+            snapshot.setBullets(new ArrayList<>(bullets.values()));
+            snapshot.setRemovedPlayers(Collections.emptyList());
+            snapshot.setRemovedBullets(Collections.emptyList());
+            return snapshot;
+        }
+
+        private StateSnapshot deltaFrom(Frame base, String roomId, Counter omitted) {
+            List<StateSnapshot.PlayerState> changedPlayers = new ArrayList<>();
+            for (StateSnapshot.PlayerState player : players.values()) {
+                if (!samePlayer(player, base.players.get(player.getPlayerId()))) {
+                    changedPlayers.add(player);
+                }
+            }
+            List<StateSnapshot.BulletState> changedBullets = new ArrayList<>();
+            for (StateSnapshot.BulletState bullet : bullets.values()) {
+                if (!sameBullet(bullet, base.bullets.get(bullet.getBulletId()))) {
+                    changedBullets.add(bullet);
+                }
+            }
+            omitted.increment(players.size() - changedPlayers.size() + bullets.size() - changedBullets.size());
+
+            StateSnapshot delta = header(roomId, false);
+            delta.setPlayers(changedPlayers);
+            delta.setBullets(changedBullets);
+            delta.setRemovedPlayers(missing(base.players, players));
+            delta.setRemovedBullets(missing(base.bullets, bullets));
+            return delta;
+        }
+
+        private StateSnapshot header(String roomId, boolean fullUpdate) {
+            StateSnapshot snapshot = new StateSnapshot();
+            snapshot.setRoomId(roomId);
+            snapshot.setVersion(version);
+            snapshot.setTimestamp(timestamp);
+            snapshot.setFullUpdate(fullUpdate);
+            return snapshot;
+        }
+
+        private static List<String> missing(Map<String, ?> before, Map<String, ?> after) {
+            List<String> ids = new ArrayList<>();
+            for (String id : before.keySet()) {
+                if (!after.containsKey(id)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        private static boolean samePlayer(StateSnapshot.PlayerState a, StateSnapshot.PlayerState b) {
+            return b != null && a.getHealth() == b.getHealth()
+                    && samePosition(a.getPosition(), b.getPosition())
+                    && sameVelocity(a.getVelocity(), b.getVelocity());
+        }
+
+        private static boolean sameBullet(StateSnapshot.BulletState a, StateSnapshot.BulletState b) {
+            return b != null && samePosition(a.getPosition(), b.getPosition())
+                    && sameVelocity(a.getVelocity(), b.getVelocity());
+        }
+
+        private static boolean samePosition(Position a, Position b) {
+            return a == b || a != null && b != null && a.getX() == b.getX() && a.getY() == b.getY();
+        }
+
+        private static boolean sameVelocity(Velocity a, Velocity b) {
+            return a == b || a != null && b != null && a.getVx() == b.getVx() && a.getVy() == b.getVy();
+        }
+    }
+}
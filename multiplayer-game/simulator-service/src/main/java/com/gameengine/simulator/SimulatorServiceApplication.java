@@ -0,0 +1,24 @@
+package com.gameengine.simulator;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.kafka.annotation.EnableKafka;
+
+/**
+ * Main Spring Boot application for the Simulator Service.
+ * 
+ * This service is responsible for:
+ * - Spawning rooms of scripted bots that publish player events to Kafka
+ * - Driving events at open-loop (fixed schedule) rates for capacity testing
+ * - Consuming game state updates and recording end-to-end latency
+ * - Printing a latency summary report when the run completes
+ */
+@SpringBootApplication
+@EnableKafka
+public class SimulatorServiceApplication {
+
+    public static void main(String[] args) {
+        // The load generator runs as an ApplicationRunner; exit once it has reported
+        System.exit(SpringApplication.exit(SpringApplication.run(SimulatorServiceApplication.class, args)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.gameengine.simulator.bot;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Velocity;
+
+import java.util.Random;
+
+/**
+ * A simulated player that follows a {@link BotScript}.
+ * 
+ * Bots are not thread-safe; each bot is only ever driven by its room's task.
+ */
+public class Bot {
+
+    private final String playerId;
+    private final String roomId;
+    private final BotScript script;
+    private final Random random;
+    private long step;
+
+    public Bot(String playerId, String roomId, BotScript script, long seed) {
+        this.playerId = playerId;
+        this.roomId = roomId;
+        this.script = script;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Produces the bot's next scripted action.
+     */
+    public PlayerEvent nextEvent() {
+        return script.next(this, step++, random);
+    }
+
+    PlayerEvent event(PlayerEvent.ActionType actionType, Velocity velocity) {
+        return new PlayerEvent(playerId, roomId, actionType, null, velocity);
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public BotScript getScript() {
+        return script;
+    }
+
+    @Override
+    public String toString() {
+        return "Bot{" +
+                "playerId='" + playerId + '\'' +
+                ", roomId='" + roomId + '\'' +
+                ", script=" + script +
+                '}';
+    }
+}
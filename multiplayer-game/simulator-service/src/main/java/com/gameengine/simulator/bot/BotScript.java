@@ -0,0 +1,89 @@
+package com.gameengine.simulator.bot;
+
+import com.gameengine.protocol.PlayerEvent;
+import com.gameengine.protocol.Velocity;
+
+import java.util.Random;
+
+/**
+ * Scripted bot behaviours.
+ * 
+ * Each script turns a bot's step counter (and its seeded random source) into the next
+ * player action, so a run with the same seed always emits the same event sequence.
+ */
+public enum BotScript {
+
+    /**
+     * Runs left and right across the room.
+     */
+    STRAFE {
+        @Override
+        PlayerEvent next(Bot bot, long step, Random random) {
+            double vx = (step / 20) % 2 == 0 ? MAX_SPEED : -MAX_SPEED;
+            return bot.event(PlayerEvent.ActionType.MOVE, new Velocity(vx, 0));
+        }
+    },
+
+    /**
+     * Moves in a circle by rotating its heading every step.
+     */
+    CIRCLE {
+        @Override
+        PlayerEvent next(Bot bot, long step, Random random) {
+            return bot.event(PlayerEvent.ActionType.MOVE, heading(step * 15.0, MAX_SPEED));
+        }
+    },
+
+    /**
+     * Walks slowly and fires a sweeping burst on every third step.
+     */
+    GUNNER {
+        @Override
+        PlayerEvent next(Bot bot, long step, Random random) {
+            if (step % 3 == 0) {
+                return bot.event(PlayerEvent.ActionType.SHOOT, heading(step * 7.0, 1.0));
+            }
+            return bot.event(PlayerEvent.ActionType.MOVE, heading(step * 3.0, MAX_SPEED / 2));
+        }
+    },
+
+    /**
+     * Alternates jumps with short moves.
+     */
+    JUMPER {
+        @Override
+        PlayerEvent next(Bot bot, long step, Random random) {
+            if (step % 2 == 0) {
+                return bot.event(PlayerEvent.ActionType.JUMP, null);
+            }
+            return bot.event(PlayerEvent.ActionType.MOVE, new Velocity(0, MAX_SPEED));
+        }
+    },
+
+    /**
+     * Weighted random mix: 60% MOVE, 25% SHOOT, 15% JUMP.
+     */
+    RANDOM {
+        @Override
+        PlayerEvent next(Bot bot, long step, Random random) {
+            int roll = random.nextInt(100);
+            Velocity velocity = heading(random.nextDouble() * 360.0, MAX_SPEED);
+            if (roll < 60) {
+                return bot.event(PlayerEvent.ActionType.MOVE, velocity);
+            } else if (roll < 85) {
+                return bot.event(PlayerEvent.ActionType.SHOOT, velocity);
+            }
+            return bot.event(PlayerEvent.ActionType.JUMP, null);
+        }
+    };
+
+    // Must match the engine's MAX_PLAYER_SPEED so moves are not clamped
+    private static final double MAX_SPEED = 5.0;
+
+    abstract PlayerEvent next(Bot bot, long step, Random random);
+
+    private static Velocity heading(double degrees, double speed) {
+        double radians = Math.toRadians(degrees);
+        return new Velocity(Math.cos(radians) * speed, Math.sin(radians) * speed);
+    }
+}
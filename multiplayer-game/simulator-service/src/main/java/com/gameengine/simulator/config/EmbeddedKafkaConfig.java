@@ -0,0 +1,30 @@
+package com.gameengine.simulator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+
+/**
+ * Starts an in-process Kafka broker (with embedded ZooKeeper) for repeatable local capacity runs.
+ * 
+ * Enabled with the "embedded-kafka" profile. The broker listens on a fixed port so
+ * engine-service and gateway-service can be pointed at it alongside the simulator.
+ */
+@Configuration
+@Profile("embedded-kafka")
+public class EmbeddedKafkaConfig {
+
+    @Bean
+    public EmbeddedKafkaBroker embeddedKafkaBroker(
+            @Value("${simulator.embedded-kafka.port}") int port,
+            @Value("${simulator.embedded-kafka.partitions}") int partitions,
+            @Value("${spring.kafka.topics.player-events}") String playerEventsTopic,
+            @Value("${spring.kafka.topics.game-state-updates}") String stateUpdatesTopic) {
+        // Started and stopped by the container through InitializingBean/DisposableBean
+        return new EmbeddedKafkaZKBroker(1, true, partitions, playerEventsTopic, stateUpdatesTopic)
+                .kafkaPorts(port);
+    }
+}
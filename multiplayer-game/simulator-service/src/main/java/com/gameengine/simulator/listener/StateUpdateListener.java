@@ -0,0 +1,59 @@
+package com.gameengine.simulator.listener;
+
+import com.gameengine.protocol.AnsweredInputs;
+import com.gameengine.simulator.service.LatencyTracker;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka listener that observes game-state-updates and feeds arrival times to the latency tracker.
+ */
+@Component
+public class StateUpdateListener implements ConsumerSeekAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateUpdateListener.class);
+
+    private final LatencyTracker latencyTracker;
+    private final CountDownLatch assigned = new CountDownLatch(1);
+
+    public StateUpdateListener(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    @KafkaListener(
+            topics = "${spring.kafka.topics.game-state-updates}",
+            containerFactory = "stateUpdateKafkaListenerContainerFactory"
+    )
+    public void onStateUpdates(List<ConsumerRecord<String, byte[]>> records) {
+        // One timestamp per poll: records in a batch arrived together
+        long receivedNanos = System.nanoTime();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            latencyTracker.onStateUpdate(record.key(), AnsweredInputs.fromHeaders(record.headers()), receivedNanos);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        logger.info("Observing {} game-state-updates partitions", assignments.size());
+        assigned.countDown();
+    }
+
+    /**
+     * Waits until the listener owns its partitions, so no state update from the run is missed.
+     *
+     * @return true if partitions were assigned within the timeout
+     */
+    public boolean awaitAssignment(long timeout, TimeUnit unit) throws InterruptedException {
+        return assigned.await(timeout, unit);
+    }
+}
@@ -0,0 +1,167 @@
+package com.gameengine.simulator.service;
+
+import com.gameengine.protocol.AnsweredInputs;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records end-to-end input-to-state latency for simulated rooms.
+ * 
+ * Kafka keeps per-room (per-key) ordering in both directions, so each room keeps a FIFO
+ * of intended send times. Every state update says in its {@link AnsweredInputs} header how
+ * many of the room's events it answers, and completes that many of the oldest sends. Tick
+ * and bullet-expiry updates answer none and are skipped. Events the engine coalesced into
+ * one update, because the room's broadcasts were throttled or the events were shed under
+ * load, are all completed by the update that followed them.
+ * Intended (scheduled) times are used rather than actual send times so producer
+ * back-pressure is counted as latency instead of silently hidden (coordinated omission).
+ * 
+ * Latencies are recorded in microseconds.
+ */
+@Component
+public class LatencyTracker {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Queue<Long>> pendingByRoom = new ConcurrentHashMap<>();
+
+    private final Recorder endToEndRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder sendAckRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram endToEndTotal = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram sendAckTotal = new Histogram(SIGNIFICANT_DIGITS);
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+
+    private Histogram endToEndInterval;
+    private Histogram sendAckInterval;
+
+    /**
+     * Starts tracking a room. Updates for untracked rooms (other traffic) are ignored.
+     */
+    public void registerRoom(String roomId) {
+        pendingByRoom.put(roomId, new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * Records that an event for the room was scheduled to be sent at the given time.
+     * Must be called in the same order the events are handed to the producer.
+     */
+    public void onSend(String roomId, long intendedNanos) {
+        Queue<Long> pending = pendingByRoom.get(roomId);
+        if (pending != null) {
+            pending.add(intendedNanos);
+            sent.increment();
+        }
+    }
+
+    /**
+     * Records the broker acknowledgement (or failure) of a sent event.
+     */
+    public void onSendComplete(String roomId, long intendedNanos, boolean success) {
+        if (success) {
+            sendAckRecorder.recordValue(toMicros(System.nanoTime() - intendedNanos));
+        } else {
+            sendFailures.increment();
+            // The engine will never see this event, so drop its slot to keep the FIFO aligned
+            Queue<Long> pending = pendingByRoom.get(roomId);
+            if (pending != null) {
+                pending.remove(intendedNanos);
+            }
+        }
+    }
+
+    /**
+     * Records the arrival of a state update for a room.
+     *
+     * @param answeredInputs Number of the room's events the update answers
+     */
+    public void onStateUpdate(String roomId, int answeredInputs, long receivedNanos) {
+        Queue<Long> pending = roomId != null ? pendingByRoom.get(roomId) : null;
+        if (pending == null) {
+            return;
+        }
+        for (int i = 0; i < answeredInputs; i++) {
+            Long intendedNanos = pending.poll();
+            if (intendedNanos == null) {
+                unmatched.increment();
+                return;
+            }
+            received.increment();
+            endToEndRecorder.recordValue(toMicros(receivedNanos - intendedNanos));
+        }
+    }
+
+    /**
+     * Discards everything recorded so far (warm-up) and starts the measured window.
+     */
+    public synchronized void startMeasurement() {
+        endToEndInterval = endToEndRecorder.getIntervalHistogram(endToEndInterval);
+        sendAckInterval = sendAckRecorder.getIntervalHistogram(sendAckInterval);
+        endToEndTotal.reset();
+        sendAckTotal.reset();
+        sent.reset();
+        sendFailures.reset();
+        received.reset();
+        unmatched.reset();
+    }
+
+    /**
+     * Swaps out the samples recorded since the last call, folds them into the run totals
+     * and returns the interval's end-to-end histogram. The returned histogram is reused
+     * by the next call.
+     */
+    public synchronized Histogram sampleInterval() {
+        endToEndInterval = endToEndRecorder.getIntervalHistogram(endToEndInterval);
+        sendAckInterval = sendAckRecorder.getIntervalHistogram(sendAckInterval);
+        endToEndTotal.add(endToEndInterval);
+        sendAckTotal.add(sendAckInterval);
+        return endToEndInterval;
+    }
+
+    public Histogram getEndToEndTotal() {
+        return endToEndTotal;
+    }
+
+    public Histogram getSendAckTotal() {
+        return sendAckTotal;
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getSendFailures() {
+        return sendFailures.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getUnmatched() {
+        return unmatched.sum();
+    }
+
+    public long getOutstanding() {
+        long outstanding = 0;
+        for (Queue<Long> pending : pendingByRoom.values()) {
+            outstanding += pending.size();
+        }
+        return outstanding;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
@@ -0,0 +1,266 @@
+package com.gameengine.simulator.service;
+
+import com.gameengine.simulator.bot.Bot;
+import com.gameengine.simulator.bot.BotScript;
+import com.gameengine.simulator.listener.StateUpdateListener;
+import com.gameengine.protocol.PlayerEvent;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-loop load generator.
+ * 
+ * Spawns rooms x bots-per-room scripted bots and publishes their actions to player-events
+ * on a fixed schedule. Each room is driven by one periodic task that round-robins over its
+ * bots, which keeps per-room send order identical to the order recorded by the
+ * {@link LatencyTracker}. Sends never wait for the engine's response (open loop), so
+ * the engine cannot slow the offered load down by being slow.
+ */
+@Service
+public class LoadGenerator implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final KafkaTemplate<String, PlayerEvent> kafkaTemplate;
+    private final LatencyTracker latencyTracker;
+    private final StateUpdateListener stateUpdateListener;
+    private final String playerEventsTopic;
+    private final int rooms;
+    private final int botsPerRoom;
+    private final double eventsPerSecondPerBot;
+    private final List<BotScript> scripts;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final long seed;
+    private final String roomPrefix;
+    private final int threads;
+    private final long reportIntervalSeconds;
+    private final String histogramOutputFile;
+    private final long drainSeconds;
+
+    public LoadGenerator(
+            @Qualifier("playerEventKafkaTemplate") KafkaTemplate<String, PlayerEvent> playerEventKafkaTemplate,
+            LatencyTracker latencyTracker,
+            StateUpdateListener stateUpdateListener,
+            @Value("${spring.kafka.topics.player-events}") String playerEventsTopic,
+            @Value("${simulator.rooms:10}") int rooms,
+            @Value("${simulator.bots-per-room:8}") int botsPerRoom,
+            @Value("${simulator.events-per-second-per-bot:10}") double eventsPerSecondPerBot,
+            @Value("${simulator.scripts:STRAFE,CIRCLE,GUNNER,JUMPER}") BotScript[] scripts,
+            @Value("${simulator.warmup-seconds:10}") long warmupSeconds,
+            @Value("${simulator.duration-seconds:60}") long durationSeconds,
+            @Value("${simulator.seed:42}") long seed,
+            @Value("${simulator.room-prefix:sim}") String roomPrefix,
+            @Value("${simulator.threads:4}") int threads,
+            @Value("${simulator.report-interval-seconds:5}") long reportIntervalSeconds,
+            @Value("${simulator.histogram-output-file:}") String histogramOutputFile,
+            @Value("${simulator.drain-seconds:5}") long drainSeconds) {
+        this.kafkaTemplate = playerEventKafkaTemplate;
+        this.latencyTracker = latencyTracker;
+        this.stateUpdateListener = stateUpdateListener;
+        this.playerEventsTopic = playerEventsTopic;
+        this.rooms = rooms;
+        this.botsPerRoom = botsPerRoom;
+        this.eventsPerSecondPerBot = eventsPerSecondPerBot;
+        this.scripts = Arrays.asList(scripts);
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.seed = seed;
+        this.roomPrefix = roomPrefix;
+        this.threads = threads;
+        this.reportIntervalSeconds = reportIntervalSeconds;
+        this.histogramOutputFile = histogramOutputFile;
+        this.drainSeconds = drainSeconds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (rooms <= 0 || botsPerRoom <= 0 || eventsPerSecondPerBot <= 0 || scripts.isEmpty()) {
+            throw new IllegalArgumentException("rooms, bots-per-room, events-per-second-per-bot and scripts must be positive");
+        }
+
+        if (!stateUpdateListener.awaitAssignment(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for game-state-updates partition assignment");
+        }
+
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        List<List<Bot>> swarm = spawnBots(runId);
+
+        double roomRate = botsPerRoom * eventsPerSecondPerBot;
+        long periodNanos = Math.max(1, (long) (NANOS_PER_SECOND / roomRate));
+        logger.info("Starting run {}: {} rooms x {} bots, {} events/s per bot ({} events/s offered), warm-up {}s, duration {}s",
+                runId, rooms, botsPerRoom, eventsPerSecondPerBot, (long) (roomRate * rooms), warmupSeconds, durationSeconds);
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(threads);
+        List<ScheduledFuture<?>> roomTasks = new ArrayList<>();
+        ScheduledFuture<?> reporter = null;
+        try {
+            long start = System.nanoTime();
+            for (int r = 0; r < swarm.size(); r++) {
+                // Stagger rooms across one period so sends are not synchronised bursts
+                long offset = periodNanos * r / swarm.size();
+                RoomDriver driver = new RoomDriver(swarm.get(r), start + offset, periodNanos);
+                roomTasks.add(scheduler.scheduleAtFixedRate(driver, offset, periodNanos, TimeUnit.NANOSECONDS));
+            }
+
+            TimeUnit.SECONDS.sleep(warmupSeconds);
+            latencyTracker.startMeasurement();
+            long measureStart = System.nanoTime();
+            logger.info("Warm-up complete, measuring for {}s", durationSeconds);
+
+            if (reportIntervalSeconds > 0) {
+                reporter = scheduler.scheduleAtFixedRate(this::reportInterval,
+                        reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+            }
+
+            TimeUnit.SECONDS.sleep(durationSeconds);
+            roomTasks.forEach(task -> task.cancel(false));
+            long measureNanos = System.nanoTime() - measureStart;
+
+            drain();
+
+            if (reporter != null) {
+                reporter.cancel(false);
+            }
+            latencyTracker.sampleInterval();
+            printSummary(runId, measureNanos);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private List<List<Bot>> spawnBots(String runId) {
+        List<List<Bot>> swarm = new ArrayList<>(rooms);
+        int botIndex = 0;
+        for (int r = 0; r < rooms; r++) {
+            String roomId = roomPrefix + "-" + runId + "-room-" + r;
+            latencyTracker.registerRoom(roomId);
+
+            List<Bot> bots = new ArrayList<>(botsPerRoom);
+            for (int b = 0; b < botsPerRoom; b++) {
+                BotScript script = scripts.get(botIndex % scripts.size());
+                bots.add(new Bot(roomId + "-bot-" + b, roomId, script, seed + botIndex));
+                botIndex++;
+            }
+            swarm.add(bots);
+        }
+        return swarm;
+    }
+
+    private void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (latencyTracker.getOutstanding() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+
+    private void reportInterval() {
+        Histogram interval = latencyTracker.sampleInterval();
+        logger.info("interval: {} updates, p50={}ms p99={}ms max={}ms, outstanding={}",
+                interval.getTotalCount(),
+                millis(interval.getValueAtPercentile(50)),
+                millis(interval.getValueAtPercentile(99)),
+                millis(interval.getMaxValue()),
+                latencyTracker.getOutstanding());
+    }
+
+    private void printSummary(String runId, long measureNanos) {
+        Histogram endToEnd = latencyTracker.getEndToEndTotal();
+        Histogram sendAck = latencyTracker.getSendAckTotal();
+        double seconds = (double) measureNanos / NANOS_PER_SECOND;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n==== Simulator run %s ====%n", runId));
+        report.append(String.format("rooms=%d bots/room=%d rate/bot=%.1f/s scripts=%s%n",
+                rooms, botsPerRoom, eventsPerSecondPerBot, scripts));
+        report.append(String.format("sent=%d (%.0f/s) sendFailures=%d received=%d (%.0f/s) unmatched=%d lost/outstanding=%d%n",
+                latencyTracker.getSent(), latencyTracker.getSent() / seconds,
+                latencyTracker.getSendFailures(),
+                latencyTracker.getReceived(), latencyTracker.getReceived() / seconds,
+                latencyTracker.getUnmatched(), latencyTracker.getOutstanding()));
+        appendPercentiles(report, "input-to-state", endToEnd);
+        appendPercentiles(report, "producer-ack   ", sendAck);
+        logger.info(report.toString());
+
+        if (histogramOutputFile != null && !histogramOutputFile.isBlank()) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(histogramOutputFile))) {
+                // Values are recorded in microseconds; scale the output to milliseconds
+                endToEnd.outputPercentileDistribution(out, 1000.0);
+                logger.info("Wrote end-to-end percentile distribution to {}", histogramOutputFile);
+            } catch (IOException e) {
+                logger.error("Failed to write histogram to {}", histogramOutputFile, e);
+            }
+        }
+    }
+
+    private static void appendPercentiles(StringBuilder report, String label, Histogram histogram) {
+        report.append(String.format("%s (ms): count=%d p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                label, histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Periodic task for one room. Scheduled executions of a single task never overlap,
+     * so the room's events are always handed to the producer in tracker order.
+     */
+    private final class RoomDriver implements Runnable {
+        private final List<Bot> bots;
+        private final long firstSendNanos;
+        private final long periodNanos;
+        private long sequence;
+
+        private RoomDriver(List<Bot> bots, long firstSendNanos, long periodNanos) {
+            this.bots = bots;
+            this.firstSendNanos = firstSendNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public void run() {
+            // Measure from the scheduled time, not from when the thread got around to it
+            long intendedNanos = firstSendNanos + sequence * periodNanos;
+            Bot bot = bots.get((int) (sequence % bots.size()));
+            sequence++;
+
+            PlayerEvent event = bot.nextEvent();
+            String roomId = bot.getRoomId();
+            try {
+                latencyTracker.onSend(roomId, intendedNanos);
+                kafkaTemplate.send(playerEventsTopic, roomId, event)
+                        .whenComplete((result, ex) -> latencyTracker.onSendComplete(roomId, intendedNanos, ex == null));
+            } catch (Exception e) {
+                // Never let an exception cancel the periodic task
+                logger.error("Error sending event for room: {}", roomId, e);
+                latencyTracker.onSendComplete(roomId, intendedNanos, false);
+            }
+        }
+    }
+}